@@ -0,0 +1,67 @@
+package com.xai.srvls.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts local cache invalidations to the other nodes over Redis pub/sub.
+ * <p>
+ * Messages are {@code node\ncache\nkey} for an eviction and {@code node\ncache} for a clear; each node
+ * ignores its own messages. Delivery is best-effort, so local entries must also expire on their own.
+ */
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * @return the pub/sub channel
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Tell the other nodes to drop a key from their local tier
+     * @param cacheName the cache name
+     * @param key the string form of the key
+     */
+    public void publishEvict(String cacheName, String key) {
+        publish(nodeId + '\n' + cacheName + '\n' + key);
+    }
+
+    /**
+     * Tell the other nodes to drop a whole cache from their local tier
+     * @param cacheName the cache name
+     */
+    public void publishClear(String cacheName) {
+        publish(nodeId + '\n' + cacheName);
+    }
+
+    /**
+     * @param message a received message
+     * @return true if this node sent it
+     */
+    boolean isOwn(String message) {
+        return message.startsWith(nodeId + '\n');
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish cache invalidation on {}", channel, e);
+        }
+    }
+}
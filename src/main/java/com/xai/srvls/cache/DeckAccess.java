@@ -0,0 +1,33 @@
+package com.xai.srvls.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * The fields of a deck that decide who may read it; cached by {@link DeckAccessCache}
+ */
+public record DeckAccess(UUID ownerId, boolean isPublic) {
+
+    public static final SnapshotCodec<DeckAccess> CODEC = new SnapshotCodec<>(1) {
+        @Override
+        protected void write(DataOutputStream out, DeckAccess access) throws IOException {
+            writeUuid(out, access.ownerId);
+            out.writeBoolean(access.isPublic);
+        }
+
+        @Override
+        protected DeckAccess read(DataInputStream in) throws IOException {
+            return new DeckAccess(readUuid(in), in.readBoolean());
+        }
+    };
+
+    /**
+     * @param userId the user ID
+     * @return true if the user may read the deck and its flashcards
+     */
+    public boolean allows(UUID userId) {
+        return isPublic || ownerId.equals(userId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.repository.DeckRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cached inputs of deck authorization checks.
+ * <p>
+ * {@code deckAccess} maps a deck ID to its {@link DeckAccess} and is evicted when the deck is updated or
+ * deleted. {@code flashcardDecks} maps a flashcard ID to its deck ID; a flashcard never moves between
+ * decks, so it is only evicted when the flashcard is deleted. Both are small fixed-size binary values
+ * in the two-tier cache, so a check normally costs no network round trip at all.
+ */
+@Component
+public class DeckAccessCache {
+
+    /**
+     * Codec of the flashcard to deck mapping
+     */
+    public static final SnapshotCodec<UUID> DECK_ID_CODEC = new SnapshotCodec<>(1) {
+        @Override
+        protected void write(DataOutputStream out, UUID deckId) throws IOException {
+            writeUuid(out, deckId);
+        }
+
+        @Override
+        protected UUID read(DataInputStream in) throws IOException {
+            return readUuid(in);
+        }
+    };
+
+    private final DeckRepository deckRepository;
+    private final FlashcardRepository flashcardRepository;
+
+    @Autowired
+    public DeckAccessCache(DeckRepository deckRepository, FlashcardRepository flashcardRepository) {
+        this.deckRepository = deckRepository;
+        this.flashcardRepository = flashcardRepository;
+    }
+
+    /**
+     * Get the access fields of a deck
+     * @param deckId the deck ID
+     * @return the access fields, or null if the deck does not exist
+     */
+    @Cacheable(value = "deckAccess", key = "#deckId", sync = true)
+    public DeckAccess findDeckAccess(UUID deckId) {
+        List<Object[]> rows = deckRepository.findAccessById(deckId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return new DeckAccess((UUID) rows.get(0)[0], (Boolean) rows.get(0)[1]);
+    }
+
+    /**
+     * Get the deck of a flashcard
+     * @param flashcardId the flashcard ID
+     * @return the deck ID, or null if the flashcard does not exist
+     */
+    @Cacheable(value = "flashcardDecks", key = "#flashcardId", sync = true)
+    public UUID findDeckId(UUID flashcardId) {
+        return flashcardRepository.findDeckIdById(flashcardId).orElse(null);
+    }
+}
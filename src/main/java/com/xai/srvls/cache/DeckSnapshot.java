@@ -0,0 +1,83 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.model.SchedulerType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cached state of a deck: its scalar fields, its owner's ID and username, and its card count.
+ * Holds no entity references, so it never drags lazy associations into the cache.
+ */
+public record DeckSnapshot(
+        UUID id,
+        String name,
+        String description,
+        UUID ownerId,
+        String ownerUsername,
+        boolean isPublic,
+        String languageFrom,
+        String languageTo,
+        String tags,
+        SchedulerType schedulerType,
+        Integer newCardsPerDay,
+        long flashcardCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static final SnapshotCodec<DeckSnapshot> CODEC = new SnapshotCodec<>(1) {
+        @Override
+        protected void write(DataOutputStream out, DeckSnapshot deck) throws IOException {
+            writeUuid(out, deck.id);
+            writeString(out, deck.name);
+            writeString(out, deck.description);
+            writeUuid(out, deck.ownerId);
+            writeString(out, deck.ownerUsername);
+            out.writeBoolean(deck.isPublic);
+            writeString(out, deck.languageFrom);
+            writeString(out, deck.languageTo);
+            writeString(out, deck.tags);
+            writeEnum(out, deck.schedulerType);
+            out.writeInt(deck.newCardsPerDay == null ? -1 : deck.newCardsPerDay);
+            out.writeLong(deck.flashcardCount);
+            writeDateTime(out, deck.createdAt);
+            writeDateTime(out, deck.updatedAt);
+        }
+
+        @Override
+        protected DeckSnapshot read(DataInputStream in) throws IOException {
+            UUID id = readUuid(in);
+            String name = readString(in);
+            String description = readString(in);
+            UUID ownerId = readUuid(in);
+            String ownerUsername = readString(in);
+            boolean isPublic = in.readBoolean();
+            String languageFrom = readString(in);
+            String languageTo = readString(in);
+            String tags = readString(in);
+            SchedulerType schedulerType = readEnum(in, SchedulerType.class);
+            int newCardsPerDay = in.readInt();
+            long flashcardCount = in.readLong();
+            return new DeckSnapshot(id, name, description, ownerId, ownerUsername, isPublic, languageFrom, languageTo,
+                    tags, schedulerType, newCardsPerDay < 0 ? null : newCardsPerDay, flashcardCount,
+                    readDateTime(in), readDateTime(in));
+        }
+    };
+
+    /**
+     * Take a snapshot of a deck; reads its owner, so call within a transaction
+     * @param deck the deck
+     * @param flashcardCount the number of flashcards in the deck
+     * @return the snapshot
+     */
+    public static DeckSnapshot of(Deck deck, long flashcardCount) {
+        return new DeckSnapshot(deck.getId(), deck.getName(), deck.getDescription(),
+                deck.getOwner().getId(), deck.getOwner().getUsername(), deck.isPublic(),
+                deck.getLanguageFrom(), deck.getLanguageTo(), deck.getTags(), deck.getSchedulerType(),
+                deck.getNewCardsPerDay(), flashcardCount, deck.getCreatedAt(), deck.getUpdatedAt());
+    }
+}
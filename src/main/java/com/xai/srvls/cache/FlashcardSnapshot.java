@@ -0,0 +1,66 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.model.Flashcard;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cached state of a flashcard: its content and its deck's ID.
+ * Holds no entity references, so it never drags lazy associations into the cache.
+ */
+public record FlashcardSnapshot(
+        UUID id,
+        UUID deckId,
+        String frontContent,
+        String backContent,
+        String frontImageUrl,
+        String backImageUrl,
+        String frontAudioUrl,
+        String backAudioUrl,
+        String hint,
+        String tags,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static final SnapshotCodec<FlashcardSnapshot> CODEC = new SnapshotCodec<>(1) {
+        @Override
+        protected void write(DataOutputStream out, FlashcardSnapshot flashcard) throws IOException {
+            writeUuid(out, flashcard.id);
+            writeUuid(out, flashcard.deckId);
+            writeString(out, flashcard.frontContent);
+            writeString(out, flashcard.backContent);
+            writeString(out, flashcard.frontImageUrl);
+            writeString(out, flashcard.backImageUrl);
+            writeString(out, flashcard.frontAudioUrl);
+            writeString(out, flashcard.backAudioUrl);
+            writeString(out, flashcard.hint);
+            writeString(out, flashcard.tags);
+            writeDateTime(out, flashcard.createdAt);
+            writeDateTime(out, flashcard.updatedAt);
+        }
+
+        @Override
+        protected FlashcardSnapshot read(DataInputStream in) throws IOException {
+            return new FlashcardSnapshot(readUuid(in), readUuid(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in), readString(in), readString(in),
+                    readString(in), readDateTime(in), readDateTime(in));
+        }
+    };
+
+    /**
+     * Take a snapshot of a flashcard. Its deck may be an uninitialized proxy; only its ID is read.
+     * @param flashcard the flashcard
+     * @return the snapshot
+     */
+    public static FlashcardSnapshot of(Flashcard flashcard) {
+        return new FlashcardSnapshot(flashcard.getId(), flashcard.getDeck().getId(),
+                flashcard.getFrontContent(), flashcard.getBackContent(),
+                flashcard.getFrontImageUrl(), flashcard.getBackImageUrl(),
+                flashcard.getFrontAudioUrl(), flashcard.getBackAudioUrl(),
+                flashcard.getHint(), flashcard.getTags(), flashcard.getCreatedAt(), flashcard.getUpdatedAt());
+    }
+}
@@ -0,0 +1,146 @@
+package com.xai.srvls.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Binary Redis codec for a cached snapshot record.
+ * <p>
+ * A value is a magic byte, the snapshot's schema version, then its fields in a fixed order written by
+ * {@link #write}. Values with another magic byte or version, such as Java-serialized entities cached by
+ * older releases or snapshots of an older schema, decode to null, which the cache treats as a miss.
+ * Bump the version whenever the fields of the snapshot change.
+ * @param <T> the snapshot type
+ */
+public abstract class SnapshotCodec<T> implements RedisSerializer<T> {
+
+    private static final byte MAGIC = (byte) 0xC5;
+
+    private final byte version;
+
+    protected SnapshotCodec(int version) {
+        this.version = (byte) version;
+    }
+
+    /**
+     * Write the fields of a snapshot
+     * @param out the output
+     * @param value the snapshot
+     * @throws IOException never for in-memory output
+     */
+    protected abstract void write(DataOutputStream out, T value) throws IOException;
+
+    /**
+     * Read the fields of a snapshot, in the order {@link #write} wrote them
+     * @param in the input
+     * @return the snapshot
+     * @throws IOException if the value is truncated
+     */
+    protected abstract T read(DataInputStream in) throws IOException;
+
+    @Override
+    public byte[] serialize(T value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(version);
+            write(out, value);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[0] != MAGIC || bytes[1] != version) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2));
+            return read(in);
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode a cached snapshot", e);
+        }
+    }
+
+    protected static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    protected static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    /**
+     * Write a nullable string as a length-prefixed UTF-8 byte array; unlike writeUTF it has no 64 KB limit
+     */
+    protected static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    protected static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    protected static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    protected static <E extends Enum<E>> void writeEnum(DataOutputStream out, E value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    /**
+     * Read an enum by name; names this release does not know read as null
+     */
+    protected static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.xai.srvls.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * A Redis cache with a bounded in-process cache in front of it.
+ * <p>
+ * Reads try the local tier first and fill it from Redis on a miss. Writes and evictions go to Redis,
+ * then to the local tier, then are broadcast so the other nodes drop their local copy. Local entries
+ * also expire after a short TTL, which bounds staleness if a broadcast is missed, and never outlive
+ * the Redis entry they were read from.
+ * <p>
+ * Loading through {@link #get(Object, Callable)}, as {@code @Cacheable(sync = true)} does, runs at most
+ * one loader per key on this node; concurrent callers wait for its result, up to a load timeout. It also refreshes entries
+ * early with the probabilistic XFetch rule: a read recomputes the value with a probability that grows
+ * as the Redis entry nears expiry, scaled by how long loads of this cache take. One caller then reloads
+ * a hot key shortly before it expires, instead of every caller at once after it expired. Callers that
+ * arrive during an early refresh keep getting the current value.
+ * <p>
+ * Inside a read-write transaction, writes wait for the commit and are dropped on rollback, so a value
+ * read from uncommitted state is never cached. Evictions run at once and again after the commit: a read between
+ * the two can only re-cache the state the transaction is about to replace, and the second eviction
+ * removes it.
+ * <p>
+ * Local hits return the same instance to every caller, so cached values must be treated as read-only.
+ * Local keys are the string form of the cache key, as in Redis, so invalidations can name them.
+ */
+public class TwoTierCache implements org.springframework.cache.Cache {
+
+    private static final long UNKNOWN_EXPIRY = Long.MAX_VALUE;
+    private static final double LOAD_TIME_WEIGHT = 0.2;
+
+    private final org.springframework.cache.Cache remote;
+    private final Cache<String, Entry> local;
+    private final CacheInvalidationPublisher publisher;
+    private final long ttlMillis;
+    private final double earlyRefreshBeta;
+    private final long loadTimeoutMillis;
+    private final Function<String, Long> remoteTtlMillis;
+    private final ConcurrentMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private volatile double loadTimeMillis;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter missLoads;
+    private final Counter earlyLoads;
+    private final Counter coalescedLoads;
+
+    /**
+     * @param remote the Redis cache
+     * @param local the local tier
+     * @param publisher the invalidation publisher
+     * @param meterRegistry the meter registry
+     * @param ttl the TTL of Redis entries
+     * @param earlyRefreshBeta the XFetch beta; higher refreshes earlier, 0 disables early refresh
+     * @param loadTimeout how long a caller waits for the load of the same key by another caller
+     * @param remoteTtlMillis the remaining TTL in milliseconds of the Redis entry of a local key,
+     *                        negative if it has none; only called when early refresh is enabled
+     */
+    public TwoTierCache(org.springframework.cache.Cache remote, Cache<String, Entry> local,
+                        CacheInvalidationPublisher publisher, MeterRegistry meterRegistry,
+                        Duration ttl, double earlyRefreshBeta, Duration loadTimeout,
+                        Function<String, Long> remoteTtlMillis) {
+        this.remote = remote;
+        this.local = local;
+        this.publisher = publisher;
+        this.ttlMillis = ttl.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loadTimeoutMillis = loadTimeout.toMillis();
+        this.remoteTtlMillis = remoteTtlMillis;
+        this.localHits = counter(meterRegistry, "local", "hit");
+        this.localMisses = counter(meterRegistry, "local", "miss");
+        this.remoteHits = counter(meterRegistry, "redis", "hit");
+        this.remoteMisses = counter(meterRegistry, "redis", "miss");
+        this.missLoads = loadCounter(meterRegistry, "miss");
+        this.earlyLoads = loadCounter(meterRegistry, "early");
+        this.coalescedLoads = loadCounter(meterRegistry, "coalesced");
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = lookup(key);
+        return entry == null ? null : new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Get a value, loading it on a miss or for an early refresh. A null result is returned but not cached.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = lookup(key);
+        if (entry != null && !refreshEarly(entry)) {
+            return (T) entry.value();
+        }
+        return (T) load(key, valueLoader, entry);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // A read-only transaction has no uncommitted state to leak
+        afterCommit(() -> doPut(key, value), TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    @Override
+    public void evict(Object key) {
+        afterCommit(() -> doEvict(key), true);
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(this::doClear, true);
+    }
+
+    private void doPut(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = key.toString();
+        if (value != null) {
+            local.put(localKey, new Entry(value, System.currentTimeMillis() + ttlMillis));
+        } else {
+            local.invalidate(localKey);
+        }
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    private void doEvict(Object key) {
+        remote.evict(key);
+        String localKey = key.toString();
+        local.invalidate(localKey);
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    private void doClear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publishClear(getName());
+    }
+
+    /**
+     * Run a cache write after the current transaction commits, or at once outside a transaction
+     * @param now also run it at once inside a transaction; inside a read-only one, only at once
+     */
+    private static void afterCommit(Runnable write, boolean now) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        if (now) {
+            write.run();
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+
+    /**
+     * Drop a key from the local tier only, on an invalidation from another node
+     * @param key the string form of the key
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop the whole local tier only, on an invalidation from another node
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Entry lookup(Object key) {
+        String localKey = key.toString();
+        Entry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        localMisses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        entry = new Entry(wrapper.get(), remoteExpiry(localKey));
+        local.put(localKey, entry);
+        return entry;
+    }
+
+    /**
+     * Load a value, or wait for the load of the same key already running on this node
+     * @param current the entry being refreshed early, or null on a miss
+     */
+    private Object load(Object key, Callable<?> valueLoader, Entry current) {
+        String localKey = key.toString();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(localKey, future);
+        if (running != null) {
+            if (current != null) {
+                return current.value();
+            }
+            coalescedLoads.increment();
+            try {
+                // Bounded, so a hung loader fails its waiters instead of holding their threads
+                return running.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            } catch (TimeoutException e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        try {
+            // A load that finished just before this one started has already filled the local tier
+            Entry loaded = local.getIfPresent(localKey);
+            if (loaded != null && loaded != current) {
+                future.complete(loaded.value());
+                return loaded.value();
+            }
+            (current == null ? missLoads : earlyLoads).increment();
+            long start = System.nanoTime();
+            Object value = valueLoader.call();
+            recordLoadTime((System.nanoTime() - start) / 1_000_000.0);
+            if (value != null) {
+                put(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(localKey, future);
+        }
+    }
+
+    /**
+     * XFetch: refresh when now - loadTime * beta * ln(random) reaches the expiry, random in (0, 1]
+     */
+    private boolean refreshEarly(Entry entry) {
+        if (earlyRefreshBeta <= 0 || entry.expiresAt() == UNKNOWN_EXPIRY) {
+            return false;
+        }
+        double gap = -loadTimeMillis * earlyRefreshBeta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAt();
+    }
+
+    private long remoteExpiry(String localKey) {
+        if (earlyRefreshBeta <= 0) {
+            return UNKNOWN_EXPIRY;
+        }
+        Long remaining;
+        try {
+            remaining = remoteTtlMillis.apply(localKey);
+        } catch (RuntimeException e) {
+            return UNKNOWN_EXPIRY;
+        }
+        if (remaining == null || remaining == -1) {
+            return UNKNOWN_EXPIRY;
+        }
+        // -2: the entry expired after it was read
+        return System.currentTimeMillis() + Math.max(remaining, 0);
+    }
+
+    /**
+     * Moving average of load times; lost updates between racing loads are harmless
+     */
+    private void recordLoadTime(double millis) {
+        double average = loadTimeMillis;
+        loadTimeMillis = average == 0 ? millis : average + LOAD_TIME_WEIGHT * (millis - average);
+    }
+
+    private Counter loadCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("srvls.cache.loads")
+                .description("Cache loads by type; coalesced loads waited for another caller's load")
+                .tag("cache", remote.getName())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("srvls.cache.gets")
+                .description("Cache lookups by tier")
+                .tag("cache", remote.getName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A locally cached value with the expiry time in epoch milliseconds of its Redis entry
+     */
+    record Entry(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.xai.srvls.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache manager giving every Redis cache a local tier, see {@link TwoTierCache}.
+ * Also receives the invalidations broadcast by the other nodes.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remote;
+    private final CacheInvalidationPublisher publisher;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final double earlyRefreshBeta;
+    private final Duration loadTimeout;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remote, CacheInvalidationPublisher publisher,
+                               StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, Duration ttl,
+                               long localMaxSize, Duration localTtl, double earlyRefreshBeta,
+                               Duration loadTimeout) {
+        this.remote = remote;
+        this.publisher = publisher;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loadTimeout = loadTimeout;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::create);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (publisher.isOwn(body)) {
+            return;
+        }
+        String[] parts = body.split("\n", 3);
+        if (parts.length < 2) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 3) {
+            cache.evictLocal(parts[2]);
+        } else {
+            cache.clearLocal();
+        }
+    }
+
+    private TwoTierCache create(String name) {
+        Cache redisCache = remote.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, TwoTierCache.Entry> local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfter(new LocalExpiry(localTtl))
+                .build();
+        Gauge.builder("srvls.cache.local.size", local, c -> c.estimatedSize())
+                .description("Entries in the local cache tier")
+                .tag("cache", name)
+                .register(meterRegistry);
+        String prefix = CacheKeyPrefix.simple().compute(name);
+        return new TwoTierCache(redisCache, local, publisher, meterRegistry, ttl, earlyRefreshBeta, loadTimeout,
+                key -> redisTemplate.getExpire(prefix + key, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Expires a local entry after the local TTL, or when its Redis entry expires if that is sooner
+     */
+    private static final class LocalExpiry implements Expiry<String, TwoTierCache.Entry> {
+
+        private final long ttlNanos;
+
+        LocalExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, TwoTierCache.Entry entry, long currentTime) {
+            long remainingMillis = entry.expiresAt() - System.currentTimeMillis();
+            if (remainingMillis >= TimeUnit.NANOSECONDS.toMillis(ttlNanos)) {
+                return ttlNanos;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TwoTierCache.Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TwoTierCache.Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
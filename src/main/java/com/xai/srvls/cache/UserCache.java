@@ -0,0 +1,157 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.model.User;
+import com.xai.srvls.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * User snapshots cached by ID, with username and email index entries.
+ * <p>
+ * The only copy of a user is the canonical {@link UserSnapshot} in the {@code users} cache, keyed by ID.
+ * Usernames and emails map to the ID through plain Redis keys in their own {@code user-index:}
+ * namespace, so they cannot collide with IDs. An index hit is only trusted if the canonical entry it
+ * leads to still has that username or email; otherwise the user is reloaded, so a stale index entry
+ * costs a database read but never returns the wrong user. Eviction deletes the canonical entry and
+ * both index entries with one Redis DEL, then drops the local copies on every node.
+ * <p>
+ * Every update and delete of a user goes through {@code UserService}, which evicts the user explicitly;
+ * JWT authentication trusts the cached active flag and roles, so a new write path must do the same.
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    private static final String CACHE = "users";
+    private static final String USERNAME_INDEX = "user-index:username:";
+    private static final String EMAIL_INDEX = "user-index:email:";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache cache;
+
+    @Value("${spring.cache.redis.time-to-live:PT1H}")
+    private Duration ttl;
+
+    @Autowired
+    public UserCache(UserRepository userRepository, StringRedisTemplate redisTemplate, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.cache = cacheManager.getCache(CACHE);
+    }
+
+    /**
+     * Find a user by ID
+     * @param id the user ID
+     * @return the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findById(UUID id) {
+        UserSnapshot cached = cache.get(id, UserSnapshot.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findById(id).map(this::put);
+    }
+
+    /**
+     * Find a user by username
+     * @param username the username
+     * @return the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findByUsername(String username) {
+        return findByIndex(USERNAME_INDEX + username, username, UserSnapshot::username,
+                () -> userRepository.findByUsername(username));
+    }
+
+    /**
+     * Find a user by email
+     * @param email the email address
+     * @return the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findByEmail(String email) {
+        return findByIndex(EMAIL_INDEX + email, email, UserSnapshot::email,
+                () -> userRepository.findByEmail(email));
+    }
+
+    /**
+     * Evict a user and its index entries. Inside a transaction the eviction is repeated after commit,
+     * so a read racing the transaction cannot leave the old state cached.
+     * @param id the user ID
+     */
+    public void evict(UUID id) {
+        UserSnapshot cached = cache.get(id, UserSnapshot.class);
+        evict(id, cached);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id, cached);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID id, UserSnapshot cached) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(CacheKeyPrefix.simple().compute(CACHE) + id);
+        if (cached != null) {
+            keys.add(USERNAME_INDEX + cached.username());
+            keys.add(EMAIL_INDEX + cached.email());
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            logger.warn("Could not evict cached user {}", id, e);
+        }
+        // Drops the local copies here and on the other nodes
+        cache.evict(id);
+    }
+
+    private Optional<UserSnapshot> findByIndex(String indexKey, String value, Function<UserSnapshot, String> field,
+                                               Supplier<Optional<User>> loader) {
+        String id = null;
+        try {
+            id = redisTemplate.opsForValue().get(indexKey);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read user index {}", indexKey, e);
+        }
+        if (id != null) {
+            Optional<UserSnapshot> user = findById(UUID.fromString(id));
+            if (user.isPresent() && value.equals(field.apply(user.get()))) {
+                return user;
+            }
+        }
+        return loader.get().map(this::put);
+    }
+
+    private UserSnapshot put(User user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        cache.put(user.getId(), snapshot);
+        try {
+            String id = user.getId().toString();
+            redisTemplate.opsForValue().set(USERNAME_INDEX + snapshot.username(), id, ttl);
+            redisTemplate.opsForValue().set(EMAIL_INDEX + snapshot.email(), id, ttl);
+        } catch (RuntimeException e) {
+            logger.warn("Could not index cached user {}", user.getId(), e);
+        }
+        return snapshot;
+    }
+}
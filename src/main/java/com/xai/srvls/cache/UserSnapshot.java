@@ -0,0 +1,82 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.model.ERole;
+import com.xai.srvls.model.Role;
+import com.xai.srvls.model.SchedulerType;
+import com.xai.srvls.model.User;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cached state of a user: profile fields and role names, without the password hash or decks
+ */
+public record UserSnapshot(
+        UUID id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        Set<ERole> roles,
+        boolean active,
+        SchedulerType schedulerType,
+        LocalDateTime createdAt,
+        LocalDateTime lastLoginAt) {
+
+    public static final SnapshotCodec<UserSnapshot> CODEC = new SnapshotCodec<>(1) {
+        @Override
+        protected void write(DataOutputStream out, UserSnapshot user) throws IOException {
+            writeUuid(out, user.id);
+            writeString(out, user.username);
+            writeString(out, user.email);
+            writeString(out, user.firstName);
+            writeString(out, user.lastName);
+            out.writeByte(user.roles.size());
+            for (ERole role : user.roles) {
+                writeEnum(out, role);
+            }
+            out.writeBoolean(user.active);
+            writeEnum(out, user.schedulerType);
+            writeDateTime(out, user.createdAt);
+            writeDateTime(out, user.lastLoginAt);
+        }
+
+        @Override
+        protected UserSnapshot read(DataInputStream in) throws IOException {
+            UUID id = readUuid(in);
+            String username = readString(in);
+            String email = readString(in);
+            String firstName = readString(in);
+            String lastName = readString(in);
+            Set<ERole> roles = EnumSet.noneOf(ERole.class);
+            for (int i = in.readUnsignedByte(); i > 0; i--) {
+                ERole role = readEnum(in, ERole.class);
+                if (role != null) {
+                    roles.add(role);
+                }
+            }
+            return new UserSnapshot(id, username, email, firstName, lastName, roles, in.readBoolean(),
+                    readEnum(in, SchedulerType.class), readDateTime(in), readDateTime(in));
+        }
+    };
+
+    /**
+     * Take a snapshot of a user
+     * @param user the user; its roles are eagerly loaded
+     * @return the snapshot
+     */
+    public static UserSnapshot of(User user) {
+        Set<ERole> roles = EnumSet.noneOf(ERole.class);
+        for (Role role : user.getRoles()) {
+            roles.add(role.getName());
+        }
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), roles, user.isActive(), user.getSchedulerType(),
+                user.getCreatedAt(), user.getLastLoginAt());
+    }
+}
@@ -0,0 +1,82 @@
+package com.xai.srvls.config;
+
+import com.xai.srvls.cache.CacheInvalidationPublisher;
+import com.xai.srvls.cache.DeckAccess;
+import com.xai.srvls.cache.DeckAccessCache;
+import com.xai.srvls.cache.DeckSnapshot;
+import com.xai.srvls.cache.FlashcardSnapshot;
+import com.xai.srvls.cache.SnapshotCodec;
+import com.xai.srvls.cache.TwoTierCacheManager;
+import com.xai.srvls.cache.UserSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.time.Duration;
+
+/**
+ * Cache configuration: Redis caches with a local in-process tier on each node
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(
+            StringRedisTemplate redisTemplate,
+            @Value("${srvls.cache.invalidation-channel:cache-invalidation}") String channel) {
+        return new CacheInvalidationPublisher(redisTemplate, channel);
+    }
+
+    /**
+     * Replaces the auto-configured Redis cache manager, keeping its Redis settings and key format.
+     * Entity caches hold snapshot records in their binary codec; other caches use Java serialization.
+     */
+    @Bean
+    public TwoTierCacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            CacheInvalidationPublisher publisher,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${spring.cache.redis.time-to-live:PT1H}") Duration ttl,
+            @Value("${srvls.cache.local.max-size:10000}") long localMaxSize,
+            @Value("${srvls.cache.local.ttl:PT1M}") Duration localTtl,
+            @Value("${srvls.cache.early-refresh-beta:1.0}") double earlyRefreshBeta,
+            @Value("${srvls.cache.load-timeout:PT10S}") Duration loadTimeout) {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+                .entryTtl(ttl)
+                .disableCachingNullValues();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(configuration)
+                .withCacheConfiguration("decks", snapshots(configuration, DeckSnapshot.CODEC))
+                .withCacheConfiguration("flashcards", snapshots(configuration, FlashcardSnapshot.CODEC))
+                .withCacheConfiguration("users", snapshots(configuration, UserSnapshot.CODEC))
+                .withCacheConfiguration("deckAccess", snapshots(configuration, DeckAccess.CODEC))
+                .withCacheConfiguration("flashcardDecks", snapshots(configuration, DeckAccessCache.DECK_ID_CODEC))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, publisher, redisTemplate, meterRegistry, ttl,
+                localMaxSize, localTtl, earlyRefreshBeta, loadTimeout);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, TwoTierCacheManager cacheManager,
+            CacheInvalidationPublisher publisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(publisher.getChannel()));
+        return container;
+    }
+
+    private static RedisCacheConfiguration snapshots(RedisCacheConfiguration configuration, SnapshotCodec<?> codec) {
+        return configuration.serializeValuesWith(SerializationPair.fromSerializer(codec));
+    }
+}
@@ -0,0 +1,134 @@
+package com.xai.srvls.controller;
+
+import com.xai.srvls.dto.DueForecastDTO;
+import com.xai.srvls.dto.ReviewActivityDTO;
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+import com.xai.srvls.service.DailyStatsService;
+import com.xai.srvls.service.DueForecastService;
+import com.xai.srvls.service.ReviewSketchService;
+import com.xai.srvls.service.ReviewStatisticsStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * REST controller for administration and capacity planning
+ */
+@RestController
+@RequestMapping("/admin")
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Administration", description = "APIs for administrators")
+public class AdminController {
+
+    private final DueForecastService dueForecastService;
+    private final DailyStatsService dailyStatsService;
+    private final ReviewStatisticsStreamService reviewStatisticsStreamService;
+    private final ReviewSketchService reviewSketchService;
+
+    @Autowired
+    public AdminController(DueForecastService dueForecastService, DailyStatsService dailyStatsService,
+                           ReviewStatisticsStreamService reviewStatisticsStreamService,
+                           ReviewSketchService reviewSketchService) {
+        this.dueForecastService = dueForecastService;
+        this.dailyStatsService = dailyStatsService;
+        this.reviewStatisticsStreamService = reviewStatisticsStreamService;
+        this.reviewSketchService = reviewSketchService;
+    }
+
+    /**
+     * Forecast cluster-wide review volume
+     * @param days Number of days to forecast, starting today
+     * @return Due cards per day
+     */
+    @GetMapping("/forecast")
+    @Operation(
+            summary = "Forecast review volume",
+            description = "Returns the number of cards falling due per day across all users",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<DueForecastDTO> getForecast(@RequestParam(defaultValue = "30") int days) {
+        if (days < 1 || days > 365) {
+            throw new IllegalArgumentException("Days must be between 1 and 365");
+        }
+        return ResponseEntity.ok(dueForecastService.forecast(days));
+    }
+
+    /**
+     * Compute review statistics over any range, streamed from the review history
+     * @param startDate Start date
+     * @param endDate End date
+     * @param userId Optional user ID; all users when omitted
+     * @param deckId Optional deck ID to filter by
+     * @return Review statistics
+     */
+    @GetMapping("/statistics")
+    @Operation(
+            summary = "Get review statistics over a long range",
+            description = "Streams the reviews of a date range, for one user or all users, without loading them into memory",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewStatisticsDTO> getStatistics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) UUID deckId) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        return ResponseEntity.ok(reviewStatisticsStreamService.compute(startDate, endDate, userId, deckId));
+    }
+
+    /**
+     * Get approximate review activity across all users
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Active learners, distinct flashcards and response time percentiles
+     */
+    @GetMapping("/activity")
+    @Operation(
+            summary = "Get review activity",
+            description = "Returns daily active learners, distinct flashcards reviewed and response time percentiles, " +
+                    "merged from hourly sketches. Reviews of the last minute may not be included yet",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewActivityDTO> getActivity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate.isBefore(startDate) || startDate.plusYears(1).isBefore(endDate)) {
+            throw new IllegalArgumentException("Range must be between 1 day and 1 year");
+        }
+        return ResponseEntity.ok(reviewSketchService.summarize(startDate, endDate));
+    }
+
+    /**
+     * Rebuild the daily statistics rollups from the review history
+     * @return Accepted; the backfill runs in the background
+     */
+    @PostMapping("/statistics/backfill")
+    @Operation(
+            summary = "Backfill daily statistics",
+            description = "Rebuilds every user's daily statistics rollups from the reviews table in the background. " +
+                    "Does nothing if a backfill is already running. Statistics read the rollups once " +
+                    "srvls.statistics.rollup-enabled is set, which should follow the first backfill.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<Void> backfillStatistics() {
+        if (!dailyStatsService.isBackfilling()) {
+            dailyStatsService.backfill();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
@@ -119,6 +119,7 @@ public class AuthController {
 
         user.setFirstName(signUpRequest.getFirstName());
         user.setLastName(signUpRequest.getLastName());
+        user.setSchedulerType(signUpRequest.getSchedulerType());
 
         Set<Role> roles = new HashSet<>();
         Role userRole = roleRepository.findByName(ERole.ROLE_USER)
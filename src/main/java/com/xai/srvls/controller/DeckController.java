@@ -1,10 +1,15 @@
 package com.xai.srvls.controller;
 
+import com.xai.srvls.cache.DeckSnapshot;
+import com.xai.srvls.dto.DeckAnalyticsDTO;
 import com.xai.srvls.dto.DeckDTO;
+import com.xai.srvls.dto.DeckDashboardDTO;
 import com.xai.srvls.mapper.DeckMapper;
 import com.xai.srvls.model.Deck;
 import com.xai.srvls.security.CurrentUser;
 import com.xai.srvls.security.UserPrincipal;
+import com.xai.srvls.service.DeckAnalyticsService;
+import com.xai.srvls.service.DeckCounterService;
 import com.xai.srvls.service.DeckService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +28,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -34,11 +40,16 @@ import java.util.UUID;
 public class DeckController {
     
     private final DeckService deckService;
+    private final DeckCounterService deckCounterService;
+    private final DeckAnalyticsService deckAnalyticsService;
     private final DeckMapper deckMapper;
     
     @Autowired
-    public DeckController(DeckService deckService, DeckMapper deckMapper) {
+    public DeckController(DeckService deckService, DeckCounterService deckCounterService,
+                          DeckAnalyticsService deckAnalyticsService, DeckMapper deckMapper) {
         this.deckService = deckService;
+        this.deckCounterService = deckCounterService;
+        this.deckAnalyticsService = deckAnalyticsService;
         this.deckMapper = deckMapper;
     }
     
@@ -63,13 +74,44 @@ public class DeckController {
             @PathVariable UUID id,
             @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
         
-        return deckService.findById(id)
-                .filter(deck -> deck.isPublic() || deck.getOwner().getId().equals(userPrincipal.getId()))
+        return deckService.findSnapshotById(id)
+                .filter(deck -> deck.isPublic() || deck.ownerId().equals(userPrincipal.getId()))
                 .map(deckMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Get the learning analytics of a deck
+     * @param id the deck ID
+     * @param userPrincipal the current authenticated user
+     * @return the analytics if the deck is owned by the current user
+     */
+    @GetMapping("/{id}/analytics")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get deck analytics",
+            description = "Returns the cards of a deck by level and interval across all its learners, " +
+                    "with their average easiness factor and predicted retention",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Analytics computed"),
+                    @ApiResponse(responseCode = "404", description = "Deck not found"),
+                    @ApiResponse(responseCode = "403", description = "Not the deck owner")
+            }
+    )
+    public ResponseEntity<DeckAnalyticsDTO> getDeckAnalytics(
+            @PathVariable UUID id,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+        
+        DeckSnapshot deck = deckService.findSnapshotById(id)
+                .orElseThrow(() -> new com.xai.srvls.exception.DeckNotFoundException(id.toString()));
+        if (!deck.ownerId().equals(userPrincipal.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(deckAnalyticsService.getAnalytics(id));
+    }
+    
     /**
      * Get all decks owned by the current user
      * @param userPrincipal the current authenticated user
@@ -91,6 +133,24 @@ public class DeckController {
         return ResponseEntity.ok(decks.map(deckMapper::toDTO));
     }
     
+    /**
+     * Get the home dashboard of the current user
+     * @param userPrincipal the current authenticated user
+     * @return every deck owned by the user with its card counts
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get the deck dashboard",
+            description = "Returns every deck owned by the current user with its due, new and learned card counts",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<List<DeckDashboardDTO>> getDashboard(
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+        
+        return ResponseEntity.ok(deckCounterService.getDashboard(userPrincipal.getId()));
+    }
+    
     /**
      * Get all public decks
      * @param pageable pagination parameters
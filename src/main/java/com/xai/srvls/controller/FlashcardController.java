@@ -1,5 +1,6 @@
 package com.xai.srvls.controller;
 
+import com.xai.srvls.dto.CardClassificationDTO;
 import com.xai.srvls.dto.FlashcardDTO;
 import com.xai.srvls.mapper.FlashcardMapper;
 import com.xai.srvls.model.Flashcard;
@@ -15,6 +16,7 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -58,11 +60,8 @@ public class FlashcardController {
             @PathVariable UUID id,
             @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
 
-        return flashcardService.findById(id)
-                .filter(flashcard -> {
-                    UUID deckId = flashcard.getDeck().getId();
-                    return deckService.canUserAccessDeck(deckId, userPrincipal.getId());
-                })
+        return flashcardService.findSnapshotById(id)
+                .filter(flashcard -> deckService.canUserAccessDeck(flashcard.deckId(), userPrincipal.getId()))
                 .map(flashcardMapper::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -214,16 +213,16 @@ public class FlashcardController {
      * @param deckId Optional deck ID to filter by
      * @param userPrincipal Current user
      * @param pageable Pagination parameters
-     * @return Page of flashcards due for review
+     * @return Slice of flashcards due for review
      */
     @GetMapping("/review")
     @PreAuthorize("isAuthenticated()")
     @Operation(
             summary = "Get flashcards due for review",
-            description = "Returns flashcards that are due for review based on the spaced repetition algorithm",
+            description = "Returns flashcards that are due for review based on the spaced repetition algorithm, most overdue first; sort parameters are rejected",
             security = @SecurityRequirement(name = "bearerAuth")
     )
-    public ResponseEntity<Page<FlashcardDTO>> getFlashcardsDueForReview(
+    public ResponseEntity<Slice<FlashcardDTO>> getFlashcardsDueForReview(
             @RequestParam(required = false) UUID deckId,
             @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal,
             @PageableDefault(size = 20) Pageable pageable) {
@@ -233,9 +232,33 @@ public class FlashcardController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        Page<Flashcard> flashcards = flashcardService.findFlashcardsDueForReview(
+        Slice<Flashcard> flashcards = flashcardService.findFlashcardsDueForReview(
                 userPrincipal.getId(), deckId, pageable);
         
         return ResponseEntity.ok(flashcards.map(flashcardMapper::toDTO));
     }
+
+    /**
+     * Get the review, new and learned card counts of the current user
+     * @param deckId Optional deck ID to filter by
+     * @param userPrincipal Current user
+     * @return Card counts per classification
+     */
+    @GetMapping("/classification")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get card classification",
+            description = "Returns how many reviewed cards are due today (review), overdue (new) or due later (learned)",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<CardClassificationDTO> getCardClassification(
+            @RequestParam(required = false) UUID deckId,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+
+        if (deckId != null && !deckService.canUserAccessDeck(deckId, userPrincipal.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(flashcardService.classifyCards(userPrincipal.getId(), deckId));
+    }
 }
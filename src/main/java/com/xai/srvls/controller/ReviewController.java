@@ -1,13 +1,22 @@
 package com.xai.srvls.controller;
 
+import com.xai.srvls.dto.BatchReviewRequest;
+import com.xai.srvls.dto.BatchReviewResultDTO;
 import com.xai.srvls.dto.ReviewDTO;
+import com.xai.srvls.dto.ReviewHeatmapDTO;
+import com.xai.srvls.dto.ReviewSessionDTO;
+import com.xai.srvls.dto.ReviewSessionPageDTO;
 import com.xai.srvls.dto.ReviewStatisticsDTO;
+import com.xai.srvls.dto.ReviewSyncRequest;
+import com.xai.srvls.dto.ReviewSyncResultDTO;
 import com.xai.srvls.mapper.ReviewMapper;
 import com.xai.srvls.model.Review;
 import com.xai.srvls.security.CurrentUser;
 import com.xai.srvls.security.UserPrincipal;
-import com.xai.srvls.service.FlashcardService;
+import com.xai.srvls.service.DailyStatsService;
 import com.xai.srvls.service.ReviewService;
+import com.xai.srvls.service.ReviewSessionService;
+import com.xai.srvls.service.ReviewSyncService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -18,12 +27,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -35,13 +49,19 @@ import java.util.UUID;
 public class ReviewController {
 
     private final ReviewService reviewService;
-    private final FlashcardService flashcardService;
+    private final ReviewSyncService reviewSyncService;
+    private final ReviewSessionService reviewSessionService;
+    private final DailyStatsService dailyStatsService;
     private final ReviewMapper reviewMapper;
 
     @Autowired
-    public ReviewController(ReviewService reviewService, FlashcardService flashcardService, ReviewMapper reviewMapper) {
+    public ReviewController(ReviewService reviewService, ReviewSyncService reviewSyncService,
+                            ReviewSessionService reviewSessionService, DailyStatsService dailyStatsService,
+                            ReviewMapper reviewMapper) {
         this.reviewService = reviewService;
-        this.flashcardService = flashcardService;
+        this.reviewSyncService = reviewSyncService;
+        this.reviewSessionService = reviewSessionService;
+        this.dailyStatsService = dailyStatsService;
         this.reviewMapper = reviewMapper;
     }
 
@@ -75,6 +95,49 @@ public class ReviewController {
         }
     }
 
+    /**
+     * Submit reviews for several flashcards at once
+     * @param request Batch of reviews, each with its flashcard ID
+     * @param userPrincipal Current user
+     * @return One result per submitted review, in request order
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Submit a batch of flashcard reviews",
+            description = "Records up to 100 reviews in one request and returns a result for each item",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<List<BatchReviewResultDTO>> submitReviewBatch(
+            @Valid @RequestBody BatchReviewRequest request,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+
+        List<BatchReviewResultDTO> results = reviewService.createReviews(request.getReviews(), userPrincipal.getId());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Upload reviews recorded while offline
+     * @param request Offline reviews with client-generated IDs and timestamps
+     * @param userPrincipal Current user
+     * @return Counts of applied, duplicate and rejected reviews
+     */
+    @PostMapping("/sync")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Sync offline reviews",
+            description = "Records reviews made offline, replaying each flashcard's reviews in client time order. " +
+                    "Uploading the same client review ID again is a no-op",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewSyncResultDTO> syncOfflineReviews(
+            @Valid @RequestBody ReviewSyncRequest request,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+
+        ReviewSyncResultDTO result = reviewSyncService.sync(request.getReviews(), userPrincipal.getId());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Get reviews for a flashcard
      * @param flashcardId Flashcard ID
@@ -95,9 +158,7 @@ public class ReviewController {
             @PageableDefault(size = 20) Pageable pageable) {
 
         // Check if the user can access the flashcard
-        if (!flashcardService.findById(flashcardId)
-                .filter(flashcard -> reviewService.canUserAccessFlashcard(flashcard, userPrincipal.getId()))
-                .isPresent()) {
+        if (!reviewService.canUserAccessFlashcard(flashcardId, userPrincipal.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -105,6 +166,50 @@ public class ReviewController {
         return ResponseEntity.ok(reviews.map(reviewMapper::toDTO));
     }
 
+    /**
+     * Get today's review session for the current user
+     * @param userPrincipal Current user
+     * @return Due and new flashcard IDs for today
+     */
+    @GetMapping("/session")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get today's review session",
+            description = "Returns today's due flashcards, most overdue first, followed by new flashcards up to each deck's daily limit",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewSessionDTO> getReviewSession(
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(reviewSessionService.getSession(userPrincipal.getId()));
+    }
+
+    /**
+     * Get the next due flashcards of the current user with their content
+     * @param cursor Cursor returned with the previous page; omitted for the first page
+     * @param limit Maximum number of cards
+     * @param userPrincipal Current user
+     * @return Due flashcards and the cursor of the next page
+     */
+    @GetMapping("/session/cards")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get the next due flashcards with content",
+            description = "Returns due flashcards with full content and media URLs, most overdue first. " +
+                    "Pass the returned cursor to fetch the next page while the current one is studied.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewSessionPageDTO> getReviewSessionCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal) {
+
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        return ResponseEntity.ok(reviewSessionService.getSessionCards(userPrincipal.getId(), cursor, limit));
+    }
+
     /**
      * Get review statistics for a user
      * @param startDate Start date
@@ -132,6 +237,62 @@ public class ReviewController {
         return ResponseEntity.ok(statistics);
     }
 
+    /**
+     * Get the current user's reviews per day, for the activity calendar
+     * @param startDate Start date; defaults to 364 days before the end date
+     * @param endDate End date; defaults to today
+     * @param userPrincipal Current user
+     * @param request The request, for conditional GET
+     * @return One count per day, or 304 if the client copy is current
+     */
+    @GetMapping(value = "/heatmap", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+            summary = "Get the review heatmap",
+            description = "Returns the start date and one review count per day. Supports If-None-Match. " +
+                    "Request application/octet-stream for the varint encoding: start epoch day, day count, counts",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<ReviewHeatmapDTO> getReviewHeatmap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal,
+            @Parameter(hidden = true) WebRequest request) {
+
+        ReviewHeatmapDTO heatmap = loadHeatmap(userPrincipal, startDate, endDate);
+        String eTag = heatmapETag("j", heatmap);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).body(heatmap);
+    }
+
+    /**
+     * Get the current user's reviews per day in the binary encoding
+     * @param startDate Start date; defaults to 364 days before the end date
+     * @param endDate End date; defaults to today
+     * @param userPrincipal Current user
+     * @param request The request, for conditional GET
+     * @return The encoded counts, or 304 if the client copy is current
+     */
+    @GetMapping(value = "/heatmap", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(hidden = true)
+    public ResponseEntity<byte[]> getReviewHeatmapBinary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(hidden = true) @CurrentUser UserPrincipal userPrincipal,
+            @Parameter(hidden = true) WebRequest request) {
+
+        ReviewHeatmapDTO heatmap = loadHeatmap(userPrincipal, startDate, endDate);
+        String eTag = heatmapETag("b", heatmap);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(DailyStatsService.encodeHeatmap(heatmap));
+    }
+
     /**
      * Get reviews for the current user
      * @param userPrincipal Current user
@@ -152,4 +313,20 @@ public class ReviewController {
         Page<Review> reviews = reviewService.findByUserId(userPrincipal.getId(), pageable);
         return ResponseEntity.ok(reviews.map(reviewMapper::toDTO));
     }
+
+    private ReviewHeatmapDTO loadHeatmap(UserPrincipal userPrincipal, LocalDate startDate, LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(364);
+        if (start.isAfter(end) || start.plusYears(2).isBefore(end)) {
+            throw new IllegalArgumentException("Heatmap range must be between 1 day and 2 years");
+        }
+        return dailyStatsService.getHeatmap(userPrincipal.getId(), start, end);
+    }
+
+    /**
+     * Tag a heatmap by the hash of its encoding; the prefix tells the representations apart
+     */
+    private static String heatmapETag(String prefix, ReviewHeatmapDTO heatmap) {
+        return "\"" + prefix + DigestUtils.md5DigestAsHex(DailyStatsService.encodeHeatmap(heatmap)) + "\"";
+    }
 }
@@ -0,0 +1,30 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for submitting several flashcard reviews in one request
+ */
+@Schema(description = "Batch review submission request")
+public class BatchReviewRequest {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = MAX_BATCH_SIZE, message = "A batch cannot contain more than 100 reviews")
+    @Schema(description = "Reviews to record, each with its flashcardId and quality", required = true)
+    private List<@Valid ReviewDTO> reviews;
+
+    public List<ReviewDTO> getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(List<ReviewDTO> reviews) {
+        this.reviews = reviews;
+    }
+}
@@ -0,0 +1,70 @@
+package com.xai.srvls.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * DTO for the outcome of a single item of a batch review submission
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Result of one review in a batch")
+public class BatchReviewResultDTO {
+
+    @Schema(description = "ID of the flashcard the item referred to", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID flashcardId;
+
+    @Schema(description = "HTTP status of this item", example = "201")
+    private int status;
+
+    @Schema(description = "Error message when the item was rejected", example = "Flashcard not found")
+    private String message;
+
+    @Schema(description = "The recorded review when the item was accepted")
+    private ReviewDTO review;
+
+    public BatchReviewResultDTO() {
+    }
+
+    public BatchReviewResultDTO(UUID flashcardId, int status, String message, ReviewDTO review) {
+        this.flashcardId = flashcardId;
+        this.status = status;
+        this.message = message;
+        this.review = review;
+    }
+
+    // Getters and Setters
+
+    public UUID getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(UUID flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public ReviewDTO getReview() {
+        return review;
+    }
+
+    public void setReview(ReviewDTO review) {
+        this.review = review;
+    }
+}
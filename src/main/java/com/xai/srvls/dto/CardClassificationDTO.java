@@ -0,0 +1,52 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Card counts by Review Card URD classification
+ */
+@Schema(description = "Card counts by review classification")
+public class CardClassificationDTO {
+
+    @Schema(description = "Cards due for review today", example = "8")
+    private long reviewCards;
+
+    @Schema(description = "Overdue cards that need immediate attention", example = "3")
+    private long newCards;
+
+    @Schema(description = "Cards due after today", example = "34")
+    private long learnedCards;
+
+    public CardClassificationDTO() {
+    }
+
+    public CardClassificationDTO(long reviewCards, long newCards, long learnedCards) {
+        this.reviewCards = reviewCards;
+        this.newCards = newCards;
+        this.learnedCards = learnedCards;
+    }
+
+    public long getReviewCards() {
+        return reviewCards;
+    }
+
+    public void setReviewCards(long reviewCards) {
+        this.reviewCards = reviewCards;
+    }
+
+    public long getNewCards() {
+        return newCards;
+    }
+
+    public void setNewCards(long newCards) {
+        this.newCards = newCards;
+    }
+
+    public long getLearnedCards() {
+        return learnedCards;
+    }
+
+    public void setLearnedCards(long learnedCards) {
+        this.learnedCards = learnedCards;
+    }
+}
@@ -0,0 +1,84 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Learning progress of all learners of one deck
+ */
+@Schema(description = "How far the learners of a deck have progressed through its cards")
+public class DeckAnalyticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "Cards started, counted once per learner", example = "12840")
+    private long cardCount;
+
+    @Schema(description = "Learners who have started the deck", example = "312")
+    private long learnerCount;
+
+    @Schema(description = "Started cards by level", example = "{\"1\": 3100, \"2\": 2400}")
+    private Map<Integer, Long> levelCounts;
+
+    @Schema(description = "Started cards by interval in days, in interval order", example = "{\"1\": 900, \"2-7\": 2100}")
+    private Map<String, Long> intervalCounts;
+
+    @Schema(description = "Average easiness factor of the started cards", example = "2.41")
+    private double averageEasinessFactor;
+
+    @Schema(description = "Average predicted probability of recalling a started card today, 0-1", example = "0.87")
+    private double predictedRetention;
+
+    public DeckAnalyticsDTO() {
+    }
+
+    public long getCardCount() {
+        return cardCount;
+    }
+
+    public void setCardCount(long cardCount) {
+        this.cardCount = cardCount;
+    }
+
+    public long getLearnerCount() {
+        return learnerCount;
+    }
+
+    public void setLearnerCount(long learnerCount) {
+        this.learnerCount = learnerCount;
+    }
+
+    public Map<Integer, Long> getLevelCounts() {
+        return levelCounts;
+    }
+
+    public void setLevelCounts(Map<Integer, Long> levelCounts) {
+        this.levelCounts = levelCounts;
+    }
+
+    public Map<String, Long> getIntervalCounts() {
+        return intervalCounts;
+    }
+
+    public void setIntervalCounts(Map<String, Long> intervalCounts) {
+        this.intervalCounts = intervalCounts;
+    }
+
+    public double getAverageEasinessFactor() {
+        return averageEasinessFactor;
+    }
+
+    public void setAverageEasinessFactor(double averageEasinessFactor) {
+        this.averageEasinessFactor = averageEasinessFactor;
+    }
+
+    public double getPredictedRetention() {
+        return predictedRetention;
+    }
+
+    public void setPredictedRetention(double predictedRetention) {
+        this.predictedRetention = predictedRetention;
+    }
+}
@@ -1,6 +1,9 @@
 package com.xai.srvls.dto;
 
+import com.xai.srvls.model.SchedulerType;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -43,6 +46,14 @@ public class DeckDTO {
     @Schema(description = "Tags for the deck", example = "beginner,vocabulary,spanish")
     private String tags;
     
+    @Schema(description = "Scheduler for reviews of this deck; defaults to the user's preference", example = "SM2")
+    private SchedulerType schedulerType;
+    
+    @Min(value = 0, message = "New cards per day cannot be negative")
+    @Max(value = 1000, message = "New cards per day cannot exceed 1000")
+    @Schema(description = "New cards introduced per day in review sessions; defaults to the application setting", example = "20")
+    private Integer newCardsPerDay;
+    
     @Schema(description = "Number of flashcards in the deck", example = "50")
     private int flashcardCount;
     
@@ -126,6 +137,22 @@ public class DeckDTO {
         this.tags = tags;
     }
     
+    public SchedulerType getSchedulerType() {
+        return schedulerType;
+    }
+    
+    public void setSchedulerType(SchedulerType schedulerType) {
+        this.schedulerType = schedulerType;
+    }
+    
+    public Integer getNewCardsPerDay() {
+        return newCardsPerDay;
+    }
+    
+    public void setNewCardsPerDay(Integer newCardsPerDay) {
+        this.newCardsPerDay = newCardsPerDay;
+    }
+    
     public int getFlashcardCount() {
         return flashcardCount;
     }
@@ -0,0 +1,78 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * Card counts of one deck for the home screen
+ */
+@Schema(description = "A deck with its due, new and learned card counts")
+public class DeckDashboardDTO {
+
+    @Schema(description = "Deck ID")
+    private UUID deckId;
+
+    @Schema(description = "Deck name", example = "Spanish Vocabulary")
+    private String name;
+
+    @Schema(description = "Reviewed cards due today or earlier", example = "12")
+    private int dueCount;
+
+    @Schema(description = "Cards never reviewed", example = "40")
+    private int newCount;
+
+    @Schema(description = "Reviewed cards not yet due", example = "85")
+    private int learnedCount;
+
+    public DeckDashboardDTO() {
+    }
+
+    public DeckDashboardDTO(UUID deckId, String name, int dueCount, int newCount, int learnedCount) {
+        this.deckId = deckId;
+        this.name = name;
+        this.dueCount = dueCount;
+        this.newCount = newCount;
+        this.learnedCount = learnedCount;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    public void setDeckId(UUID deckId) {
+        this.deckId = deckId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getDueCount() {
+        return dueCount;
+    }
+
+    public void setDueCount(int dueCount) {
+        this.dueCount = dueCount;
+    }
+
+    public int getNewCount() {
+        return newCount;
+    }
+
+    public void setNewCount(int newCount) {
+        this.newCount = newCount;
+    }
+
+    public int getLearnedCount() {
+        return learnedCount;
+    }
+
+    public void setLearnedCount(int learnedCount) {
+        this.learnedCount = learnedCount;
+    }
+}
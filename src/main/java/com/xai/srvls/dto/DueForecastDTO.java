@@ -0,0 +1,60 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Forecast of cluster-wide review volume
+ */
+@Schema(description = "Cards falling due per day across all users; overdue cards are counted on the first day")
+public class DueForecastDTO {
+
+    @Schema(description = "Due cards by date, in date order")
+    private Map<LocalDate, Long> dailyDueCounts;
+
+    @Schema(description = "Average due cards per day over the forecast", example = "18250.5")
+    private double averageDueCount;
+
+    @Schema(description = "Date with the most due cards", example = "2026-01-20")
+    private LocalDate peakDate;
+
+    @Schema(description = "Due cards on the peak date", example = "31002")
+    private long peakDueCount;
+
+    public DueForecastDTO() {
+    }
+
+    public Map<LocalDate, Long> getDailyDueCounts() {
+        return dailyDueCounts;
+    }
+
+    public void setDailyDueCounts(Map<LocalDate, Long> dailyDueCounts) {
+        this.dailyDueCounts = dailyDueCounts;
+    }
+
+    public double getAverageDueCount() {
+        return averageDueCount;
+    }
+
+    public void setAverageDueCount(double averageDueCount) {
+        this.averageDueCount = averageDueCount;
+    }
+
+    public LocalDate getPeakDate() {
+        return peakDate;
+    }
+
+    public void setPeakDate(LocalDate peakDate) {
+        this.peakDate = peakDate;
+    }
+
+    public long getPeakDueCount() {
+        return peakDueCount;
+    }
+
+    public void setPeakDueCount(long peakDueCount) {
+        this.peakDueCount = peakDueCount;
+    }
+}
@@ -0,0 +1,80 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for a review recorded on the client while offline
+ */
+@Schema(description = "Review recorded offline by the client")
+public class OfflineReviewDTO {
+
+    @NotNull(message = "Client review ID is required")
+    @Schema(description = "Client-generated review ID, used to drop duplicate uploads",
+            example = "123e4567-e89b-12d3-a456-426614174000", required = true)
+    private UUID clientReviewId;
+
+    @NotNull(message = "Flashcard ID is required")
+    @Schema(description = "ID of the flashcard being reviewed", example = "123e4567-e89b-12d3-a456-426614174000", required = true)
+    private UUID flashcardId;
+
+    @Min(value = 0, message = "Quality must be between 0 and 5")
+    @Max(value = 5, message = "Quality must be between 0 and 5")
+    @Schema(description = "Quality of the response (0-5)", example = "4", required = true)
+    private int quality;
+
+    @Schema(description = "Response time in milliseconds", example = "3500")
+    private Long responseTimeMs;
+
+    @NotNull(message = "Review timestamp is required")
+    @Schema(description = "When the review happened on the client, with its UTC offset",
+            example = "2024-05-01T08:30:00Z", required = true)
+    private OffsetDateTime reviewedAt;
+
+    // Getters and Setters
+
+    public UUID getClientReviewId() {
+        return clientReviewId;
+    }
+
+    public void setClientReviewId(UUID clientReviewId) {
+        this.clientReviewId = clientReviewId;
+    }
+
+    public UUID getFlashcardId() {
+        return flashcardId;
+    }
+
+    public void setFlashcardId(UUID flashcardId) {
+        this.flashcardId = flashcardId;
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    public void setQuality(int quality) {
+        this.quality = quality;
+    }
+
+    public Long getResponseTimeMs() {
+        return responseTimeMs;
+    }
+
+    public void setResponseTimeMs(Long responseTimeMs) {
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    public OffsetDateTime getReviewedAt() {
+        return reviewedAt;
+    }
+
+    public void setReviewedAt(OffsetDateTime reviewedAt) {
+        this.reviewedAt = reviewedAt;
+    }
+}
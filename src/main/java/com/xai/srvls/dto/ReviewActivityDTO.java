@@ -0,0 +1,93 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Approximate cluster-wide review activity over a date range
+ */
+@Schema(description = "Review activity across all users; distinct counts are within about 2% and percentiles within about 3%")
+public class ReviewActivityDTO {
+
+    @Schema(description = "First day", example = "2026-01-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Last day, inclusive", example = "2026-01-31")
+    private LocalDate endDate;
+
+    @Schema(description = "Reviews recorded", example = "1204388")
+    private long reviewCount;
+
+    @Schema(description = "Distinct learners who reviewed", example = "41207")
+    private long activeLearners;
+
+    @Schema(description = "Distinct flashcards reviewed", example = "388120")
+    private long distinctFlashcards;
+
+    @Schema(description = "Distinct learners per day, in date order")
+    private Map<LocalDate, Long> dailyActiveLearners;
+
+    @Schema(description = "Response time percentiles in milliseconds", example = "{\"p50\": 2900, \"p90\": 7800, \"p99\": 21000}")
+    private Map<String, Long> responseTimePercentiles;
+
+    public ReviewActivityDTO() {
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public long getActiveLearners() {
+        return activeLearners;
+    }
+
+    public void setActiveLearners(long activeLearners) {
+        this.activeLearners = activeLearners;
+    }
+
+    public long getDistinctFlashcards() {
+        return distinctFlashcards;
+    }
+
+    public void setDistinctFlashcards(long distinctFlashcards) {
+        this.distinctFlashcards = distinctFlashcards;
+    }
+
+    public Map<LocalDate, Long> getDailyActiveLearners() {
+        return dailyActiveLearners;
+    }
+
+    public void setDailyActiveLearners(Map<LocalDate, Long> dailyActiveLearners) {
+        this.dailyActiveLearners = dailyActiveLearners;
+    }
+
+    public Map<String, Long> getResponseTimePercentiles() {
+        return responseTimePercentiles;
+    }
+
+    public void setResponseTimePercentiles(Map<String, Long> responseTimePercentiles) {
+        this.responseTimePercentiles = responseTimePercentiles;
+    }
+}
@@ -24,19 +24,19 @@ public class ReviewDTO {
     @Schema(description = "Quality of the response (0-5)", example = "4", required = true)
     private int quality;
     
-    @Schema(description = "Easiness factor", example = "2.5")
+    @Schema(description = "Easiness factor, computed by the scheduler", example = "2.5", accessMode = Schema.AccessMode.READ_ONLY)
     private double easinessFactor;
     
-    @Schema(description = "Interval in days", example = "7")
+    @Schema(description = "Interval in days, computed by the scheduler", example = "7", accessMode = Schema.AccessMode.READ_ONLY)
     private int interval;
     
-    @Schema(description = "Number of repetitions", example = "3")
+    @Schema(description = "Number of repetitions, computed by the scheduler", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
     private int repetitions;
     
     @Schema(description = "Review date")
     private LocalDateTime reviewDate;
     
-    @Schema(description = "Next review date")
+    @Schema(description = "Next review date, computed by the scheduler", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime nextReviewDate;
     
     @Schema(description = "Response time in milliseconds", example = "3500")
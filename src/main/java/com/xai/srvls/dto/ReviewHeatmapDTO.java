@@ -0,0 +1,42 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+/**
+ * Reviews per day over a date range, for the activity calendar
+ */
+@Schema(description = "Reviews per consecutive day starting at startDate")
+public class ReviewHeatmapDTO {
+
+    @Schema(description = "Day of the first count", example = "2025-01-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Review counts, one per day from startDate", example = "[0, 12, 40, 0, 7]")
+    private int[] counts;
+
+    public ReviewHeatmapDTO() {
+    }
+
+    public ReviewHeatmapDTO(LocalDate startDate, int[] counts) {
+        this.startDate = startDate;
+        this.counts = counts;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(int[] counts) {
+        this.counts = counts;
+    }
+}
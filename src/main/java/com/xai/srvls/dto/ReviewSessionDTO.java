@@ -0,0 +1,56 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's review session for one day
+ */
+@Schema(description = "Flashcards to study today: due cards first, then new cards")
+public class ReviewSessionDTO {
+
+    @Schema(description = "Day the session was built for", example = "2026-01-15")
+    private LocalDate date;
+
+    @Schema(description = "Due flashcards, most overdue first")
+    private List<UUID> dueFlashcardIds;
+
+    @Schema(description = "New flashcards, up to each deck's daily limit")
+    private List<UUID> newFlashcardIds;
+
+    public ReviewSessionDTO() {
+    }
+
+    public ReviewSessionDTO(LocalDate date, List<UUID> dueFlashcardIds, List<UUID> newFlashcardIds) {
+        this.date = date;
+        this.dueFlashcardIds = dueFlashcardIds;
+        this.newFlashcardIds = newFlashcardIds;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<UUID> getDueFlashcardIds() {
+        return dueFlashcardIds;
+    }
+
+    public void setDueFlashcardIds(List<UUID> dueFlashcardIds) {
+        this.dueFlashcardIds = dueFlashcardIds;
+    }
+
+    public List<UUID> getNewFlashcardIds() {
+        return newFlashcardIds;
+    }
+
+    public void setNewFlashcardIds(List<UUID> newFlashcardIds) {
+        this.newFlashcardIds = newFlashcardIds;
+    }
+}
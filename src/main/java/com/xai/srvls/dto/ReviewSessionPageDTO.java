@@ -0,0 +1,44 @@
+package com.xai.srvls.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * A page of due flashcards with their content, and the cursor of the next page
+ */
+@Schema(description = "Due flashcards with full content, most overdue first")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReviewSessionPageDTO {
+
+    @Schema(description = "Flashcards with content and media URLs")
+    private List<FlashcardDTO> cards;
+
+    @Schema(description = "Cursor of the next page; absent when no cards remain")
+    private String nextCursor;
+
+    public ReviewSessionPageDTO() {
+    }
+
+    public ReviewSessionPageDTO(List<FlashcardDTO> cards, String nextCursor) {
+        this.cards = cards;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<FlashcardDTO> getCards() {
+        return cards;
+    }
+
+    public void setCards(List<FlashcardDTO> cards) {
+        this.cards = cards;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,30 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for uploading reviews recorded while offline
+ */
+@Schema(description = "Offline review sync request")
+public class ReviewSyncRequest {
+
+    public static final int MAX_REVIEWS = 5000;
+
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = MAX_REVIEWS, message = "A sync request cannot contain more than 5000 reviews")
+    @Schema(description = "Reviews recorded offline, in any order", required = true)
+    private List<@Valid OfflineReviewDTO> reviews;
+
+    public List<OfflineReviewDTO> getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(List<OfflineReviewDTO> reviews) {
+        this.reviews = reviews;
+    }
+}
@@ -0,0 +1,60 @@
+package com.xai.srvls.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the outcome of an offline review sync
+ */
+@Schema(description = "Offline review sync result")
+public class ReviewSyncResultDTO {
+
+    @Schema(description = "Number of reviews in the request", example = "250")
+    private int received;
+
+    @Schema(description = "Number of reviews newly recorded", example = "240")
+    private int applied;
+
+    @Schema(description = "Number of reviews already recorded by an earlier upload", example = "10")
+    private int duplicates;
+
+    @Schema(description = "Client review IDs rejected because the flashcard is missing or not accessible")
+    private List<UUID> rejectedClientReviewIds = new ArrayList<>();
+
+    // Getters and Setters
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public List<UUID> getRejectedClientReviewIds() {
+        return rejectedClientReviewIds;
+    }
+
+    public void setRejectedClientReviewIds(List<UUID> rejectedClientReviewIds) {
+        this.rejectedClientReviewIds = rejectedClientReviewIds;
+    }
+}
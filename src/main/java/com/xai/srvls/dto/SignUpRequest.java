@@ -1,5 +1,6 @@
 package com.xai.srvls.dto;
 
+import com.xai.srvls.model.SchedulerType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -32,6 +33,9 @@ public class SignUpRequest {
     
     @Schema(description = "Last name", example = "Doe")
     private String lastName;
+    
+    @Schema(description = "Preferred scheduler for decks that do not choose one", example = "SM2")
+    private SchedulerType schedulerType;
 
     public String getUsername() {
         return username;
@@ -72,4 +76,12 @@ public class SignUpRequest {
     public void setLastName(String lastName) {
         this.lastName = lastName;
     }
+
+    public SchedulerType getSchedulerType() {
+        return schedulerType;
+    }
+
+    public void setSchedulerType(SchedulerType schedulerType) {
+        this.schedulerType = schedulerType;
+    }
 }
@@ -0,0 +1,19 @@
+package com.xai.srvls.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a deck is deleted, before its rows are removed
+ */
+public class DeckDeletedEvent {
+
+    private final UUID deckId;
+
+    public DeckDeletedEvent(UUID deckId) {
+        this.deckId = deckId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+}
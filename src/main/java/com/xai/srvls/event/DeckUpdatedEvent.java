@@ -0,0 +1,28 @@
+package com.xai.srvls.event;
+
+import java.util.UUID;
+
+/**
+ * Published when the fields of a deck are updated
+ */
+public class DeckUpdatedEvent {
+
+    private final UUID deckId;
+    private final boolean visibilityChanged;
+
+    public DeckUpdatedEvent(UUID deckId, boolean visibilityChanged) {
+        this.deckId = deckId;
+        this.visibilityChanged = visibilityChanged;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    /**
+     * @return true if the deck was made public or private, which changes who can access its flashcards
+     */
+    public boolean isVisibilityChanged() {
+        return visibilityChanged;
+    }
+}
@@ -0,0 +1,25 @@
+package com.xai.srvls.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a flashcard is added to a deck
+ */
+public class FlashcardCreatedEvent {
+
+    private final UUID flashcardId;
+    private final UUID deckId;
+
+    public FlashcardCreatedEvent(UUID flashcardId, UUID deckId) {
+        this.flashcardId = flashcardId;
+        this.deckId = deckId;
+    }
+
+    public UUID getFlashcardId() {
+        return flashcardId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+}
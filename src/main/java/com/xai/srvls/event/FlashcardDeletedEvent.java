@@ -0,0 +1,33 @@
+package com.xai.srvls.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published when a flashcard is deleted, with its deck and the users who had review progress on it.
+ * Published before the delete is flushed, so in-transaction listeners still see the card's progress rows.
+ */
+public class FlashcardDeletedEvent {
+
+    private final UUID flashcardId;
+    private final UUID deckId;
+    private final Collection<UUID> userIds;
+
+    public FlashcardDeletedEvent(UUID flashcardId, UUID deckId, Collection<UUID> userIds) {
+        this.flashcardId = flashcardId;
+        this.deckId = deckId;
+        this.userIds = userIds;
+    }
+
+    public UUID getFlashcardId() {
+        return flashcardId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    public Collection<UUID> getUserIds() {
+        return userIds;
+    }
+}
@@ -0,0 +1,51 @@
+package com.xai.srvls.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published when reviews are recorded, with the next review date of each reviewed flashcard before
+ * and after the reviews, and the decks of those flashcards. Listeners that touch external state should run after commit.
+ */
+public class ReviewRecordedEvent {
+
+    private final UUID userId;
+    private final Map<UUID, LocalDateTime> nextReviewDates;
+    private final Map<UUID, LocalDateTime> previousReviewDates;
+    private final Set<UUID> deckIds;
+
+    public ReviewRecordedEvent(UUID userId, Map<UUID, LocalDateTime> nextReviewDates,
+                               Map<UUID, LocalDateTime> previousReviewDates, Set<UUID> deckIds) {
+        this.userId = userId;
+        this.nextReviewDates = nextReviewDates;
+        this.previousReviewDates = previousReviewDates;
+        this.deckIds = deckIds;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return next review date by flashcard ID
+     */
+    public Map<UUID, LocalDateTime> getNextReviewDates() {
+        return nextReviewDates;
+    }
+
+    /**
+     * @return next review date before these reviews by flashcard ID; null for flashcards reviewed for the first time
+     */
+    public Map<UUID, LocalDateTime> getPreviousReviewDates() {
+        return previousReviewDates;
+    }
+
+    /**
+     * @return the IDs of the decks of the reviewed flashcards
+     */
+    public Set<UUID> getDeckIds() {
+        return deckIds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.xai.srvls.exception;
+
+import org.aibles.business.exception.BaseException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a review keeps losing the race against concurrent reviews of the same card
+ */
+public class ConcurrentReviewException extends BaseException {
+    
+    /**
+     * Constructor for ConcurrentReviewException
+     *
+     * @param attempts the number of attempts made
+     */
+    public ConcurrentReviewException(int attempts) {
+        super(HttpStatus.CONFLICT.value(), 
+              "com.xai.srvls.exception.ConcurrentReviewException", 
+              "Review conflicted with concurrent reviews of the same card after attempts: " + attempts);
+    }
+}
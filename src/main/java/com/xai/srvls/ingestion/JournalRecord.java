@@ -0,0 +1,49 @@
+package com.xai.srvls.ingestion;
+
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.Review;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A scored review as written to the review journal: the review row plus the progress state it produced
+ */
+public record JournalRecord(
+        UUID reviewId,
+        UUID userId,
+        UUID flashcardId,
+        int quality,
+        Long responseTimeMs,
+        LocalDateTime reviewDate,
+        double easinessFactor,
+        int interval,
+        int repetitions,
+        int level,
+        double stability,
+        double difficulty,
+        LocalDateTime nextReviewDate) {
+
+    /**
+     * Build a journal record from a scored review and the card progress after that review
+     * @param review the review, with its ID, user and flashcard set
+     * @param progress the progress row after the review was applied
+     * @return the journal record
+     */
+    public static JournalRecord of(Review review, CardProgress progress) {
+        return new JournalRecord(
+                review.getId(),
+                review.getUser().getId(),
+                review.getFlashcard().getId(),
+                review.getQuality(),
+                review.getResponseTimeMs(),
+                review.getReviewDate(),
+                review.getEasinessFactor(),
+                review.getInterval(),
+                review.getRepetitions(),
+                progress.getLevel(),
+                progress.getStability(),
+                progress.getDifficulty(),
+                review.getNextReviewDate());
+    }
+}
@@ -0,0 +1,292 @@
+package com.xai.srvls.ingestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped journal of reviews waiting to be written to the database.
+ * <p>
+ * The journal is a sequence of fixed-size segment files holding fixed-size records. A record's
+ * first byte is written last and marks it as committed, so a torn write at crash time is simply
+ * the end of the segment on recovery. Segments are deleted once every record in them has been
+ * flushed; whatever is left on disk at startup is replayed.
+ * <p>
+ * All methods are synchronized: appends are a few dozen bytes copied into the page cache.
+ */
+class ReviewJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewJournal.class);
+
+    static final int RECORD_SIZE = 128;
+
+    private static final byte COMMITTED = 1;
+    private static final int HAS_RESPONSE_TIME = 1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean forceOnAppend;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private Segment active;
+    private long appendedSequence;
+    private long flushedSequence;
+
+    private ReviewJournal(Path directory, long segmentBytes, boolean forceOnAppend) {
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_SIZE);
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    /**
+     * Open the journal in a directory, recovering any segments left by a previous run
+     * @param directory the journal directory, created if missing
+     * @param segmentBytes the size of each segment file
+     * @param forceOnAppend whether to force every append to the storage device
+     * @return the opened journal; recovered records are pending
+     */
+    static ReviewJournal open(Path directory, long segmentBytes, boolean forceOnAppend) {
+        ReviewJournal journal = new ReviewJournal(directory, segmentBytes, forceOnAppend);
+        try {
+            Files.createDirectories(directory);
+            journal.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open review journal in " + directory, e);
+        }
+        return journal;
+    }
+
+    /**
+     * Append a record
+     * @param record the record
+     * @return the sequence number of the record, starting at 1
+     */
+    synchronized long append(JournalRecord record) {
+        if (active == null || active.written == recordsPerSegment) {
+            active = createSegment(active == null ? 0 : active.number + 1);
+            segments.addLast(active);
+        }
+        int offset = active.written * RECORD_SIZE;
+        write(active.buffer, offset, record);
+        if (forceOnAppend) {
+            active.buffer.force(offset, RECORD_SIZE);
+        }
+        active.written++;
+        return ++appendedSequence;
+    }
+
+    /**
+     * Read records that have not been flushed yet, oldest first, without consuming them
+     * @param max the maximum number of records
+     * @return up to {@code max} pending records
+     */
+    synchronized List<JournalRecord> readPending(int max) {
+        List<JournalRecord> records = new ArrayList<>(Math.min(max, 1024));
+        for (Segment segment : segments) {
+            for (int i = segment.flushed; i < segment.written && records.size() < max; i++) {
+                records.add(read(segment.buffer, i * RECORD_SIZE));
+            }
+            if (records.size() == max) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Mark the oldest pending records as flushed and delete segments that are fully flushed
+     * @param count the number of records returned by {@link #readPending(int)} that were written
+     */
+    synchronized void markFlushed(int count) {
+        int remaining = count;
+        while (remaining > 0 && !segments.isEmpty()) {
+            Segment segment = segments.peekFirst();
+            int step = Math.min(remaining, segment.written - segment.flushed);
+            segment.flushed += step;
+            remaining -= step;
+            flushedSequence += step;
+            if (segment.flushed == segment.written && (segment != active || segment.written == recordsPerSegment)) {
+                segments.removeFirst();
+                if (segment == active) {
+                    active = null;
+                }
+                delete(segment);
+            } else if (step == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the last appended record
+     */
+    synchronized long appendedSequence() {
+        return appendedSequence;
+    }
+
+    /**
+     * @return the sequence number of the last record written to the database
+     */
+    synchronized long flushedSequence() {
+        return flushedSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+
+        long lastNumber = -1;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            Segment segment = new Segment(number, file, channel, buffer);
+
+            int capacity = (int) (channel.size() / RECORD_SIZE);
+            while (segment.written < capacity && buffer.get(segment.written * RECORD_SIZE) == COMMITTED) {
+                segment.written++;
+            }
+            if (segment.written == 0) {
+                delete(segment);
+                continue;
+            }
+            // Recovered segments are sealed; new appends go to a fresh segment
+            segments.addLast(segment);
+            appendedSequence += segment.written;
+            lastNumber = Math.max(lastNumber, number);
+            logger.info("Recovered {} journaled reviews from {}", segment.written, file);
+        }
+        if (lastNumber >= 0) {
+            active = createSegment(lastNumber + 1);
+            segments.addLast(active);
+        }
+    }
+
+    private Segment createSegment(long number) {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) recordsPerSegment * RECORD_SIZE);
+            return new Segment(number, file, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + file, e);
+        }
+    }
+
+    private void delete(Segment segment) {
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.warn("Could not delete flushed journal segment {}", segment.path, e);
+        }
+    }
+
+    private static void write(MappedByteBuffer buffer, int offset, JournalRecord record) {
+        buffer.putInt(offset + 4, record.quality());
+        putUuid(buffer, offset + 8, record.reviewId());
+        putUuid(buffer, offset + 24, record.userId());
+        putUuid(buffer, offset + 40, record.flashcardId());
+        buffer.putLong(offset + 56, toEpochMicros(record.reviewDate()));
+        buffer.putLong(offset + 64, toEpochMicros(record.nextReviewDate()));
+        buffer.putDouble(offset + 72, record.easinessFactor());
+        buffer.putInt(offset + 80, record.interval());
+        buffer.putInt(offset + 84, record.repetitions());
+        buffer.putInt(offset + 88, record.level());
+        buffer.putInt(offset + 92, record.responseTimeMs() != null ? HAS_RESPONSE_TIME : 0);
+        buffer.putLong(offset + 96, record.responseTimeMs() != null ? record.responseTimeMs() : 0L);
+        buffer.putDouble(offset + 104, record.stability());
+        buffer.putDouble(offset + 112, record.difficulty());
+        // Commit marker goes last
+        buffer.put(offset, COMMITTED);
+    }
+
+    private static JournalRecord read(MappedByteBuffer buffer, int offset) {
+        boolean hasResponseTime = (buffer.getInt(offset + 92) & HAS_RESPONSE_TIME) != 0;
+        return new JournalRecord(
+                getUuid(buffer, offset + 8),
+                getUuid(buffer, offset + 24),
+                getUuid(buffer, offset + 40),
+                buffer.getInt(offset + 4),
+                hasResponseTime ? buffer.getLong(offset + 96) : null,
+                fromEpochMicros(buffer.getLong(offset + 56)),
+                buffer.getDouble(offset + 72),
+                buffer.getInt(offset + 80),
+                buffer.getInt(offset + 84),
+                buffer.getInt(offset + 88),
+                buffer.getDouble(offset + 104),
+                buffer.getDouble(offset + 112),
+                fromEpochMicros(buffer.getLong(offset + 64)));
+    }
+
+    private static void putUuid(MappedByteBuffer buffer, int offset, UUID uuid) {
+        buffer.putLong(offset, uuid.getMostSignificantBits());
+        buffer.putLong(offset + 8, uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(MappedByteBuffer buffer, int offset) {
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class Segment {
+        private final long number;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int written;
+        private int flushed;
+
+        private Segment(long number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.xai.srvls.ingestion;
+
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.CardProgressId;
+import com.xai.srvls.model.Review;
+import com.xai.srvls.service.DailyStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Optional write-behind path for single review submissions.
+ * <p>
+ * With {@code srvls.ingestion.mode=write-behind}, a review is scored against an in-memory copy of the
+ * card's progress, appended to the local {@link ReviewJournal} and returned; no database write happens
+ * on the request thread. A scheduled flusher writes journaled reviews and the resulting progress rows
+ * to Postgres in large JDBC batches, and publishes their {@link ReviewRecordedEvent}s in the same
+ * transaction, so counters maintained by event listeners are also written by the flusher. Journal
+ * segments left over from a previous run are replayed at startup, once event listeners are registered
+ * and before the web server takes traffic.
+ * <p>
+ * Reads (due queue, history, statistics) see a review once it has been flushed. Durability is that of
+ * the OS page cache unless {@code srvls.ingestion.fsync} is enabled.
+ * <p>
+ * The cached progress is authoritative only while no other instance writes the same cards, so
+ * write-behind is a single-instance mode: at startup the instance takes a session-level Postgres
+ * advisory lock, held on a dedicated connection until shutdown, and refuses to start if another
+ * instance already holds it. Deployments with several replicas use {@code sync}.
+ */
+@Component
+public class WriteBehindIngestion implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindIngestion.class);
+
+    public static final String MODE_WRITE_BEHIND = "write-behind";
+
+    private static final String INSERT_REVIEW_SQL =
+            "INSERT INTO reviews (id, user_id, flashcard_id, quality, easiness_factor, interval, repetitions, " +
+            "review_date, next_review_date, response_time_ms) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String UPSERT_PROGRESS_SQL =
+            "INSERT INTO card_progress (user_id, flashcard_id, easiness_factor, interval, repetitions, level, " +
+            "stability, difficulty, next_review_date, last_review_date, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT (user_id, flashcard_id) DO UPDATE SET " +
+            "easiness_factor = EXCLUDED.easiness_factor, interval = EXCLUDED.interval, " +
+            "repetitions = EXCLUDED.repetitions, level = EXCLUDED.level, " +
+            "stability = EXCLUDED.stability, difficulty = EXCLUDED.difficulty, " +
+            "next_review_date = EXCLUDED.next_review_date, last_review_date = EXCLUDED.last_review_date, " +
+            "version = card_progress.version + 1 " +
+            "WHERE card_progress.last_review_date IS NULL " +
+            "OR card_progress.last_review_date <= EXCLUDED.last_review_date";
+
+    private static final String LOCK_PROGRESS_SQL =
+            "SELECT p.user_id, p.flashcard_id, p.next_review_date, p.last_review_date FROM card_progress p " +
+            "JOIN unnest(CAST(? AS uuid[]), CAST(? AS uuid[])) AS k(user_id, flashcard_id) " +
+            "ON p.user_id = k.user_id AND p.flashcard_id = k.flashcard_id " +
+            "FOR UPDATE OF p";
+
+    private static final String DECKS_SQL = "SELECT f.id, f.deck_id FROM flashcards f WHERE f.id = ANY(?)";
+
+    private static final String TRY_OWNER_LOCK_SQL =
+            "SELECT pg_try_advisory_lock(hashtextextended('review_journal:write-behind', 0))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyStatsService dailyStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<CardProgressId, CardState> states = new ConcurrentHashMap<>();
+    // Last journal sequence of cards dropped by invalidate() before their reviews were flushed
+    private final Map<CardProgressId, Long> unflushed = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    @Value("${srvls.ingestion.mode:sync}")
+    private String mode;
+
+    @Value("${srvls.ingestion.journal-dir:data/review-journal}")
+    private String journalDir;
+
+    @Value("${srvls.ingestion.segment-size:67108864}")
+    private long segmentSize;
+
+    @Value("${srvls.ingestion.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Value("${srvls.ingestion.state-cache-size:100000}")
+    private int stateCacheSize;
+
+    @Value("${srvls.ingestion.fsync:false}")
+    private boolean fsync;
+
+    private ReviewJournal journal;
+    private Connection ownerConnection;
+
+    @Autowired
+    public WriteBehindIngestion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                DailyStatsService dailyStatsService, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailyStatsService = dailyStatsService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Open the journal and replay whatever a previous run did not flush.
+     * Runs as a lifecycle start: after every event listener is registered, so replayed reviews
+     * update the counters, and before the web server starts, see {@link #getPhase}.
+     */
+    @Override
+    public void start() {
+        running = true;
+        if (!isEnabled()) {
+            return;
+        }
+        acquireOwnership();
+        journal = ReviewJournal.open(Paths.get(journalDir), segmentSize, fsync);
+        long pending = journal.appendedSequence() - journal.flushedSequence();
+        if (pending > 0) {
+            logger.info("Replaying {} journaled reviews", pending);
+            flush();
+        }
+    }
+
+    /**
+     * Flush what is left and close the journal, after the web server has stopped
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (journal == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close the review journal", e);
+            } finally {
+                releaseOwnership();
+            }
+        }
+    }
+
+    /**
+     * Take the write-behind advisory lock on a connection kept open until {@link #stop}
+     * @throws IllegalStateException if another instance runs in write-behind mode
+     */
+    private void acquireOwnership() {
+        try {
+            ownerConnection = jdbcTemplate.getDataSource().getConnection();
+            try (Statement statement = ownerConnection.createStatement();
+                 ResultSet rs = statement.executeQuery(TRY_OWNER_LOCK_SQL)) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    return;
+                }
+            }
+        } catch (SQLException e) {
+            releaseOwnership();
+            throw new IllegalStateException("Could not take the write-behind ingestion lock", e);
+        }
+        releaseOwnership();
+        throw new IllegalStateException("Another instance runs with srvls.ingestion.mode=" + MODE_WRITE_BEHIND
+                + "; write-behind ingestion supports a single instance, use sync mode for replicas");
+    }
+
+    /**
+     * Closing the connection ends its session and releases the advisory lock
+     */
+    private void releaseOwnership() {
+        if (ownerConnection == null) {
+            return;
+        }
+        try {
+            ownerConnection.close();
+        } catch (SQLException e) {
+            logger.warn("Could not close the write-behind ingestion lock connection", e);
+        }
+        ownerConnection = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's phase: started before it and stopped after it
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * @return true if single review submissions go through the journal
+     */
+    public boolean isEnabled() {
+        return MODE_WRITE_BEHIND.equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Score a review against the cached progress of its card and append it to the journal.
+     * The review gets its ID here; it is written to the database by the next flush.
+     * @param review the review, with user, flashcard and review date set
+     * @param loader loads a detached copy of the card's progress on a cache miss
+     * @param scheduler scores the review and advances the progress
+     * @return the scored review
+     */
+    public Review submit(Review review, Function<Review, CardProgress> loader,
+                         BiConsumer<Review, CardProgress> scheduler) {
+        CardProgressId key = new CardProgressId(review.getUser().getId(), review.getFlashcard().getId());
+        while (true) {
+            CardState state = states.computeIfAbsent(key, k -> new CardState());
+            if (state.progress == null) {
+                awaitUnflushed(key);
+            }
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                if (state.progress == null) {
+                    // Only this card's monitor is held while its progress is read from the database
+                    state.progress = loader.apply(review);
+                }
+                review.setId(UUID.randomUUID());
+                scheduler.accept(review, state.progress);
+                state.lastSequence = journal.append(JournalRecord.of(review, state.progress));
+                return review;
+            }
+        }
+    }
+
+    /**
+     * Drop cached progress for cards that are about to be written by another path (batch, sync)
+     * and flush their pending reviews first, so that path reads the current state from the database.
+     * Must be called before that path opens its transaction: the flush commits on its own connection.
+     * @param userId the user ID
+     * @param flashcardIds the flashcard IDs
+     */
+    public void invalidate(UUID userId, Collection<UUID> flashcardIds) {
+        if (journal == null || states.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("invalidate() must run before the caller's transaction starts");
+        }
+        boolean pending = false;
+        for (UUID flashcardId : flashcardIds) {
+            CardProgressId key = new CardProgressId(userId, flashcardId);
+            CardState state = states.get(key);
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                if (state.lastSequence > journal.flushedSequence()) {
+                    // Recorded before the removal, so a reload of the card waits for the flush
+                    unflushed.merge(key, state.lastSequence, Math::max);
+                    pending = true;
+                }
+                state.evicted = true;
+                states.remove(key, state);
+            }
+        }
+        if (pending) {
+            flush();
+        }
+    }
+
+    /**
+     * Write pending journal records to the database.
+     * Records are flushed in batches of {@code flush-batch-size}, each batch in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${srvls.ingestion.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (journal == null) {
+            return;
+        }
+        List<JournalRecord> records;
+        do {
+            records = journal.readPending(flushBatchSize);
+            if (records.isEmpty()) {
+                break;
+            }
+            write(records);
+            journal.markFlushed(records.size());
+        } while (records.size() == flushBatchSize);
+        long flushed = journal.flushedSequence();
+        unflushed.values().removeIf(sequence -> sequence <= flushed);
+        evictFlushed();
+    }
+
+    /**
+     * Before a card's progress is read from the database, make sure the reviews journaled for it
+     * by a dropped cache entry are committed. Cards evicted by the flusher never need this: only
+     * entries whose reviews are all flushed are evicted.
+     */
+    private void awaitUnflushed(CardProgressId key) {
+        Long sequence = unflushed.get(key);
+        if (sequence != null && sequence > journal.flushedSequence()) {
+            flush();
+        }
+    }
+
+    private void write(List<JournalRecord> records) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeBatch(records));
+        } catch (DataIntegrityViolationException e) {
+            // One bad record (e.g. its flashcard was deleted) must not block the journal
+            logger.warn("Journal batch of {} reviews rejected, retrying one by one", records.size(), e);
+            for (JournalRecord record : records) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeBatch(List.of(record)));
+                } catch (DataIntegrityViolationException rejected) {
+                    logger.error("Dropping journaled review {} for flashcard {}: {}",
+                            record.reviewId(), record.flashcardId(), rejected.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<JournalRecord> records) {
+        List<Object[]> reviewArgs = new ArrayList<>(records.size());
+        // Only the last state of each card needs to reach card_progress
+        Map<CardProgressId, JournalRecord> latest = new LinkedHashMap<>();
+        for (JournalRecord record : records) {
+            reviewArgs.add(new Object[]{record.reviewId(), record.userId(), record.flashcardId(), record.quality(),
+                    record.easinessFactor(), record.interval(), record.repetitions(), record.reviewDate(),
+                    record.nextReviewDate(), record.responseTimeMs()});
+            latest.put(new CardProgressId(record.userId(), record.flashcardId()), record);
+        }
+        List<Object[]> progressArgs = new ArrayList<>(latest.size());
+        for (JournalRecord record : latest.values()) {
+            progressArgs.add(new Object[]{record.userId(), record.flashcardId(), record.easinessFactor(),
+                    record.interval(), record.repetitions(), record.level(), record.stability(),
+                    record.difficulty(), record.nextReviewDate(),
+                    record.reviewDate()});
+        }
+        Map<CardProgressId, LocalDateTime[]> stored = lockProgress(latest.keySet());
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_REVIEW_SQL, reviewArgs);
+        jdbcTemplate.batchUpdate(UPSERT_PROGRESS_SQL, progressArgs);
+        publishRecorded(latest.values(), stored);
+        
+        // Reviews already written by an earlier flush of the same records are not counted twice
+        DailyStatsService.Batch stats = new DailyStatsService.Batch();
+        for (int i = 0; i < records.size(); i++) {
+            if (inserted[i] > 0) {
+                JournalRecord record = records.get(i);
+                stats.add(record.userId(), record.flashcardId(), record.reviewDate(), record.quality(),
+                        record.responseTimeMs());
+            }
+        }
+        dailyStatsService.apply(stats);
+    }
+
+    /**
+     * Lock the stored progress rows of the flushed cards and read their dates
+     * @return [next review date, last review date] by card; cards without a row are absent
+     */
+    private Map<CardProgressId, LocalDateTime[]> lockProgress(Collection<CardProgressId> keys) {
+        UUID[] userIds = new UUID[keys.size()];
+        UUID[] flashcardIds = new UUID[keys.size()];
+        int i = 0;
+        for (CardProgressId key : keys) {
+            userIds[i] = key.getUserId();
+            flashcardIds[i++] = key.getFlashcardId();
+        }
+        Map<CardProgressId, LocalDateTime[]> stored = new HashMap<>();
+        jdbcTemplate.query(LOCK_PROGRESS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", flashcardIds));
+        }, rs -> {
+            Timestamp lastReviewDate = rs.getTimestamp(4);
+            stored.put(new CardProgressId(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)),
+                    new LocalDateTime[]{rs.getTimestamp(3).toLocalDateTime(),
+                            lastReviewDate != null ? lastReviewDate.toLocalDateTime() : null});
+        });
+        return stored;
+    }
+
+    /**
+     * Publish one event per user for the cards whose stored progress the flush advanced.
+     * Runs in the flush transaction, like the event of a synchronous review.
+     * @param latest the last record of each flushed card
+     * @param stored the progress rows as they were before the flush, see {@link #lockProgress}
+     */
+    private void publishRecorded(Collection<JournalRecord> latest, Map<CardProgressId, LocalDateTime[]> stored) {
+        Map<UUID, Map<UUID, LocalDateTime>> nextByUser = new HashMap<>();
+        Map<UUID, Map<UUID, LocalDateTime>> previousByUser = new HashMap<>();
+        Set<UUID> flashcardIds = new HashSet<>();
+        for (JournalRecord record : latest) {
+            LocalDateTime[] row = stored.get(new CardProgressId(record.userId(), record.flashcardId()));
+            boolean reviewed = row != null && row[1] != null;
+            if (reviewed && row[1].isAfter(record.reviewDate())) {
+                continue; // The upsert kept a newer stored review
+            }
+            nextByUser.computeIfAbsent(record.userId(), id -> new HashMap<>())
+                    .put(record.flashcardId(), record.nextReviewDate());
+            previousByUser.computeIfAbsent(record.userId(), id -> new HashMap<>())
+                    .put(record.flashcardId(), reviewed ? row[0] : null);
+            flashcardIds.add(record.flashcardId());
+        }
+        if (flashcardIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, UUID> flashcardDecks = new HashMap<>();
+        jdbcTemplate.query(DECKS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", flashcardIds.toArray())),
+                rs -> { flashcardDecks.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)); });
+        nextByUser.forEach((userId, nextReviewDates) -> {
+            Set<UUID> deckIds = new HashSet<>();
+            nextReviewDates.keySet().forEach(flashcardId -> deckIds.add(flashcardDecks.get(flashcardId)));
+            eventPublisher.publishEvent(
+                    new ReviewRecordedEvent(userId, nextReviewDates, previousByUser.get(userId), deckIds));
+        });
+    }
+
+    private void evictFlushed() {
+        int excess = states.size() - stateCacheSize;
+        if (excess <= 0) {
+            return;
+        }
+        long flushed = journal.flushedSequence();
+        Iterator<CardState> iterator = states.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            CardState state = iterator.next();
+            synchronized (state) {
+                if (state.progress != null && state.lastSequence <= flushed) {
+                    state.evicted = true;
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cached progress of one card; guarded by its own monitor, which is also held while the progress
+     * is loaded, so concurrent misses on one card read the database once
+     */
+    private static final class CardState {
+        private volatile CardProgress progress;
+        private long lastSequence;
+        private boolean evicted;
+    }
+}
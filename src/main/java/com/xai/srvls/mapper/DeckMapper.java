@@ -1,5 +1,6 @@
 package com.xai.srvls.mapper;
 
+import com.xai.srvls.cache.DeckSnapshot;
 import com.xai.srvls.dto.DeckDTO;
 import com.xai.srvls.model.Deck;
 import org.springframework.stereotype.Component;
@@ -34,6 +35,8 @@ public class DeckMapper {
         dto.setLanguageFrom(deck.getLanguageFrom());
         dto.setLanguageTo(deck.getLanguageTo());
         dto.setTags(deck.getTags());
+        dto.setSchedulerType(deck.getSchedulerType());
+        dto.setNewCardsPerDay(deck.getNewCardsPerDay());
         dto.setFlashcardCount(deck.getFlashcards().size());
         dto.setCreatedAt(deck.getCreatedAt());
         dto.setUpdatedAt(deck.getUpdatedAt());
@@ -41,6 +44,35 @@ public class DeckMapper {
         return dto;
     }
     
+    /**
+     * Convert a cached deck snapshot to DeckDTO
+     * @param deck the snapshot
+     * @return the DeckDTO
+     */
+    public DeckDTO toDTO(DeckSnapshot deck) {
+        if (deck == null) {
+            return null;
+        }
+        
+        DeckDTO dto = new DeckDTO();
+        dto.setId(deck.id());
+        dto.setName(deck.name());
+        dto.setDescription(deck.description());
+        dto.setOwnerId(deck.ownerId());
+        dto.setOwnerUsername(deck.ownerUsername());
+        dto.setPublic(deck.isPublic());
+        dto.setLanguageFrom(deck.languageFrom());
+        dto.setLanguageTo(deck.languageTo());
+        dto.setTags(deck.tags());
+        dto.setSchedulerType(deck.schedulerType());
+        dto.setNewCardsPerDay(deck.newCardsPerDay());
+        dto.setFlashcardCount((int) deck.flashcardCount());
+        dto.setCreatedAt(deck.createdAt());
+        dto.setUpdatedAt(deck.updatedAt());
+        
+        return dto;
+    }
+    
     /**
      * Convert DeckDTO to Deck entity
      * @param dto the DeckDTO
@@ -64,6 +96,8 @@ public class DeckMapper {
         deck.setLanguageFrom(dto.getLanguageFrom());
         deck.setLanguageTo(dto.getLanguageTo());
         deck.setTags(dto.getTags());
+        deck.setSchedulerType(dto.getSchedulerType());
+        deck.setNewCardsPerDay(dto.getNewCardsPerDay());
         
         // Owner is set by the service
         
@@ -1,5 +1,6 @@
 package com.xai.srvls.mapper;
 
+import com.xai.srvls.cache.FlashcardSnapshot;
 import com.xai.srvls.dto.FlashcardDTO;
 import com.xai.srvls.model.Flashcard;
 import org.springframework.stereotype.Component;
@@ -41,6 +42,33 @@ public class FlashcardMapper {
         return dto;
     }
 
+    /**
+     * Convert a cached flashcard snapshot to FlashcardDTO
+     * @param flashcard The snapshot
+     * @return The FlashcardDTO
+     */
+    public FlashcardDTO toDTO(FlashcardSnapshot flashcard) {
+        if (flashcard == null) {
+            return null;
+        }
+        
+        FlashcardDTO dto = new FlashcardDTO();
+        dto.setId(flashcard.id());
+        dto.setFrontContent(flashcard.frontContent());
+        dto.setBackContent(flashcard.backContent());
+        dto.setFrontImageUrl(flashcard.frontImageUrl());
+        dto.setBackImageUrl(flashcard.backImageUrl());
+        dto.setFrontAudioUrl(flashcard.frontAudioUrl());
+        dto.setBackAudioUrl(flashcard.backAudioUrl());
+        dto.setHint(flashcard.hint());
+        dto.setDeckId(flashcard.deckId());
+        dto.setTags(flashcard.tags());
+        dto.setCreatedAt(flashcard.createdAt());
+        dto.setUpdatedAt(flashcard.updatedAt());
+        
+        return dto;
+    }
+
     /**
      * Convert FlashcardDTO to Flashcard entity
      * @param dto The FlashcardDTO
@@ -0,0 +1,211 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Current spaced repetition state of a flashcard for a user.
+ * The reviews table is the append-only history; this row is what scheduling reads and writes.
+ */
+@Entity
+@Table(name = "card_progress", indexes = {
+        @Index(name = "idx_card_progress_user_due_flashcard", columnList = "user_id, next_review_date, flashcard_id"),
+        @Index(name = "idx_card_progress_user_level_learned", columnList = "user_id, level, last_review_date"),
+        @Index(name = "idx_card_progress_flashcard", columnList = "flashcard_id")
+})
+public class CardProgress implements Persistable<CardProgressId>, Serializable {
+
+    public static final int MIN_LEVEL = 1;
+    public static final int MAX_LEVEL = 7;
+
+    @EmbeddedId
+    private CardProgressId id;
+
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @MapsId("flashcardId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flashcard_id", nullable = false)
+    private Flashcard flashcard;
+
+    @Column(name = "easiness_factor", nullable = false)
+    private double easinessFactor = 2.5;
+
+    @Column(name = "interval", nullable = false)
+    private int interval = 1; // Interval in days
+
+    @Column(name = "repetitions", nullable = false)
+    private int repetitions = 0;
+
+    @Column(name = "level", nullable = false)
+    private int level = MIN_LEVEL; // Level 1-7 as per the review card URD
+
+    @Column(name = "stability", nullable = false, columnDefinition = "double precision default 0")
+    private double stability; // FSRS memory stability in days, 0 until first scheduled by FSRS
+    
+    @Column(name = "difficulty", nullable = false, columnDefinition = "double precision default 0")
+    private double difficulty; // FSRS difficulty 1-10, 0 until first scheduled by FSRS
+    
+    @Column(name = "next_review_date", nullable = false)
+    private LocalDateTime nextReviewDate;
+
+    @Column(name = "last_review_date")
+    private LocalDateTime lastReviewDate;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version; // Checked on every update so concurrent reviews of a card cannot both commit
+
+    @Transient
+    private boolean isNew = true;
+
+    // Default constructor
+    public CardProgress() {
+    }
+
+    // Constructor for the first review of a flashcard by a user
+    public CardProgress(User user, Flashcard flashcard) {
+        this.id = new CardProgressId(user.getId(), flashcard.getId());
+        this.user = user;
+        this.flashcard = flashcard;
+        this.nextReviewDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    @Override
+    public CardProgressId getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Flashcard getFlashcard() {
+        return flashcard;
+    }
+
+    public double getEasinessFactor() {
+        return easinessFactor;
+    }
+
+    public void setEasinessFactor(double easinessFactor) {
+        this.easinessFactor = easinessFactor;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public double getStability() {
+        return stability;
+    }
+
+    public void setStability(double stability) {
+        this.stability = stability;
+    }
+
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(double difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public LocalDateTime getNextReviewDate() {
+        return nextReviewDate;
+    }
+
+    public void setNextReviewDate(LocalDateTime nextReviewDate) {
+        this.nextReviewDate = nextReviewDate;
+    }
+
+    public LocalDateTime getLastReviewDate() {
+        return lastReviewDate;
+    }
+
+    public void setLastReviewDate(LocalDateTime lastReviewDate) {
+        this.lastReviewDate = lastReviewDate;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Helper methods
+
+    /**
+     * Copy the scheduling outcome of a review into this progress row.
+     * Correct answers (quality 3-5) move one level up, incorrect answers reset to level 1.
+     * @param review the review that was just scored
+     */
+    public void recordReview(Review review) {
+        this.easinessFactor = review.getEasinessFactor();
+        this.interval = review.getInterval();
+        this.repetitions = review.getRepetitions();
+        this.nextReviewDate = review.getNextReviewDate();
+        this.lastReviewDate = review.getReviewDate();
+        this.level = review.getQuality() >= 3 ? Math.min(level + 1, MAX_LEVEL) : MIN_LEVEL;
+    }
+
+    /**
+     * Copy this row into a detached instance that can be changed without being flushed by JPA
+     * @return the copy
+     */
+    public CardProgress copy() {
+        CardProgress copy = new CardProgress();
+        copy.id = new CardProgressId(id.getUserId(), id.getFlashcardId());
+        copy.user = user;
+        copy.flashcard = flashcard;
+        copy.easinessFactor = easinessFactor;
+        copy.interval = interval;
+        copy.repetitions = repetitions;
+        copy.level = level;
+        copy.stability = stability;
+        copy.difficulty = difficulty;
+        copy.nextReviewDate = nextReviewDate;
+        copy.lastReviewDate = lastReviewDate;
+        copy.version = version;
+        copy.isNew = isNew;
+        return copy;
+    }
+}
@@ -0,0 +1,54 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link CardProgress}: one row per (user, flashcard)
+ */
+@Embeddable
+public class CardProgressId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "flashcard_id", nullable = false)
+    private UUID flashcardId;
+
+    // Default constructor
+    public CardProgressId() {
+    }
+
+    public CardProgressId(UUID userId, UUID flashcardId) {
+        this.userId = userId;
+        this.flashcardId = flashcardId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getFlashcardId() {
+        return flashcardId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CardProgressId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(flashcardId, that.flashcardId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, flashcardId);
+    }
+}
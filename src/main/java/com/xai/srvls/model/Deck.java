@@ -58,6 +58,13 @@ public class Deck implements Serializable {
     @Column(name = "tags")
     private String tags;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scheduler_type", length = 20)
+    private SchedulerType schedulerType; // Null means the owner's or the application default
+    
+    @Column(name = "new_cards_per_day")
+    private Integer newCardsPerDay; // Null means the application default
+    
     // Default constructor
     public Deck() {
     }
@@ -150,6 +157,22 @@ public class Deck implements Serializable {
         this.tags = tags;
     }
     
+    public SchedulerType getSchedulerType() {
+        return schedulerType;
+    }
+    
+    public void setSchedulerType(SchedulerType schedulerType) {
+        this.schedulerType = schedulerType;
+    }
+    
+    public Integer getNewCardsPerDay() {
+        return newCardsPerDay;
+    }
+    
+    public void setNewCardsPerDay(Integer newCardsPerDay) {
+        this.newCardsPerDay = newCardsPerDay;
+    }
+    
     // Helper methods
     
     public void addFlashcard(Flashcard flashcard) {
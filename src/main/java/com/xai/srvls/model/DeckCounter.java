@@ -0,0 +1,40 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Card counts of a deck for a user, maintained incrementally as cards are added, removed and reviewed.
+ * Due cards are counted per due day in {@link DeckDueCount}, since a card becomes due without any write.
+ * A missing row means the counts have not been built yet.
+ */
+@Entity
+@Table(name = "deck_counters", indexes = {
+        @Index(name = "idx_deck_counters_deck", columnList = "deck_id")
+})
+public class DeckCounter {
+
+    @EmbeddedId
+    private DeckCounterId id;
+
+    @Column(name = "card_count", nullable = false)
+    private int cardCount; // Flashcards in the deck
+
+    @Column(name = "started_count", nullable = false)
+    private int startedCount; // Flashcards of the deck the user has reviewed at least once
+
+    // Default constructor
+    public DeckCounter() {
+    }
+
+    public DeckCounterId getId() {
+        return id;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public int getStartedCount() {
+        return startedCount;
+    }
+}
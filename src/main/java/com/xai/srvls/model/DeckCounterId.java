@@ -0,0 +1,54 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link DeckCounter}: one row per (user, deck)
+ */
+@Embeddable
+public class DeckCounterId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "deck_id", nullable = false)
+    private UUID deckId;
+
+    // Default constructor
+    public DeckCounterId() {
+    }
+
+    public DeckCounterId(UUID userId, UUID deckId) {
+        this.userId = userId;
+        this.deckId = deckId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeckCounterId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(deckId, that.deckId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, deckId);
+    }
+}
@@ -0,0 +1,32 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of a user's reviewed cards in a deck that fall due on one day.
+ * The due count of a deck is the sum of its rows up to today.
+ */
+@Entity
+@Table(name = "deck_due_counts", indexes = {
+        @Index(name = "idx_deck_due_counts_deck", columnList = "deck_id")
+})
+public class DeckDueCount {
+
+    @EmbeddedId
+    private DeckDueCountId id;
+
+    @Column(name = "card_count", nullable = false)
+    private int cardCount;
+
+    // Default constructor
+    public DeckDueCount() {
+    }
+
+    public DeckDueCountId getId() {
+        return id;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+}
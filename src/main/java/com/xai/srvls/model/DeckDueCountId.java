@@ -0,0 +1,64 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link DeckDueCount}: one row per (user, deck, due day)
+ */
+@Embeddable
+public class DeckDueCountId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "deck_id", nullable = false)
+    private UUID deckId;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    // Default constructor
+    public DeckDueCountId() {
+    }
+
+    public DeckDueCountId(UUID userId, UUID deckId, LocalDate dueDate) {
+        this.userId = userId;
+        this.deckId = deckId;
+        this.dueDate = dueDate;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeckDueCountId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(deckId, that.deckId)
+                && Objects.equals(dueDate, that.dueDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, deckId, dueDate);
+    }
+}
@@ -16,7 +16,9 @@ import java.util.UUID;
  * Flashcard entity representing a vocabulary card with front and back content
  */
 @Entity
-@Table(name = "flashcards")
+@Table(name = "flashcards", indexes = {
+        @Index(name = "idx_flashcards_deck", columnList = "deck_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Flashcard implements Serializable {
     
@@ -54,6 +56,9 @@ public class Flashcard implements Serializable {
     @OneToMany(mappedBy = "flashcard", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Review> reviews = new HashSet<>();
     
+    @OneToMany(mappedBy = "flashcard", cascade = CascadeType.ALL, orphanRemoval = true)
+    private Set<CardProgress> progress = new HashSet<>();
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
@@ -181,25 +186,4 @@ public class Flashcard implements Serializable {
         this.reviews.remove(review);
         review.setFlashcard(null);
     }
-    
-    /**
-     * Calculate the next review date based on the SM-2 spaced repetition algorithm
-     * @param quality The quality of the user's response (0-5)
-     * @param user The user who performed the review
-     * @return The next review date
-     */
-    public LocalDateTime calculateNextReviewDate(int quality, User user) {
-        // Implementation of SM-2 algorithm would go here
-        // For now, return a simple example based on quality
-        int daysToAdd = switch (quality) {
-            case 0, 1 -> 1;  // Review again tomorrow
-            case 2 -> 3;     // Review in 3 days
-            case 3 -> 7;     // Review in a week
-            case 4 -> 14;    // Review in 2 weeks
-            case 5 -> 30;    // Review in a month
-            default -> 1;    // Default to tomorrow
-        };
-        
-        return LocalDateTime.now().plusDays(daysToAdd);
-    }
 }
@@ -12,7 +12,11 @@ import java.util.UUID;
  * Review entity representing a single review session for a flashcard
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_flashcard_user_date", columnList = "flashcard_id, user_id, review_date"),
+        @Index(name = "idx_reviews_user_date_flashcard", columnList = "user_id, review_date, flashcard_id"),
+        @Index(name = "uk_reviews_user_client_review", columnList = "user_id, client_review_id", unique = true)
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Review implements Serializable {
     
@@ -50,6 +54,9 @@ public class Review implements Serializable {
     @Column(name = "response_time_ms")
     private Long responseTimeMs;
     
+    @Column(name = "client_review_id")
+    private UUID clientReviewId; // Idempotency key of reviews recorded offline
+    
     // Default constructor
     public Review() {
     }
@@ -60,7 +67,6 @@ public class Review implements Serializable {
         this.flashcard = flashcard;
         this.quality = quality;
         this.reviewDate = LocalDateTime.now();
-        updateSpacedRepetitionParams();
     }
     
     // Getters and Setters
@@ -95,7 +101,6 @@ public class Review implements Serializable {
     
     public void setQuality(int quality) {
         this.quality = quality;
-        updateSpacedRepetitionParams();
     }
     
     public double getEasinessFactor() {
@@ -146,33 +151,11 @@ public class Review implements Serializable {
         this.responseTimeMs = responseTimeMs;
     }
     
-    /**
-     * Update spaced repetition parameters based on SM-2 algorithm
-     */
-    private void updateSpacedRepetitionParams() {
-        // Implementation of SM-2 algorithm
-        if (quality < 3) {
-            // If response quality is less than 3, reset repetitions
-            repetitions = 0;
-            interval = 1;
-        } else {
-            // If quality is 3 or higher, increase repetitions count
-            repetitions++;
-            
-            // Calculate new interval based on repetitions
-            if (repetitions == 1) {
-                interval = 1;
-            } else if (repetitions == 2) {
-                interval = 6;
-            } else {
-                interval = (int) Math.round(interval * easinessFactor);
-            }
-        }
-        
-        // Update easiness factor
-        easinessFactor = Math.max(1.3, easinessFactor + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02)));
-        
-        // Set next review date
-        nextReviewDate = reviewDate.plusDays(interval);
+    public UUID getClientReviewId() {
+        return clientReviewId;
+    }
+    
+    public void setClientReviewId(UUID clientReviewId) {
+        this.clientReviewId = clientReviewId;
     }
 }
@@ -0,0 +1,54 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Approximate review activity of one hour as recorded by one application node.
+ * Sketches merge, so any range is summarized by merging its rows across hours and nodes.
+ * Written by {@link com.xai.srvls.service.ReviewSketchService}.
+ */
+@Entity
+@Table(name = "review_sketches", indexes = {
+        @Index(name = "idx_review_sketches_hour", columnList = "hour")
+})
+public class ReviewSketch {
+
+    @EmbeddedId
+    private ReviewSketchId id;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "learners", nullable = false)
+    private byte[] learners; // HyperLogLog registers over user IDs
+
+    @Column(name = "flashcards", nullable = false)
+    private byte[] flashcards; // HyperLogLog registers over flashcard IDs
+
+    @Column(name = "response_times", nullable = false)
+    private byte[] responseTimes; // Log histogram of response times in milliseconds
+
+    // Default constructor
+    public ReviewSketch() {
+    }
+
+    public ReviewSketchId getId() {
+        return id;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public byte[] getLearners() {
+        return learners;
+    }
+
+    public byte[] getFlashcards() {
+        return flashcards;
+    }
+
+    public byte[] getResponseTimes() {
+        return responseTimes;
+    }
+}
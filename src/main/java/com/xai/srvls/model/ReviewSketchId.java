@@ -0,0 +1,54 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Composite primary key of {@link ReviewSketch}: one row per (hour, node)
+ */
+@Embeddable
+public class ReviewSketchId implements Serializable {
+
+    @Column(name = "hour", nullable = false)
+    private LocalDateTime hour;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    // Default constructor
+    public ReviewSketchId() {
+    }
+
+    public ReviewSketchId(LocalDateTime hour, String nodeId) {
+        this.hour = hour;
+        this.nodeId = nodeId;
+    }
+
+    public LocalDateTime getHour() {
+        return hour;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReviewSketchId that)) {
+            return false;
+        }
+        return Objects.equals(hour, that.hour) && Objects.equals(nodeId, that.nodeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hour, nodeId);
+    }
+}
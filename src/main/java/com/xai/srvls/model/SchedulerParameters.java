@@ -0,0 +1,91 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scheduler parameters fitted to one user's review history
+ */
+@Entity
+@Table(name = "scheduler_parameters")
+public class SchedulerParameters implements Serializable {
+    
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+    
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "weights", nullable = false)
+    private double[] weights;
+    
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount; // Reviews the weights were fitted on
+    
+    @Column(name = "last_review_date")
+    private LocalDateTime lastReviewDate; // Latest review included in the fit
+    
+    @Column(name = "log_loss")
+    private Double logLoss;
+    
+    @Column(name = "fitted_at", nullable = false)
+    private LocalDateTime fittedAt;
+    
+    // Default constructor
+    public SchedulerParameters() {
+    }
+    
+    public SchedulerParameters(UUID userId) {
+        this.userId = userId;
+    }
+    
+    // Getters and Setters
+    
+    public UUID getUserId() {
+        return userId;
+    }
+    
+    public double[] getWeights() {
+        return weights;
+    }
+    
+    public void setWeights(double[] weights) {
+        this.weights = weights;
+    }
+    
+    public long getReviewCount() {
+        return reviewCount;
+    }
+    
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+    
+    public LocalDateTime getLastReviewDate() {
+        return lastReviewDate;
+    }
+    
+    public void setLastReviewDate(LocalDateTime lastReviewDate) {
+        this.lastReviewDate = lastReviewDate;
+    }
+    
+    public Double getLogLoss() {
+        return logLoss;
+    }
+    
+    public void setLogLoss(Double logLoss) {
+        this.logLoss = logLoss;
+    }
+    
+    public LocalDateTime getFittedAt() {
+        return fittedAt;
+    }
+    
+    public void setFittedAt(LocalDateTime fittedAt) {
+        this.fittedAt = fittedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.xai.srvls.model;
+
+/**
+ * Enumeration of available spaced repetition schedulers
+ */
+public enum SchedulerType {
+    SM2,
+    LEITNER,
+    FSRS
+}
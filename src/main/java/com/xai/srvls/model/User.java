@@ -73,6 +73,10 @@ public class User implements Serializable {
     @Column(nullable = false)
     private boolean active = true;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scheduler_type", length = 20)
+    private SchedulerType schedulerType; // Null means the application default
+    
     // Default constructor
     public User() {
     }
@@ -174,6 +178,14 @@ public class User implements Serializable {
         this.active = active;
     }
     
+    public SchedulerType getSchedulerType() {
+        return schedulerType;
+    }
+    
+    public void setSchedulerType(SchedulerType schedulerType) {
+        this.schedulerType = schedulerType;
+    }
+    
     // Helper methods
     
     public void addRole(Role role) {
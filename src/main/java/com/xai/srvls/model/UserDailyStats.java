@@ -0,0 +1,96 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Review totals of a user in one deck on one day.
+ * Rows are additive, so statistics for any range are sums over at most one row per day and deck.
+ * Maintained by upserts in the transaction that inserts the reviews.
+ */
+@Entity
+@Table(name = "user_daily_stats", indexes = {
+        @Index(name = "idx_user_daily_stats_user_day", columnList = "user_id, day"),
+        @Index(name = "idx_user_daily_stats_deck", columnList = "deck_id")
+})
+public class UserDailyStats {
+
+    @EmbeddedId
+    private UserDailyStatsId id;
+
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    @Column(name = "quality_0", nullable = false)
+    private int quality0;
+
+    @Column(name = "quality_1", nullable = false)
+    private int quality1;
+
+    @Column(name = "quality_2", nullable = false)
+    private int quality2;
+
+    @Column(name = "quality_3", nullable = false)
+    private int quality3;
+
+    @Column(name = "quality_4", nullable = false)
+    private int quality4;
+
+    @Column(name = "quality_5", nullable = false)
+    private int quality5;
+
+    @Column(name = "response_time_sum", nullable = false)
+    private long responseTimeSum; // Milliseconds, over reviews that reported a response time
+
+    @Column(name = "response_time_count", nullable = false)
+    private int responseTimeCount;
+
+    @Column(name = "mastery_count", nullable = false)
+    private int masteryCount; // Reviews with quality 4-5
+
+    @Column(name = "flashcard_sketch")
+    private byte[] flashcardSketch; // HyperLogLog registers over flashcard IDs; null on rows not yet backfilled
+
+    // Default constructor
+    public UserDailyStats() {
+    }
+
+    public UserDailyStatsId getId() {
+        return id;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public int getResponseTimeCount() {
+        return responseTimeCount;
+    }
+
+    public long getResponseTimeSum() {
+        return responseTimeSum;
+    }
+
+    public int getMasteryCount() {
+        return masteryCount;
+    }
+
+    public byte[] getFlashcardSketch() {
+        return flashcardSketch;
+    }
+
+    /**
+     * @param quality the quality, 0-5
+     * @return the number of reviews with that quality
+     */
+    public int getQualityCount(int quality) {
+        return switch (quality) {
+            case 0 -> quality0;
+            case 1 -> quality1;
+            case 2 -> quality2;
+            case 3 -> quality3;
+            case 4 -> quality4;
+            case 5 -> quality5;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.xai.srvls.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link UserDailyStats}: one row per (user, deck, day)
+ */
+@Embeddable
+public class UserDailyStatsId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "deck_id", nullable = false)
+    private UUID deckId;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    // Default constructor
+    public UserDailyStatsId() {
+    }
+
+    public UserDailyStatsId(UUID userId, UUID deckId, LocalDate day) {
+        this.userId = userId;
+        this.deckId = deckId;
+        this.day = day;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getDeckId() {
+        return deckId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserDailyStatsId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(deckId, that.deckId)
+                && Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, deckId, day);
+    }
+}
@@ -0,0 +1,240 @@
+package com.xai.srvls.repository;
+
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.CardProgressId;
+import com.xai.srvls.scheduling.LeitnerAlgorithm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for CardProgress entity
+ */
+@Repository
+public interface CardProgressRepository extends JpaRepository<CardProgress, CardProgressId> {
+    
+    /**
+     * When a card is due: by level for Leitner-scheduled cards, by next review date otherwise
+     */
+    String CLASSIFY_DUE_SQL =
+            "CASE WHEN COALESCE(d.scheduler_type, u.scheduler_type, :defaultScheduler) = 'LEITNER' " +
+            "AND l.days IS NOT NULL THEN p.last_review_date + make_interval(days => l.days) " +
+            "ELSE p.next_review_date END AS due ";
+    
+    String CLASSIFY_COUNTS_SQL =
+            "COUNT(*) FILTER (WHERE c.due >= CAST(:today AS timestamp) AND c.due < CAST(:tomorrow AS timestamp)), " +
+            "COUNT(*) FILTER (WHERE c.due < CAST(:today AS timestamp)), " +
+            "COUNT(*) ";
+
+    /**
+     * Load the progress rows of a user for several flashcards at once
+     * @param userId the user ID
+     * @param flashcardIds the flashcard IDs
+     * @return the progress rows that exist
+     */
+    @Query("SELECT p FROM CardProgress p " +
+           "WHERE p.id.userId = :userId " +
+           "AND p.id.flashcardId IN :flashcardIds")
+    List<CardProgress> findByUserIdAndFlashcardIds(
+            @Param("userId") UUID userId,
+            @Param("flashcardIds") Collection<UUID> flashcardIds);
+    
+    /**
+     * Find the flashcards of a user due before a time, most overdue first
+     * @param userId the user ID
+     * @param before the due time limit, exclusive
+     * @param pageable the maximum number of cards
+     * @return the flashcard IDs
+     */
+    @Query("SELECT p.id.flashcardId FROM CardProgress p " +
+           "WHERE p.id.userId = :userId " +
+           "AND p.nextReviewDate < :before " +
+           "ORDER BY p.nextReviewDate ASC")
+    List<UUID> findDueFlashcardIds(
+            @Param("userId") UUID userId,
+            @Param("before") LocalDateTime before,
+            Pageable pageable);
+    
+    /**
+     * Load the first due cards of a user with their flashcards and decks, in (due date, flashcard ID) order
+     * @param userId the user ID
+     * @param asOf the due time limit, inclusive
+     * @param pageable the maximum number of cards
+     * @return the progress rows with flashcard and deck fetched
+     */
+    @Query("SELECT p FROM CardProgress p JOIN FETCH p.flashcard f JOIN FETCH f.deck " +
+           "WHERE p.id.userId = :userId " +
+           "AND p.nextReviewDate <= :asOf " +
+           "ORDER BY p.nextReviewDate, p.id.flashcardId")
+    List<CardProgress> findDueWithFlashcards(
+            @Param("userId") UUID userId,
+            @Param("asOf") LocalDateTime asOf,
+            Pageable pageable);
+    
+    /**
+     * Load the due cards of a user that follow a (due date, flashcard ID) position, with their flashcards and decks.
+     * Keyset continuation of {@link #findDueWithFlashcards}: the cost does not grow with the position.
+     * The position is a row value comparison, rendered as such in SQL, so Postgres starts the scan of
+     * the (user_id, next_review_date, flashcard_id) index right after it.
+     * @param userId the user ID
+     * @param asOf the due time limit, inclusive
+     * @param afterDate the due date of the last card already returned
+     * @param afterId the flashcard ID of the last card already returned
+     * @param pageable the maximum number of cards
+     * @return the progress rows with flashcard and deck fetched
+     */
+    @Query("SELECT p FROM CardProgress p JOIN FETCH p.flashcard f JOIN FETCH f.deck " +
+           "WHERE p.id.userId = :userId " +
+           "AND p.nextReviewDate <= :asOf " +
+           "AND (p.nextReviewDate, p.id.flashcardId) > (:afterDate, :afterId) " +
+           "ORDER BY p.nextReviewDate, p.id.flashcardId")
+    List<CardProgress> findDueWithFlashcardsAfter(
+            @Param("userId") UUID userId,
+            @Param("asOf") LocalDateTime asOf,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+    
+    /**
+     * Count the cards of all users by the day they fall due
+     * @return rows of [due date, card count]
+     */
+    @Query(value = "SELECT CAST(p.next_review_date AS date), count(*) FROM card_progress p " +
+                   "GROUP BY CAST(p.next_review_date AS date)",
+           nativeQuery = true)
+    List<Object[]> countAllByDueDate();
+    
+    /**
+     * Count the progress rows of a flashcard by the day they fall due
+     * @param flashcardId the flashcard ID
+     * @return rows of [due date, card count]
+     */
+    @Query(value = "SELECT CAST(p.next_review_date AS date), count(*) FROM card_progress p " +
+                   "WHERE p.flashcard_id = :flashcardId GROUP BY CAST(p.next_review_date AS date)",
+           nativeQuery = true)
+    List<Object[]> countByDueDateForFlashcard(@Param("flashcardId") UUID flashcardId);
+    
+    /**
+     * Count the progress rows on a deck's flashcards by the day they fall due
+     * @param deckId the deck ID
+     * @return rows of [due date, card count]
+     */
+    @Query(value = "SELECT CAST(p.next_review_date AS date), count(*) FROM card_progress p " +
+                   "JOIN flashcards f ON f.id = p.flashcard_id " +
+                   "WHERE f.deck_id = :deckId GROUP BY CAST(p.next_review_date AS date)",
+           nativeQuery = true)
+    List<Object[]> countByDueDateForDeck(@Param("deckId") UUID deckId);
+    
+    /**
+     * Load the due index entries of a user: every card with progress in a deck the user can access,
+     * and when it is next due
+     * @param userId the user ID
+     * @return rows of [flashcard ID, next review date]
+     */
+    @Query("SELECT p.id.flashcardId, p.nextReviewDate FROM CardProgress p JOIN p.flashcard f JOIN f.deck d " +
+           "WHERE p.id.userId = :userId AND (d.isPublic = true OR d.owner.id = :userId)")
+    List<Object[]> findDueIndexEntries(@Param("userId") UUID userId);
+    
+    /**
+     * Load the progress rows on a deck's flashcards, to drop them from the due indexes of their users
+     * @param deckId the deck ID
+     * @return rows of [user ID, flashcard ID]
+     */
+    @Query("SELECT p.id.userId, p.id.flashcardId FROM CardProgress p WHERE p.flashcard.deck.id = :deckId")
+    List<Object[]> findUserFlashcardIdsByDeckId(@Param("deckId") UUID deckId);
+    
+    /**
+     * Find the users other than the owner who have progress on a deck's flashcards
+     * @param deckId the deck ID
+     * @return the user IDs
+     */
+    @Query("SELECT DISTINCT p.id.userId FROM CardProgress p " +
+           "WHERE p.flashcard.deck.id = :deckId AND p.id.userId <> p.flashcard.deck.owner.id")
+    List<UUID> findLearnerIdsByDeckId(@Param("deckId") UUID deckId);
+    
+    /**
+     * Find the users who have progress on a flashcard
+     * @param flashcardId the flashcard ID
+     * @return the user IDs
+     */
+    @Query("SELECT p.id.userId FROM CardProgress p WHERE p.id.flashcardId = :flashcardId")
+    List<UUID> findUserIdsByFlashcardId(@Param("flashcardId") UUID flashcardId);
+    
+    /**
+     * Classify a user's cards per the Review Card URD.
+     * Cards whose resolved scheduler (deck, else user, else the default) is Leitner are due on
+     * {@code last_review_date + days(level)}, from level and last review date alone; all other cards
+     * are due on their next review date. Due today makes a review card, earlier a new (overdue) card,
+     * anything else a learned card.
+     * @param userId the user ID
+     * @param defaultScheduler the name of the default scheduler type
+     * @param today the start of today
+     * @param tomorrow the start of tomorrow
+     * @return one row of [review cards, new cards, total cards]
+     */
+    @Query(value = "SELECT " + CLASSIFY_COUNTS_SQL +
+                   "FROM (SELECT " + CLASSIFY_DUE_SQL +
+                   "FROM card_progress p JOIN flashcards f ON f.id = p.flashcard_id " +
+                   "JOIN decks d ON d.id = f.deck_id JOIN users u ON u.id = p.user_id " +
+                   "LEFT JOIN " + LeitnerAlgorithm.LEVEL_DAYS_SQL + " AS l(level, days) ON l.level = p.level " +
+                   "WHERE p.user_id = :userId) c",
+           nativeQuery = true)
+    List<Object[]> classifyByLevel(
+            @Param("userId") UUID userId,
+            @Param("defaultScheduler") String defaultScheduler,
+            @Param("today") LocalDateTime today,
+            @Param("tomorrow") LocalDateTime tomorrow);
+    
+    /**
+     * Classify a user's cards in one deck per the Review Card URD, see {@link #classifyByLevel}
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param defaultScheduler the name of the default scheduler type
+     * @param today the start of today
+     * @param tomorrow the start of tomorrow
+     * @return one row of [review cards, new cards, total cards]
+     */
+    @Query(value = "SELECT " + CLASSIFY_COUNTS_SQL +
+                   "FROM (SELECT " + CLASSIFY_DUE_SQL +
+                   "FROM card_progress p JOIN flashcards f ON f.id = p.flashcard_id " +
+                   "JOIN decks d ON d.id = f.deck_id JOIN users u ON u.id = p.user_id " +
+                   "LEFT JOIN " + LeitnerAlgorithm.LEVEL_DAYS_SQL + " AS l(level, days) ON l.level = p.level " +
+                   "WHERE p.user_id = :userId AND f.deck_id = :deckId) c",
+           nativeQuery = true)
+    List<Object[]> classifyByLevelInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("defaultScheduler") String defaultScheduler,
+            @Param("today") LocalDateTime today,
+            @Param("tomorrow") LocalDateTime tomorrow);
+    
+    /**
+     * Aggregate the learner progress of one deck: one row per level, one per interval bucket and a total.
+     * Reads the latest state of each (learner, card) from card_progress through the flashcard index,
+     * never the review log. Retention is the FSRS retrievability now, with the interval standing in
+     * for the stability of cards not scheduled by FSRS (recall is taken as 90% on the due day).
+     * @param deckId the deck ID
+     * @param now the current date and time
+     * @return rows of [level, interval bucket, GROUPING(level), GROUPING(bucket), cards, learners,
+     *         average easiness factor, average predicted retention]
+     */
+    @Query(value = "SELECT t.level, t.bucket, GROUPING(t.level), GROUPING(t.bucket), count(*), " +
+                   "count(DISTINCT t.user_id), avg(t.easiness_factor), avg(t.retention) " +
+                   "FROM (SELECT p.user_id, p.level, p.easiness_factor, " +
+                   "CASE WHEN p.interval <= 1 THEN 0 WHEN p.interval <= 7 THEN 1 WHEN p.interval <= 30 THEN 2 " +
+                   "WHEN p.interval <= 90 THEN 3 WHEN p.interval <= 365 THEN 4 ELSE 5 END AS bucket, " +
+                   "power(1 + 19.0 / 81 * GREATEST(EXTRACT(EPOCH FROM (CAST(:now AS timestamp) - p.last_review_date)) / 86400, 0) " +
+                   "/ (CASE WHEN p.stability > 0 THEN p.stability ELSE GREATEST(p.interval, 1) END), -0.5) AS retention " +
+                   "FROM flashcards f JOIN card_progress p ON p.flashcard_id = f.id " +
+                   "WHERE f.deck_id = :deckId) t " +
+                   "GROUP BY GROUPING SETS ((t.level), (t.bucket), ())",
+           nativeQuery = true)
+    List<Object[]> aggregateDeckAnalytics(@Param("deckId") UUID deckId, @Param("now") LocalDateTime now);
+}
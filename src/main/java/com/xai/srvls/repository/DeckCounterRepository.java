@@ -0,0 +1,46 @@
+package com.xai.srvls.repository;
+
+import com.xai.srvls.model.DeckCounter;
+import com.xai.srvls.model.DeckCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for DeckCounter entity
+ */
+@Repository
+public interface DeckCounterRepository extends JpaRepository<DeckCounter, DeckCounterId> {
+
+    /**
+     * Read the counters of every deck a user owns.
+     * Each deck costs one counter row and a range sum over its due days up to today.
+     * @param userId the user ID
+     * @param today the current date
+     * @return rows of [deckId, name, cardCount, startedCount, dueCount], ordered by deck name
+     */
+    @Query(value = "SELECT d.id, d.name, c.card_count, c.started_count, " +
+                   "COALESCE((SELECT sum(b.card_count) FROM deck_due_counts b " +
+                   "WHERE b.user_id = c.user_id AND b.deck_id = c.deck_id AND b.due_date <= :today), 0) " +
+                   "FROM decks d JOIN deck_counters c ON c.deck_id = d.id AND c.user_id = :userId " +
+                   "WHERE d.owner_id = :userId " +
+                   "ORDER BY d.name, d.id",
+           nativeQuery = true)
+    List<Object[]> findDashboardRows(@Param("userId") UUID userId, @Param("today") LocalDate today);
+
+    /**
+     * Find the decks a user owns whose counters have not been built yet
+     * @param userId the user ID
+     * @return the deck IDs
+     */
+    @Query(value = "SELECT d.id FROM decks d " +
+                   "WHERE d.owner_id = :userId " +
+                   "AND NOT EXISTS (SELECT 1 FROM deck_counters c WHERE c.user_id = :userId AND c.deck_id = d.id)",
+           nativeQuery = true)
+    List<UUID> findOwnedDeckIdsWithoutCounters(@Param("userId") UUID userId);
+}
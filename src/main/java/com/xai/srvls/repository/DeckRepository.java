@@ -76,4 +76,12 @@ public interface DeckRepository extends JpaRepository<Deck, UUID> {
     Page<Deck> searchUserDecks(@Param("userId") UUID userId, 
                               @Param("searchTerm") String searchTerm, 
                               Pageable pageable);
+    
+    /**
+     * Find the fields of a deck that decide who may access it
+     * @param id the deck ID
+     * @return at most one row of owner ID and public flag
+     */
+    @Query("SELECT d.owner.id, d.isPublic FROM Deck d WHERE d.id = :id")
+    List<Object[]> findAccessById(@Param("id") UUID id);
 }
@@ -2,14 +2,19 @@ package com.xai.srvls.repository;
 
 import com.xai.srvls.model.Deck;
 import com.xai.srvls.model.Flashcard;
+import com.xai.srvls.scheduling.LeitnerAlgorithm;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -57,19 +62,137 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, UUID> {
     long countByDeckId(UUID deckId);
     
     /**
-     * Find flashcards that need review based on next review date
+     * Resolve, in a single query, which of the given flashcards exist and whether the user may access them
+     * @param ids the flashcard IDs
      * @param userId the user ID
-     * @param deckId the deck ID (optional)
+     * @return rows of [flashcard ID, accessible flag, deck scheduler type, deck ID]; IDs that do not exist are absent
+     */
+    @Query("SELECT f.id, CASE WHEN (d.isPublic = true OR d.owner.id = :userId) THEN true ELSE false END, " +
+           "d.schedulerType, d.id " +
+           "FROM Flashcard f JOIN f.deck d " +
+           "WHERE f.id IN :ids")
+    List<Object[]> findAccessByIds(@Param("ids") Collection<UUID> ids, @Param("userId") UUID userId);
+    
+    /**
+     * Pick the new (never reviewed) flashcards of a user's own decks for a daily session,
+     * oldest first and at most the deck's new cards per day from each deck.
+     * Cards the user already introduced today (first reviewed since the start of the day) count against
+     * that limit, so a session rebuilt during the day does not hand out a second day's worth.
+     * @param userId the user ID
+     * @param defaultLimit the per-deck limit for decks without their own setting
+     * @param today the start of the session's day
+     * @return the flashcard IDs, grouped by deck
+     */
+    @Query(value = "SELECT t.id FROM (" +
+                   "SELECT f.id, f.deck_id, ROW_NUMBER() OVER (PARTITION BY f.deck_id ORDER BY f.created_at, f.id) AS rn, " +
+                   "COALESCE(d.new_cards_per_day, :defaultLimit) - COALESCE(i.introduced, 0) AS lim " +
+                   "FROM decks d JOIN flashcards f ON f.deck_id = d.id " +
+                   "LEFT JOIN (" +
+                   "SELECT rf.deck_id, count(DISTINCT r.flashcard_id) AS introduced " +
+                   "FROM reviews r JOIN flashcards rf ON rf.id = r.flashcard_id " +
+                   "WHERE r.user_id = :userId AND r.review_date >= :today " +
+                   "AND NOT EXISTS (SELECT 1 FROM reviews o WHERE o.flashcard_id = r.flashcard_id " +
+                   "AND o.user_id = :userId AND o.review_date < :today) " +
+                   "GROUP BY rf.deck_id" +
+                   ") i ON i.deck_id = d.id " +
+                   "WHERE d.owner_id = :userId " +
+                   "AND NOT EXISTS (SELECT 1 FROM card_progress p WHERE p.user_id = :userId AND p.flashcard_id = f.id)" +
+                   ") t WHERE t.rn <= t.lim " +
+                   "ORDER BY t.deck_id, t.rn",
+           nativeQuery = true)
+    List<UUID> findNewFlashcardIdsForSession(
+            @Param("userId") UUID userId,
+            @Param("defaultLimit") int defaultLimit,
+            @Param("today") LocalDateTime today);
+    
+    /**
+     * Find the users whose daily sessions may hold a flashcard: its deck's owner, who gets it as a new
+     * card, and every user with progress on it
+     * @param flashcardId the flashcard ID
+     * @return the user IDs
+     */
+    @Query(value = "SELECT d.owner_id FROM flashcards f JOIN decks d ON d.id = f.deck_id WHERE f.id = :flashcardId " +
+                   "UNION SELECT p.user_id FROM card_progress p WHERE p.flashcard_id = :flashcardId",
+           nativeQuery = true)
+    List<UUID> findSessionUserIdsByFlashcardId(@Param("flashcardId") UUID flashcardId);
+    
+    /**
+     * Find the users whose daily sessions may hold flashcards of a deck: its owner and every user
+     * with progress on one of its flashcards
+     * @param deckId the deck ID
+     * @return the user IDs
+     */
+    @Query(value = "SELECT d.owner_id FROM decks d WHERE d.id = :deckId " +
+                   "UNION SELECT p.user_id FROM card_progress p JOIN flashcards f ON f.id = p.flashcard_id " +
+                   "WHERE f.deck_id = :deckId",
+           nativeQuery = true)
+    List<UUID> findSessionUserIdsByDeckId(@Param("deckId") UUID deckId);
+    
+    /**
+     * Find flashcards that are due for review, most overdue first.
+     * Reads only the current state in card_progress, so each card appears at most once;
+     * backed by the (user_id, next_review_date) index. Returns a slice to skip the count query.
+     * @param userId the user ID
+     * @param now the current date and time
      * @param pageable pagination info
-     * @return a page of flashcards due for review
+     * @return a slice of flashcards due for review
      */
-    @Query("SELECT f FROM Flashcard f JOIN f.reviews r " +
-           "WHERE r.user.id = :userId " +
-           "AND (:deckId IS NULL OR f.deck.id = :deckId) " +
-           "AND r.nextReviewDate <= CURRENT_TIMESTAMP " +
-           "ORDER BY r.nextReviewDate ASC")
-    Page<Flashcard> findFlashcardsDueForReview(
+    @Query("SELECT f FROM CardProgress p JOIN p.flashcard f " +
+           "WHERE p.id.userId = :userId " +
+           "AND p.nextReviewDate <= :now " +
+           "ORDER BY p.nextReviewDate ASC")
+    Slice<Flashcard> findFlashcardsDueForReview(
+            @Param("userId") UUID userId,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+    
+    /**
+     * Find flashcards in a deck that are due for review, most overdue first
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param now the current date and time
+     * @param pageable pagination info
+     * @return a slice of flashcards due for review
+     */
+    @Query("SELECT f FROM CardProgress p JOIN p.flashcard f " +
+           "WHERE p.id.userId = :userId " +
+           "AND f.deck.id = :deckId " +
+           "AND p.nextReviewDate <= :now " +
+           "ORDER BY p.nextReviewDate ASC")
+    Slice<Flashcard> findFlashcardsDueForReviewInDeck(
             @Param("userId") UUID userId,
             @Param("deckId") UUID deckId,
+            @Param("now") LocalDateTime now,
             Pageable pageable);
+    
+    /**
+     * Find flashcards in a level-scheduled deck that are due today or overdue, most overdue first.
+     * A card at level L is due once {@code last_review_date < tomorrow - days(L)}, so this is one
+     * range scan per level on the (user_id, level, last_review_date) index.
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param tomorrow the start of tomorrow
+     * @param pageable pagination info; sorting is fixed
+     * @return a slice of flashcards due for review
+     */
+    @Query(value = "SELECT f.* FROM " + LeitnerAlgorithm.LEVEL_DAYS_SQL + " AS l(level, days) " +
+                   "JOIN card_progress p ON p.user_id = :userId AND p.level = l.level " +
+                   "AND p.last_review_date < CAST(:tomorrow AS timestamp) - make_interval(days => l.days) " +
+                   "JOIN flashcards f ON f.id = p.flashcard_id " +
+                   "WHERE f.deck_id = :deckId " +
+                   "ORDER BY p.last_review_date + make_interval(days => l.days) ASC",
+           nativeQuery = true)
+    Slice<Flashcard> findLevelDueForReviewInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("tomorrow") LocalDateTime tomorrow,
+            Pageable pageable);
+    
+    /**
+     * Find the deck of a flashcard
+     * @param id the flashcard ID
+     * @return the deck ID if the flashcard exists
+     */
+    @Query("SELECT f.deck.id FROM Flashcard f WHERE f.id = :id")
+    Optional<UUID> findDeckIdById(@Param("id") UUID id);
 }
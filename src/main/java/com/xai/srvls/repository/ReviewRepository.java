@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,6 +23,22 @@ import java.util.UUID;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, UUID> {
     
+    /**
+     * Aggregates of {@link #aggregateStatistics}: one row per day plus a total row, in one scan
+     */
+    String STATISTICS_COLUMNS =
+            "SELECT CAST(r.review_date AS date), GROUPING(CAST(r.review_date AS date)), " +
+            "count(*), count(DISTINCT r.flashcard_id), avg(r.quality), avg(r.response_time_ms), " +
+            "count(*) FILTER (WHERE r.quality = 0), count(*) FILTER (WHERE r.quality = 1), " +
+            "count(*) FILTER (WHERE r.quality = 2), count(*) FILTER (WHERE r.quality = 3), " +
+            "count(*) FILTER (WHERE r.quality = 4), count(*) FILTER (WHERE r.quality = 5) " +
+            "FROM reviews r ";
+    
+    String STATISTICS_GROUPING =
+            "WHERE r.user_id = :userId " +
+            "AND r.review_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY GROUPING SETS ((CAST(r.review_date AS date)), ())";
+    
     /**
      * Find all reviews for a user
      * @param user the user
@@ -48,20 +65,19 @@ public interface ReviewRepository extends JpaRepository<Review, UUID> {
             UUID flashcardId, UUID userId);
     
     /**
-     * Find all flashcards due for review for a user
+     * Find the most recent review of each given flashcard by a specific user
      * @param userId the user ID
-     * @param deckId the deck ID (optional)
-     * @return a list of flashcard IDs
+     * @param flashcardIds the flashcard IDs
+     * @return the latest review per flashcard, for flashcards that have been reviewed
      */
-    @Query("SELECT r.flashcard.id FROM Review r " +
+    @Query("SELECT r FROM Review r " +
            "WHERE r.user.id = :userId " +
-           "AND (:deckId IS NULL OR r.flashcard.deck.id = :deckId) " +
-           "AND r.nextReviewDate <= :currentDateTime " +
-           "ORDER BY r.nextReviewDate ASC")
-    List<UUID> findFlashcardIdsDueForReview(
+           "AND r.flashcard.id IN :flashcardIds " +
+           "AND r.reviewDate = (SELECT MAX(r2.reviewDate) FROM Review r2 " +
+           "WHERE r2.user.id = r.user.id AND r2.flashcard.id = r.flashcard.id)")
+    List<Review> findLatestByUserIdAndFlashcardIds(
             @Param("userId") UUID userId,
-            @Param("deckId") UUID deckId,
-            @Param("currentDateTime") LocalDateTime currentDateTime);
+            @Param("flashcardIds") Collection<UUID> flashcardIds);
     
     /**
      * Count the number of reviews for a flashcard by a specific user
@@ -89,6 +105,89 @@ public interface ReviewRepository extends JpaRepository<Review, UUID> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Aggregate a user's reviews in a date range without loading them.
+     * Reads the reviews (user_id, review_date) index range once.
+     * @param userId the user ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return rows of [day, isTotal, reviews, distinct flashcards, average quality, average response time,
+     *         quality 0 count, ..., quality 5 count]; the total row has isTotal = 1 and a null day
+     */
+    @Query(value = STATISTICS_COLUMNS + STATISTICS_GROUPING, nativeQuery = true)
+    List<Object[]> aggregateStatistics(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Count a user's reviews per day in a date range, from the reviews (user_id, review_date) index
+     * @param userId the user ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return rows of [day, review count]; days without reviews are absent
+     */
+    @Query(value = "SELECT CAST(r.review_date AS date), count(*) FROM reviews r " +
+                   "WHERE r.user_id = :userId AND r.review_date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY CAST(r.review_date AS date)",
+           nativeQuery = true)
+    List<Object[]> countByDay(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Aggregate a user's reviews of one deck in a date range without loading them
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return rows as for {@link #aggregateStatistics}
+     */
+    @Query(value = STATISTICS_COLUMNS +
+                   "JOIN flashcards f ON f.id = r.flashcard_id AND f.deck_id = :deckId " +
+                   STATISTICS_GROUPING,
+           nativeQuery = true)
+    List<Object[]> aggregateStatisticsInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Count the distinct flashcards a user reviewed in a date range.
+     * Answered from the reviews (user_id, review_date, flashcard_id) index alone.
+     * @param userId the user ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return the number of distinct flashcards
+     */
+    @Query(value = "SELECT count(DISTINCT r.flashcard_id) FROM reviews r " +
+                   "WHERE r.user_id = :userId AND r.review_date BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    long countDistinctFlashcards(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Count the distinct flashcards of one deck a user reviewed in a date range
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return the number of distinct flashcards
+     */
+    @Query(value = "SELECT count(DISTINCT r.flashcard_id) FROM reviews r " +
+                   "JOIN flashcards f ON f.id = r.flashcard_id AND f.deck_id = :deckId " +
+                   "WHERE r.user_id = :userId AND r.review_date BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    long countDistinctFlashcardsInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
     Page<Review> findByFlashcardIdAndUserId(UUID flashcardId, UUID userId, Pageable pageable);
 
     List<Review> findByUserIdAndReviewDateBetween(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
@@ -0,0 +1,36 @@
+package com.xai.srvls.repository;
+
+import com.xai.srvls.model.SchedulerParameters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for SchedulerParameters entity
+ */
+@Repository
+public interface SchedulerParametersRepository extends JpaRepository<SchedulerParameters, UUID> {
+
+    /**
+     * Find users with FSRS-scheduled cards who reviewed anything since their parameters were last fitted,
+     * or were never fitted. A card is FSRS-scheduled by its deck's setting, else the user's preference,
+     * else the application default, as in the scheduler registry. One probe per user on the reviews
+     * (user_id, review_date) index, and one on the user's progress rows until an FSRS card is found.
+     * @param defaultScheduler the application default scheduler type
+     * @return the user IDs
+     */
+    @Query(value = "SELECT u.id FROM users u " +
+                   "LEFT JOIN scheduler_parameters sp ON sp.user_id = u.id " +
+                   "WHERE EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id " +
+                   "AND (sp.last_review_date IS NULL OR r.review_date > sp.last_review_date)) " +
+                   "AND EXISTS (SELECT 1 FROM card_progress p " +
+                   "JOIN flashcards f ON f.id = p.flashcard_id JOIN decks d ON d.id = f.deck_id " +
+                   "WHERE p.user_id = u.id " +
+                   "AND COALESCE(d.scheduler_type, u.scheduler_type, :defaultScheduler) = 'FSRS')",
+           nativeQuery = true)
+    List<UUID> findUserIdsWithNewReviews(@Param("defaultScheduler") String defaultScheduler);
+}
@@ -0,0 +1,110 @@
+package com.xai.srvls.repository;
+
+import com.xai.srvls.model.UserDailyStats;
+import com.xai.srvls.model.UserDailyStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for UserDailyStats entity
+ */
+@Repository
+public interface UserDailyStatsRepository extends JpaRepository<UserDailyStats, UserDailyStatsId> {
+
+    String DAY_SUMS =
+            "SELECT s.day, sum(s.review_count), sum(s.quality_0), sum(s.quality_1), sum(s.quality_2), " +
+            "sum(s.quality_3), sum(s.quality_4), sum(s.quality_5), " +
+            "sum(s.response_time_sum), sum(s.response_time_count), sum(s.mastery_count) " +
+            "FROM user_daily_stats s " +
+            "WHERE s.user_id = :userId AND s.day BETWEEN :startDate AND :endDate ";
+
+    /**
+     * Sum a user's rollups per day over all decks
+     * @param userId the user ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return rows of [day, reviews, quality 0 count, ..., quality 5 count, response time sum,
+     *         response time count, mastery count]
+     */
+    @Query(value = DAY_SUMS + "GROUP BY s.day", nativeQuery = true)
+    List<Object[]> sumByDay(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Sum a user's rollups per day in one deck
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return rows as for {@link #sumByDay}
+     */
+    @Query(value = DAY_SUMS + "AND s.deck_id = :deckId GROUP BY s.day", nativeQuery = true)
+    List<Object[]> sumByDayInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find the flashcard sketches of a user's rollups over all decks
+     * @param userId the user ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return one sketch per rollup row; null for rows without one
+     */
+    @Query(value = "SELECT s.flashcard_sketch FROM user_daily_stats s " +
+                   "WHERE s.user_id = :userId AND s.day BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    List<byte[]> findFlashcardSketches(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find the flashcard sketches of a user's rollups in one deck
+     * @param userId the user ID
+     * @param deckId the deck ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return one sketch per rollup row; null for rows without one
+     */
+    @Query(value = "SELECT s.flashcard_sketch FROM user_daily_stats s " +
+                   "WHERE s.user_id = :userId AND s.deck_id = :deckId AND s.day BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    List<byte[]> findFlashcardSketchesInDeck(
+            @Param("userId") UUID userId,
+            @Param("deckId") UUID deckId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Count a user's reviews per day over all decks
+     * @param userId the user ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return rows of [day, reviews] for days with reviews
+     */
+    @Query(value = "SELECT s.day, sum(s.review_count) FROM user_daily_stats s " +
+                   "WHERE s.user_id = :userId AND s.day BETWEEN :startDate AND :endDate GROUP BY s.day",
+           nativeQuery = true)
+    List<Object[]> countByDay(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find the users who have any reviews, for the backfill
+     * @return the user IDs
+     */
+    @Query(value = "SELECT u.id FROM users u WHERE EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id)",
+           nativeQuery = true)
+    List<UUID> findUserIdsWithReviews();
+}
@@ -2,8 +2,12 @@ package com.xai.srvls.repository;
 
 import com.xai.srvls.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -40,4 +44,24 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return true if the email exists
      */
     Boolean existsByEmail(String email);
+    
+    /**
+     * Find the active users of one shard: users who logged in or reviewed since a date.
+     * Users are assigned to shards by a hash of their ID, so every node computes the same split.
+     * The hash is shifted into 0 to 2^32 - 1 as a bigint: abs() overflows on the smallest int.
+     * @param since the start of the activity window
+     * @param shardCount the number of shards
+     * @param shard the shard, 0 to shardCount - 1
+     * @return the user IDs
+     */
+    @Query(value = "SELECT u.id FROM users u " +
+                   "WHERE mod(CAST(hashtext(CAST(u.id AS text)) AS bigint) + 2147483648, :shardCount) = :shard " +
+                   "AND u.active = true " +
+                   "AND (u.last_login_at >= :since " +
+                   "OR EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.review_date >= :since))",
+           nativeQuery = true)
+    List<UUID> findActiveUserIdsInShard(
+            @Param("since") LocalDateTime since,
+            @Param("shardCount") int shardCount,
+            @Param("shard") int shard);
 }
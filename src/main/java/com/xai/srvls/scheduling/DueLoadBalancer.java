@@ -0,0 +1,164 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerType;
+import com.xai.srvls.service.DueIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Spreads a user's reviews across days.
+ * <p>
+ * Cards learned together get the same intervals and keep falling due on the same days. After a card
+ * is scheduled, its due day is moved to the least-loaded day within a fuzz window around it, using the
+ * user's due counts per day from the Redis due index. The window grows with the interval (a day late on a
+ * 60-day interval does not matter, on a 2-day interval it does) and short intervals are left alone.
+ * Level-scheduled cards are never moved, since their due day is part of the level rule.
+ * <p>
+ * The counts are read through a {@link DayLoad}, which fetches only the days of each fuzz window it has
+ * not read yet, with one pipelined ZCOUNT per day, and tracks the cards the batch moves on top of them.
+ * Replayed historical reviews are not balanced at all; callers pass no load for them.
+ */
+@Component
+public class DueLoadBalancer {
+
+    private final DueIndexService dueIndexService;
+
+    @Value("${srvls.load-balancing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srvls.load-balancing.min-interval:3}")
+    private int minInterval;
+
+    @Value("${srvls.load-balancing.fuzz-factor:0.05}")
+    private double fuzzFactor;
+
+    @Value("${srvls.load-balancing.max-fuzz-days:7}")
+    private int maxFuzzDays;
+
+    @Autowired
+    public DueLoadBalancer(DueIndexService dueIndexService) {
+        this.dueIndexService = dueIndexService;
+    }
+
+    /**
+     * Start tracking a user's due counts for one review or batch; nothing is read until a card needs them
+     * @param userId the user ID
+     * @return the load, to pass to every {@link #balance} call of the batch
+     */
+    public DayLoad newLoad(UUID userId) {
+        return new DayLoad(userId);
+    }
+
+    /**
+     * Move a freshly scheduled card to the least-loaded day near its due day
+     * @param load the user's due counts for this batch
+     * @param algorithm the scheduler that produced the state
+     * @param state the scheduled state; its interval and due day are updated in place
+     * @param reviewDay the epoch day of the review
+     * @param previousDueDay the card's due day before the review, or {@link SchedulingState#NEVER} for a new card
+     */
+    public void balance(DayLoad load, SpacedRepetitionAlgorithm algorithm, SchedulingState state, int reviewDay,
+                        int previousDueDay) {
+        int interval = state.getInterval();
+        if (!enabled || interval < minInterval || algorithm.getType() == SchedulerType.LEITNER) {
+            return;
+        }
+        int fuzz = Math.min(maxFuzzDays, Math.max(1, (int) Math.round(interval * fuzzFactor)));
+        int dueDay = state.getDueDay();
+        int from = Math.max(reviewDay + 1, dueDay - fuzz);
+        int to = dueDay + fuzz;
+        // The index still has the card on its old day; take it off before comparing days
+        if (previousDueDay != SchedulingState.NEVER) {
+            load.move(previousDueDay, -1);
+        }
+        Optional<int[]> window = load.window(from, to);
+        if (window.isEmpty()) {
+            if (previousDueDay != SchedulingState.NEVER) {
+                load.move(previousDueDay, 1);
+            }
+            return;
+        }
+
+        int best = pick(window.get(), from, dueDay);
+        state.setDueDay(best);
+        state.setInterval(best - reviewDay);
+        // Later cards of the batch see this one on its new day
+        load.move(best, 1);
+    }
+
+    /**
+     * Pick the day with the fewest due cards; ties go to the day closest to the scheduled one, earlier first
+     */
+    static int pick(int[] counts, int from, int dueDay) {
+        int best = dueDay;
+        int bestCount = counts[dueDay - from];
+        for (int i = 0; i < counts.length; i++) {
+            int day = from + i;
+            int count = counts[i];
+            if (count < bestCount || count == bestCount && Math.abs(day - dueDay) < Math.abs(best - dueDay)) {
+                best = day;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A user's due cards per day from the Redis due index, read one window at a time and corrected in
+     * memory for the cards moved by {@link #balance}. Not thread-safe; used by one review or batch.
+     */
+    public final class DayLoad {
+
+        private final UUID userId;
+        // Due counts of the days read so far, as the index has them
+        private final Map<Integer, Integer> counts = new HashMap<>();
+        // Cards this batch moved on or off a day, which the index does not see until the batch commits
+        private final Map<Integer, Integer> moves = new HashMap<>();
+        private boolean unavailable;
+
+        private DayLoad(UUID userId) {
+            this.userId = userId;
+        }
+
+        /**
+         * @return the counts of the days from {@code from} to {@code to}, or empty if the index is unavailable
+         */
+        private Optional<int[]> window(int from, int to) {
+            if (unavailable) {
+                return Optional.empty();
+            }
+            int first = from;
+            while (first <= to && counts.containsKey(first)) {
+                first++;
+            }
+            int last = to;
+            while (last >= first && counts.containsKey(last)) {
+                last--;
+            }
+            if (first <= last) {
+                Optional<Map<Integer, Integer>> read = dueIndexService.countDueByDay(userId, first, last);
+                if (read.isEmpty()) {
+                    unavailable = true;
+                    return Optional.empty();
+                }
+                counts.putAll(read.get());
+            }
+            int[] window = new int[to - from + 1];
+            for (int i = 0; i < window.length; i++) {
+                int day = from + i;
+                window[i] = Math.max(0, counts.getOrDefault(day, 0) + moves.getOrDefault(day, 0));
+            }
+            return Optional.of(window);
+        }
+
+        private void move(int day, int delta) {
+            moves.merge(day, delta, Integer::sum);
+        }
+    }
+}
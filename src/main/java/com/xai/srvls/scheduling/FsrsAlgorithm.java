@@ -0,0 +1,137 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * FSRS (Free Spaced Repetition Scheduler, v4.5 formulas) scheduler.
+ * <p>
+ * Each card carries a memory stability S (days until recall probability drops to 90%) and a difficulty D (1-10).
+ * Qualities map to FSRS grades as 0-2 Again, 3 Hard, 4 Good, 5 Easy. The interval is chosen so that
+ * the predicted recall probability at the due day equals the desired retention.
+ * <p>
+ * The 17 weights come from {@link SchedulingState#getParameters()} when a user has fitted parameters,
+ * otherwise from {@link #DEFAULT_WEIGHTS}.
+ */
+@Component
+public class FsrsAlgorithm implements SpacedRepetitionAlgorithm {
+
+    public static final int WEIGHT_COUNT = 17;
+
+    /**
+     * Published FSRS-4.5 default weights
+     */
+    public static final double[] DEFAULT_WEIGHTS = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755
+    };
+
+    static final double[] MIN_WEIGHTS = {
+            0.1, 0.1, 0.1, 0.1, 1.0, 0.1, 0.1, 0.0, 0.0, 0.0, 0.01, 0.1, 0.01, 0.01, 0.01, 0.0, 1.0
+    };
+
+    static final double[] MAX_WEIGHTS = {
+            100.0, 100.0, 100.0, 100.0, 10.0, 5.0, 5.0, 0.75, 4.5, 0.8, 3.5, 5.0, 0.25, 0.9, 4.0, 1.0, 6.0
+    };
+
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81.0; // R(S, S) = 0.9
+
+    private static final int AGAIN = 1;
+    private static final int HARD = 2;
+    private static final int EASY = 4;
+
+    private final double intervalFactor;
+    private final int maximumInterval;
+
+    public FsrsAlgorithm(@Value("${srvls.fsrs.desired-retention:0.9}") double desiredRetention,
+                         @Value("${srvls.fsrs.maximum-interval:36500}") int maximumInterval) {
+        this.intervalFactor = (Math.pow(desiredRetention, 1 / DECAY) - 1) / FACTOR;
+        this.maximumInterval = maximumInterval;
+    }
+
+    @Override
+    public SchedulerType getType() {
+        return SchedulerType.FSRS;
+    }
+
+    @Override
+    public void schedule(SchedulingState state, int quality, int reviewDay) {
+        double[] w = state.getParameters() != null ? state.getParameters() : DEFAULT_WEIGHTS;
+        int grade = grade(quality);
+        update(w, state, grade, reviewDay);
+
+        int interval = (int) Math.round(state.getStability() * intervalFactor);
+        interval = Math.max(1, Math.min(interval, maximumInterval));
+        state.setRepetitions(grade == AGAIN ? 0 : state.getRepetitions() + 1);
+        state.setInterval(interval);
+        state.setDueDay(reviewDay + interval);
+    }
+
+    /**
+     * Map a 0-5 quality to an FSRS grade
+     * @param quality the quality
+     * @return 1 (Again), 2 (Hard), 3 (Good) or 4 (Easy)
+     */
+    public static int grade(int quality) {
+        if (quality <= 2) {
+            return AGAIN;
+        }
+        return quality - 1;
+    }
+
+    /**
+     * Predicted probability of recall after some days at a stability
+     * @param elapsedDays days since the last review
+     * @param stability the memory stability
+     * @return the recall probability
+     */
+    public static double retrievability(int elapsedDays, double stability) {
+        return Math.pow(1 + FACTOR * elapsedDays / stability, DECAY);
+    }
+
+    /**
+     * Apply one graded review to a card's stability and difficulty.
+     * Cards without FSRS memory state (never reviewed, or scheduled by another algorithm so far)
+     * start from the initial stability and difficulty of the grade.
+     * @param w the weights
+     * @param state the card's state, updated in place
+     * @param grade the FSRS grade, 1-4
+     * @param reviewDay the epoch day of the review
+     */
+    static void update(double[] w, SchedulingState state, int grade, int reviewDay) {
+        double stability = state.getStability();
+        double difficulty = state.getDifficulty();
+        if (state.getLastReviewDay() == SchedulingState.NEVER || stability <= 0) {
+            stability = w[grade - 1];
+            difficulty = clampDifficulty(initialDifficulty(w, grade));
+        } else {
+            int elapsed = Math.max(0, reviewDay - state.getLastReviewDay());
+            double r = retrievability(elapsed, stability);
+            double nextDifficulty = difficulty - w[6] * (grade - 3);
+            nextDifficulty = clampDifficulty(w[7] * initialDifficulty(w, 3) + (1 - w[7]) * nextDifficulty);
+            if (grade == AGAIN) {
+                stability = w[11] * Math.pow(difficulty, -w[12]) * (Math.pow(stability + 1, w[13]) - 1)
+                        * Math.exp(w[14] * (1 - r));
+            } else {
+                double hardPenalty = grade == HARD ? w[15] : 1;
+                double easyBonus = grade == EASY ? w[16] : 1;
+                stability = stability * (1 + Math.exp(w[8]) * (11 - difficulty) * Math.pow(stability, -w[9])
+                        * (Math.exp(w[10] * (1 - r)) - 1) * hardPenalty * easyBonus);
+            }
+            difficulty = nextDifficulty;
+        }
+        state.setStability(Math.max(0.01, stability));
+        state.setDifficulty(difficulty);
+        state.setLastReviewDay(reviewDay);
+    }
+
+    private static double initialDifficulty(double[] w, int grade) {
+        return w[4] - (grade - 3) * w[5];
+    }
+
+    private static double clampDifficulty(double difficulty) {
+        return Math.max(1, Math.min(10, difficulty));
+    }
+}
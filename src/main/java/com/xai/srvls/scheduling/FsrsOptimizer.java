@@ -0,0 +1,247 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerParameters;
+import com.xai.srvls.repository.SchedulerParametersRepository;
+import com.xai.srvls.service.SchedulerParametersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nightly job fitting each user's FSRS weights to their review history.
+ * <p>
+ * Only users with FSRS-scheduled cards and reviews newer than their last fit are processed. Users are fitted in parallel on a
+ * dedicated fork-join pool. A user's history is streamed through a server-side cursor into primitive
+ * arrays (8 bytes per review), never loaded as entities. The fit minimizes the log loss of predicted
+ * recall with a bounded pattern search, replaying the history through the allocation-free
+ * {@link FsrsAlgorithm} kernel.
+ */
+@Component
+public class FsrsOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FsrsOptimizer.class);
+
+    private static final String HISTORY_SQL =
+            "SELECT flashcard_id, quality, review_date FROM reviews " +
+            "WHERE user_id = ? " +
+            "ORDER BY flashcard_id, review_date";
+
+    private final SchedulerParametersRepository schedulerParametersRepository;
+    private final SchedulerParametersService schedulerParametersService;
+    private final SchedulerRegistry schedulerRegistry;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${srvls.fsrs.optimizer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srvls.fsrs.optimizer.parallelism:4}")
+    private int parallelism;
+
+    @Value("${srvls.fsrs.optimizer.min-reviews:100}")
+    private int minReviews;
+
+    @Value("${srvls.fsrs.optimizer.iterations:8}")
+    private int iterations;
+
+    @Autowired
+    public FsrsOptimizer(SchedulerParametersRepository schedulerParametersRepository,
+                         SchedulerParametersService schedulerParametersService,
+                         SchedulerRegistry schedulerRegistry, DataSource dataSource, PlatformTransactionManager transactionManager,
+                         @Value("${srvls.fsrs.optimizer.fetch-size:5000}") int fetchSize) {
+        this.schedulerParametersRepository = schedulerParametersRepository;
+        this.schedulerParametersService = schedulerParametersService;
+        this.schedulerRegistry = schedulerRegistry;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        // The PostgreSQL driver only uses a cursor (and honours the fetch size) inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Refit every user with FSRS-scheduled cards and new reviews since their last fit
+     */
+    @Scheduled(cron = "${srvls.fsrs.optimizer.cron:0 0 3 * * *}")
+    public void optimizeAll() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<UUID> userIds = schedulerParametersRepository.findUserIdsWithNewReviews(
+                    schedulerRegistry.getDefaultType().name());
+            long start = System.currentTimeMillis();
+            AtomicInteger fitted = new AtomicInteger();
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> userIds.parallelStream().forEach(userId -> {
+                    try {
+                        if (optimize(userId)) {
+                            fitted.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        logger.warn("FSRS fit failed for user {}", userId, e);
+                    }
+                })).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.error("FSRS optimizer run failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            logger.info("FSRS optimizer: {} users with new reviews, {} fitted in {} ms",
+                    userIds.size(), fitted.get(), System.currentTimeMillis() - start);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Fit one user's weights and store them
+     * @param userId the user ID
+     * @return true if new weights were fitted; false if the history is too short and defaults were kept
+     */
+    public boolean optimize(UUID userId) {
+        ReviewHistory history = new ReviewHistory();
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(HISTORY_SQL, rs -> {
+            history.add(rs.getObject(1, UUID.class), rs.getInt(2), rs.getTimestamp(3));
+        }, userId));
+
+        SchedulerParameters parameters = schedulerParametersRepository.findById(userId)
+                .orElseGet(() -> new SchedulerParameters(userId));
+        parameters.setReviewCount(history.size);
+        parameters.setLastReviewDate(history.lastReviewDate);
+        parameters.setFittedAt(LocalDateTime.now());
+
+        boolean fit = history.size >= minReviews;
+        if (fit) {
+            double[] start = parameters.getWeights() != null && parameters.getWeights().length == FsrsAlgorithm.WEIGHT_COUNT
+                    ? parameters.getWeights()
+                    : FsrsAlgorithm.DEFAULT_WEIGHTS;
+            double[] weights = Arrays.copyOf(start, start.length);
+            parameters.setLogLoss(fit(weights, history));
+            parameters.setWeights(weights);
+        } else if (parameters.getWeights() == null) {
+            parameters.setWeights(Arrays.copyOf(FsrsAlgorithm.DEFAULT_WEIGHTS, FsrsAlgorithm.WEIGHT_COUNT));
+        }
+        schedulerParametersService.save(parameters);
+        return fit;
+    }
+
+    /**
+     * Minimize the log loss by pattern search: try a step up and down on each weight in turn,
+     * keep improvements, halve the step otherwise
+     * @return the final log loss
+     */
+    private double fit(double[] weights, ReviewHistory history) {
+        SchedulingState state = new SchedulingState();
+        double[] steps = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            steps[i] = (FsrsAlgorithm.MAX_WEIGHTS[i] - FsrsAlgorithm.MIN_WEIGHTS[i]) / 20;
+        }
+
+        double best = logLoss(weights, history, state);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int i = 0; i < weights.length; i++) {
+                double original = weights[i];
+                boolean improved = false;
+                for (int direction = -1; direction <= 1 && !improved; direction += 2) {
+                    weights[i] = clamp(original + direction * steps[i], i);
+                    double loss = logLoss(weights, history, state);
+                    if (loss < best) {
+                        best = loss;
+                        improved = true;
+                    }
+                }
+                if (!improved) {
+                    weights[i] = original;
+                    steps[i] /= 2;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Mean log loss of the predicted recall probability over every review made at least a day after the previous one
+     */
+    private static double logLoss(double[] weights, ReviewHistory history, SchedulingState state) {
+        double loss = 0;
+        long predictions = 0;
+        for (int card = 0; card < history.cards; card++) {
+            int from = history.cardStarts[card];
+            int to = card + 1 < history.cards ? history.cardStarts[card + 1] : history.size;
+            state.set(0, 0, 0, 0, SchedulingState.NEVER, 0);
+            for (int i = from; i < to; i++) {
+                int grade = history.grades[i];
+                int elapsed = state.getLastReviewDay() == SchedulingState.NEVER
+                        ? 0 : history.days[i] - state.getLastReviewDay();
+                if (elapsed > 0) {
+                    double r = Math.min(Math.max(FsrsAlgorithm.retrievability(elapsed, state.getStability()), 1e-6), 1 - 1e-6);
+                    loss -= grade > 1 ? Math.log(r) : Math.log(1 - r);
+                    predictions++;
+                }
+                FsrsAlgorithm.update(weights, state, grade, history.days[i]);
+            }
+        }
+        return predictions == 0 ? 0 : loss / predictions;
+    }
+
+    private static double clamp(double weight, int index) {
+        return Math.max(FsrsAlgorithm.MIN_WEIGHTS[index], Math.min(FsrsAlgorithm.MAX_WEIGHTS[index], weight));
+    }
+
+    /**
+     * One user's review history in primitive arrays, grouped by card in review order
+     */
+    private static final class ReviewHistory {
+        private int[] days = new int[1024];
+        private byte[] grades = new byte[1024];
+        private int[] cardStarts = new int[256];
+        private int size;
+        private int cards;
+        private UUID lastCard;
+        private LocalDateTime lastReviewDate;
+
+        private void add(UUID flashcardId, int quality, Timestamp reviewDate) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                grades = Arrays.copyOf(grades, size * 2);
+            }
+            if (!flashcardId.equals(lastCard)) {
+                if (cards == cardStarts.length) {
+                    cardStarts = Arrays.copyOf(cardStarts, cards * 2);
+                }
+                cardStarts[cards++] = size;
+                lastCard = flashcardId;
+            }
+            LocalDateTime dateTime = reviewDate.toLocalDateTime();
+            days[size] = (int) dateTime.toLocalDate().toEpochDay();
+            grades[size] = (byte) FsrsAlgorithm.grade(quality);
+            size++;
+            if (lastReviewDate == null || dateTime.isAfter(lastReviewDate)) {
+                lastReviewDate = dateTime;
+            }
+        }
+    }
+}
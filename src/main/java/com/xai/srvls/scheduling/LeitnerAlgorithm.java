@@ -0,0 +1,56 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.SchedulerType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Level-based scheduler from the Review Card URD.
+ * A correct answer (quality 3-5) moves the card one level up, up to 7; a wrong answer resets it to level 1.
+ * The card is due a fixed number of days after its last review, depending only on its level,
+ * so the level and the last review date are all the state it needs.
+ */
+@Component
+public class LeitnerAlgorithm implements SpacedRepetitionAlgorithm {
+
+    private static final int[] LEVEL_DAYS = {1, 3, 7, 14, 30, 180, 365};
+
+    /**
+     * The level table as a SQL row source {@code (level, days)}, for due queries that run one
+     * index range scan per level. Must match {@link #LEVEL_DAYS}.
+     */
+    public static final String LEVEL_DAYS_SQL =
+            "(VALUES (1, 1), (2, 3), (3, 7), (4, 14), (5, 30), (6, 180), (7, 365))";
+
+    @Override
+    public SchedulerType getType() {
+        return SchedulerType.LEITNER;
+    }
+
+    @Override
+    public void schedule(SchedulingState state, int quality, int reviewDay) {
+        int level;
+        if (quality >= 3) {
+            level = Math.min(state.getLevel() + 1, CardProgress.MAX_LEVEL);
+            state.setRepetitions(state.getRepetitions() + 1);
+        } else {
+            level = CardProgress.MIN_LEVEL;
+            state.setRepetitions(0);
+        }
+        int interval = intervalDays(level);
+
+        state.setLevel(level);
+        state.setInterval(interval);
+        state.setLastReviewDay(reviewDay);
+        state.setDueDay(reviewDay + interval);
+    }
+
+    /**
+     * Get the number of days between reviews at a level
+     * @param level the level, 1-7
+     * @return the interval in days
+     */
+    public static int intervalDays(int level) {
+        return LEVEL_DAYS[Math.max(CardProgress.MIN_LEVEL, Math.min(level, CardProgress.MAX_LEVEL)) - 1];
+    }
+}
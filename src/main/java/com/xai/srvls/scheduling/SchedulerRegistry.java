@@ -0,0 +1,60 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the scheduler to use for a review.
+ * A deck's scheduler wins over the user's preference, which wins over the configured default.
+ */
+@Component
+public class SchedulerRegistry {
+
+    private final Map<SchedulerType, SpacedRepetitionAlgorithm> algorithms = new EnumMap<>(SchedulerType.class);
+    private final SchedulerType defaultType;
+
+    @Autowired
+    public SchedulerRegistry(List<SpacedRepetitionAlgorithm> algorithms,
+                             @Value("${srvls.spaced-repetition.default-scheduler:SM2}") SchedulerType defaultType) {
+        for (SpacedRepetitionAlgorithm algorithm : algorithms) {
+            this.algorithms.put(algorithm.getType(), algorithm);
+        }
+        if (!this.algorithms.containsKey(defaultType)) {
+            throw new IllegalStateException("No scheduler registered for default type " + defaultType);
+        }
+        this.defaultType = defaultType;
+    }
+
+    /**
+     * Get the scheduler for a type
+     * @param type the scheduler type, or null for the default
+     * @return the scheduler
+     */
+    public SpacedRepetitionAlgorithm get(SchedulerType type) {
+        SpacedRepetitionAlgorithm algorithm = type != null ? algorithms.get(type) : null;
+        return algorithm != null ? algorithm : algorithms.get(defaultType);
+    }
+
+    /**
+     * @return the scheduler type used when neither the deck nor the user chooses one
+     */
+    public SchedulerType getDefaultType() {
+        return defaultType;
+    }
+
+    /**
+     * Resolve the scheduler for a card
+     * @param deckType the scheduler chosen for the card's deck, or null
+     * @param userType the scheduler preferred by the user, or null
+     * @return the scheduler
+     */
+    public SpacedRepetitionAlgorithm resolve(SchedulerType deckType, SchedulerType userType) {
+        return get(deckType != null ? deckType : userType);
+    }
+}
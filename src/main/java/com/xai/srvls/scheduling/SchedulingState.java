@@ -0,0 +1,119 @@
+package com.xai.srvls.scheduling;
+
+/**
+ * Mutable scheduling state of one card, in primitives only.
+ * Dates are epoch days; {@link #NEVER} marks a card that was never reviewed.
+ * A single instance can be reused for any number of cards.
+ */
+public final class SchedulingState {
+
+    public static final int NEVER = Integer.MIN_VALUE;
+
+    private double easinessFactor;
+    private int interval;
+    private int repetitions;
+    private int level;
+    private double stability;
+    private double difficulty;
+    private int lastReviewDay = NEVER;
+    private int dueDay;
+    private double[] parameters; // Per-user algorithm parameters, null for the defaults
+
+    /**
+     * Reset every card field, so a reused instance carries nothing over from the previous card.
+     * Memory state (stability, difficulty) is reset to zero; parameters are kept.
+     * @param easinessFactor the easiness factor
+     * @param interval the current interval in days
+     * @param repetitions the number of consecutive successful reviews
+     * @param level the level, 1-7
+     * @param lastReviewDay the epoch day of the last review, or {@link #NEVER}
+     * @param dueDay the epoch day the card is due
+     * @return this state
+     */
+    public SchedulingState set(double easinessFactor, int interval, int repetitions, int level,
+                               int lastReviewDay, int dueDay) {
+        this.easinessFactor = easinessFactor;
+        this.interval = interval;
+        this.repetitions = repetitions;
+        this.level = level;
+        this.stability = 0;
+        this.difficulty = 0;
+        this.lastReviewDay = lastReviewDay;
+        this.dueDay = dueDay;
+        return this;
+    }
+
+    // Getters and Setters
+
+    public double getEasinessFactor() {
+        return easinessFactor;
+    }
+
+    public void setEasinessFactor(double easinessFactor) {
+        this.easinessFactor = easinessFactor;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public double getStability() {
+        return stability;
+    }
+
+    public void setStability(double stability) {
+        this.stability = stability;
+    }
+
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(double difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public int getLastReviewDay() {
+        return lastReviewDay;
+    }
+
+    public void setLastReviewDay(int lastReviewDay) {
+        this.lastReviewDay = lastReviewDay;
+    }
+
+    public int getDueDay() {
+        return dueDay;
+    }
+
+    public void setDueDay(int dueDay) {
+        this.dueDay = dueDay;
+    }
+
+    public double[] getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(double[] parameters) {
+        this.parameters = parameters;
+    }
+}
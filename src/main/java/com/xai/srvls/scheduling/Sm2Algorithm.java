@@ -0,0 +1,55 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * SuperMemo SM-2 scheduler, bounded by the configured easiness factor range
+ */
+@Component
+public class Sm2Algorithm implements SpacedRepetitionAlgorithm {
+
+    private final double minEasinessFactor;
+    private final double maxEasinessFactor;
+
+    public Sm2Algorithm(@Value("${srvls.spaced-repetition.min-easiness-factor:1.3}") double minEasinessFactor,
+                        @Value("${srvls.spaced-repetition.max-easiness-factor:5.0}") double maxEasinessFactor) {
+        this.minEasinessFactor = minEasinessFactor;
+        this.maxEasinessFactor = maxEasinessFactor;
+    }
+
+    @Override
+    public SchedulerType getType() {
+        return SchedulerType.SM2;
+    }
+
+    @Override
+    public void schedule(SchedulingState state, int quality, int reviewDay) {
+        int repetitions = state.getRepetitions();
+        int interval;
+        if (quality < 3) {
+            // If response quality is less than 3, reset repetitions
+            repetitions = 0;
+            interval = 1;
+        } else {
+            repetitions++;
+            if (repetitions == 1) {
+                interval = 1;
+            } else if (repetitions == 2) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(state.getInterval() * state.getEasinessFactor());
+            }
+        }
+
+        int miss = 5 - quality;
+        double easinessFactor = state.getEasinessFactor() + (0.1 - miss * (0.08 + miss * 0.02));
+
+        state.setRepetitions(repetitions);
+        state.setInterval(interval);
+        state.setEasinessFactor(Math.min(maxEasinessFactor, Math.max(minEasinessFactor, easinessFactor)));
+        state.setLastReviewDay(reviewDay);
+        state.setDueDay(reviewDay + interval);
+    }
+}
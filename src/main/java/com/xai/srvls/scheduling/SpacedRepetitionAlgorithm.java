@@ -0,0 +1,25 @@
+package com.xai.srvls.scheduling;
+
+import com.xai.srvls.model.SchedulerType;
+
+/**
+ * A spaced repetition scheduler.
+ * Implementations work on primitive state in place and must not allocate per call,
+ * so that replaying long review histories (offline sync, parameter fitting) stays cheap.
+ */
+public interface SpacedRepetitionAlgorithm {
+
+    /**
+     * @return the scheduler type this algorithm implements
+     */
+    SchedulerType getType();
+
+    /**
+     * Apply one review to a card's state and set its next due day.
+     * On return, the state's last review day is {@code reviewDay}.
+     * @param state the card's state, updated in place
+     * @param quality the response quality, 0-5
+     * @param reviewDay the epoch day of the review
+     */
+    void schedule(SchedulingState state, int quality, int reviewDay);
+}
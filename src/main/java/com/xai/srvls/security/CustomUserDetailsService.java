@@ -1,5 +1,6 @@
 package com.xai.srvls.security;
 
+import com.xai.srvls.cache.UserCache;
 import com.xai.srvls.exception.ResourceNotFoundException;
 import com.xai.srvls.model.User;
 import com.xai.srvls.repository.UserRepository;
@@ -18,10 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
@@ -37,15 +40,14 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     /**
-     * Load user by ID
+     * Load user by ID from the user cache, for requests authenticated by token.
+     * Password login goes through {@link #loadUserByUsername}, which reads the password hash from the database.
      * @param id The user ID
-     * @return UserDetails
+     * @return UserDetails without a password
      */
-    @Transactional
     public UserDetails loadUserById(UUID id) {
-        User user = userRepository.findById(id)
+        return userCache.findById(id)
+                .map(UserPrincipal::create)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-
-        return UserPrincipal.create(user);
     }
 }
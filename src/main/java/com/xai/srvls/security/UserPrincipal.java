@@ -1,5 +1,6 @@
 package com.xai.srvls.security;
 
+import com.xai.srvls.cache.UserSnapshot;
 import com.xai.srvls.model.User;
 import java.util.Collection;
 import java.util.List;
@@ -54,6 +55,26 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Create a principal from a cached user, for requests authenticated by token.
+     * The snapshot has no password hash, so the principal cannot be used to check a password.
+     * @param user the cached user
+     * @return the principal
+     */
+    public static UserPrincipal create(UserSnapshot user) {
+        List<GrantedAuthority> authorities = user.roles().stream()
+                .map(role -> new SimpleGrantedAuthority(role.name()))
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(
+                user.id(),
+                user.username(),
+                user.email(),
+                null,
+                authorities
+        );
+    }
+
     public UUID getId() {
         return id;
     }
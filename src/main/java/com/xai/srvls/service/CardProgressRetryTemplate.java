@@ -0,0 +1,104 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.exception.ConcurrentReviewException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs review writes in a transaction and retries them when they lose a race on a card_progress row.
+ * <p>
+ * card_progress rows are versioned, so two concurrent reviews of the same card cannot both commit
+ * a state computed from the same previous state: the loser fails its version check (or, for a card's
+ * first review, the primary key) and is re-run against the winner's state. Reviews of different cards
+ * never contend, so there is no lock beyond the row itself. Any other integrity violation is a real
+ * error and is rethrown unchanged.
+ */
+@Component
+public class CardProgressRetryTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardProgressRetryTemplate.class);
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String PROGRESS_PRIMARY_KEY = "card_progress_pkey";
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter conflicts;
+
+    @Value("${srvls.reviews.max-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    public CardProgressRetryTemplate(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conflicts = Counter.builder("srvls.reviews.conflicts")
+                .description("Review write attempts rolled back by a concurrent review of the same card")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run an action in a new transaction, retrying it on version conflicts and on duplicate card_progress keys.
+     * The action must be safe to re-run: it is called again from scratch after a rollback.
+     * @param action the transactional action
+     * @param <T> the result type
+     * @return the result of the first attempt that commits
+     * @throws ConcurrentReviewException if every attempt conflicted
+     */
+    public <T> T execute(TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (e instanceof DataIntegrityViolationException && !isProgressKeyConflict(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    logger.warn("Giving up after {} conflicting attempts", attempt, e);
+                    throw new ConcurrentReviewException(attempt);
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * @return true if the violation is a duplicate primary key of card_progress, i.e. a lost race on a first review
+     */
+    static boolean isProgressKeyConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return UNIQUE_VIOLATION.equals(violation.getSQLState())
+                        && PROGRESS_PRIMARY_KEY.equalsIgnoreCase(violation.getConstraintName());
+            }
+            // JDBC writes are translated without a Hibernate exception in between
+            if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return sql.getMessage() != null && sql.getMessage().contains(PROGRESS_PRIMARY_KEY);
+            }
+        }
+        return false;
+    }
+
+    private static void backOff(int attempt) {
+        // Randomized so that the racing writers do not collide again on the same schedule
+        long maxDelay = 1L << Math.min(attempt, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
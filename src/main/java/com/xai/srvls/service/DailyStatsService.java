@@ -0,0 +1,442 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewHeatmapDTO;
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.repository.ReviewRepository;
+import com.xai.srvls.repository.UserDailyStatsRepository;
+import com.xai.srvls.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains and reads the user_daily_stats rollup.
+ * <p>
+ * Review writers collect their new reviews in a {@link Batch} and {@link #apply} it in the transaction
+ * that inserts them, so rollups and reviews commit together. Statistics for a range then sum at most
+ * one row per day and deck. Each row also holds a small HyperLogLog sketch of the flashcards reviewed,
+ * so distinct cards over a range are estimated by merging the sketches instead of scanning reviews.
+ * A batch is aggregated per (user, deck, day) and upserted in key order, so concurrent batches lock
+ * the rows they share in the same order. Rollups for history recorded before the table existed are built by
+ * {@link #backfill}, one user per transaction. Once the transaction commits, the batch also feeds
+ * the cluster-wide activity sketches of {@link ReviewSketchService}.
+ * <p>
+ * Rollups are always written, but only read once {@code srvls.statistics.rollup-enabled} is set, which
+ * is meant to happen after the first backfill; until then, and while a backfill runs on this node,
+ * statistics and heatmaps are computed from the reviews table. A backfill and live writers of the same
+ * user are serialized by a transaction-scoped advisory lock on the user: writers share it, the backfill
+ * of the user takes it exclusively, so its DELETE and re-INSERT neither lose nor double count a review
+ * committed meanwhile.
+ */
+@Service
+public class DailyStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyStatsService.class);
+
+    private static final int REVIEWS = 0;
+    private static final int QUALITY = 1; // Six counters, quality 0-5
+    private static final int RESPONSE_TIME_SUM = 7;
+    private static final int RESPONSE_TIME_COUNT = 8;
+    private static final int MASTERY = 9;
+    private static final int COUNTERS = 10;
+
+    // 256 registers: linear counting stays within a few percent up to several hundred cards per row
+    private static final int SKETCH_PRECISION = 8;
+
+    private static final Comparator<RollupKey> ROLLUP_ORDER = Comparator.comparing(RollupKey::userId)
+            .thenComparing(RollupKey::deckId)
+            .thenComparing(RollupKey::day);
+
+    private static final String DECKS_SQL = "SELECT f.id, f.deck_id FROM flashcards f WHERE f.id = ANY(?)";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_daily_stats (user_id, deck_id, day, review_count, " +
+            "quality_0, quality_1, quality_2, quality_3, quality_4, quality_5, " +
+            "response_time_sum, response_time_count, mastery_count, flashcard_sketch) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, deck_id, day) DO UPDATE SET " +
+            "review_count = user_daily_stats.review_count + EXCLUDED.review_count, " +
+            "quality_0 = user_daily_stats.quality_0 + EXCLUDED.quality_0, " +
+            "quality_1 = user_daily_stats.quality_1 + EXCLUDED.quality_1, " +
+            "quality_2 = user_daily_stats.quality_2 + EXCLUDED.quality_2, " +
+            "quality_3 = user_daily_stats.quality_3 + EXCLUDED.quality_3, " +
+            "quality_4 = user_daily_stats.quality_4 + EXCLUDED.quality_4, " +
+            "quality_5 = user_daily_stats.quality_5 + EXCLUDED.quality_5, " +
+            "response_time_sum = user_daily_stats.response_time_sum + EXCLUDED.response_time_sum, " +
+            "response_time_count = user_daily_stats.response_time_count + EXCLUDED.response_time_count, " +
+            "mastery_count = user_daily_stats.mastery_count + EXCLUDED.mastery_count, " +
+            // Register-wise maximum; a row without a sketch keeps none until the next backfill
+            "flashcard_sketch = (SELECT decode(string_agg(lpad(to_hex(greatest(" +
+            "get_byte(user_daily_stats.flashcard_sketch, i), get_byte(EXCLUDED.flashcard_sketch, i))), 2, '0'), " +
+            "'' ORDER BY i), 'hex') FROM generate_series(0, " + ((1 << SKETCH_PRECISION) - 1) + ") AS i " +
+            "WHERE user_daily_stats.flashcard_sketch IS NOT NULL)";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO user_daily_stats (user_id, deck_id, day, review_count, " +
+            "quality_0, quality_1, quality_2, quality_3, quality_4, quality_5, " +
+            "response_time_sum, response_time_count, mastery_count) " +
+            "SELECT r.user_id, f.deck_id, CAST(r.review_date AS date), count(*), " +
+            "count(*) FILTER (WHERE r.quality = 0), count(*) FILTER (WHERE r.quality = 1), " +
+            "count(*) FILTER (WHERE r.quality = 2), count(*) FILTER (WHERE r.quality = 3), " +
+            "count(*) FILTER (WHERE r.quality = 4), count(*) FILTER (WHERE r.quality = 5), " +
+            "COALESCE(sum(r.response_time_ms), 0), count(r.response_time_ms), " +
+            "count(*) FILTER (WHERE r.quality >= 4) " +
+            "FROM reviews r JOIN flashcards f ON f.id = r.flashcard_id " +
+            "WHERE r.user_id = ? " +
+            "GROUP BY r.user_id, f.deck_id, CAST(r.review_date AS date)";
+
+    private static final String BACKFILL_CARDS_SQL =
+            "SELECT DISTINCT f.deck_id, CAST(r.review_date AS date), r.flashcard_id " +
+            "FROM reviews r JOIN flashcards f ON f.id = r.flashcard_id WHERE r.user_id = ?";
+
+    private static final String BACKFILL_SKETCH_SQL =
+            "UPDATE user_daily_stats SET flashcard_sketch = ? WHERE user_id = ? AND deck_id = ? AND day = ?";
+
+    // Advisory lock keys of users' rollups; the prefix keeps them apart from other advisory locks
+    private static final String SHARE_USERS_SQL =
+            "SELECT pg_advisory_xact_lock_shared(hashtextextended('user_daily_stats:' || u, 0)) " +
+            "FROM unnest(CAST(? AS uuid[])) AS u";
+
+    private static final String LOCK_USER_SQL =
+            "SELECT pg_advisory_xact_lock(hashtextextended('user_daily_stats:' || CAST(? AS uuid), 0))";
+
+    private final UserDailyStatsRepository userDailyStatsRepository;
+    private final ReviewRepository reviewRepository;
+    private final ReviewSketchService reviewSketchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate backfillTransaction;
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    @Value("${srvls.statistics.rollup-enabled:false}")
+    private boolean rollupEnabled;
+
+    @Autowired
+    public DailyStatsService(UserDailyStatsRepository userDailyStatsRepository, ReviewRepository reviewRepository,
+                             ReviewSketchService reviewSketchService, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.userDailyStatsRepository = userDailyStatsRepository;
+        this.reviewRepository = reviewRepository;
+        this.reviewSketchService = reviewSketchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+        this.backfillTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Add a batch of newly inserted reviews to the rollups.
+     * Must run in the transaction that inserts the reviews.
+     * @param batch the reviews
+     */
+    public void apply(Batch batch) {
+        if (batch.counters.isEmpty()) {
+            return;
+        }
+        Set<UUID> userIds = new TreeSet<>();
+        Set<UUID> flashcardIds = new HashSet<>();
+        batch.counters.keySet().forEach(key -> {
+            userIds.add(key.userId);
+            flashcardIds.add(key.flashcardId);
+        });
+        jdbcTemplate.query(SHARE_USERS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())), rs -> { });
+
+        Map<UUID, UUID> deckIds = new HashMap<>();
+        jdbcTemplate.query(DECKS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", flashcardIds.toArray())),
+                rs -> { deckIds.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)); });
+
+        // Sorted, so batches sharing rows lock them in the same order instead of deadlocking
+        Map<RollupKey, Rollup> rollups = new TreeMap<>(ROLLUP_ORDER);
+        batch.counters.forEach((key, c) -> {
+            UUID deckId = deckIds.get(key.flashcardId);
+            if (deckId == null) {
+                return; // Deleted along with its reviews
+            }
+            Rollup rollup = rollups.computeIfAbsent(new RollupKey(key.userId, deckId, key.day), k -> new Rollup());
+            for (int i = 0; i < COUNTERS; i++) {
+                rollup.counters[i] += c[i];
+            }
+            rollup.flashcards.add(key.flashcardId);
+        });
+        List<Object[]> args = new ArrayList<>(rollups.size());
+        rollups.forEach((key, rollup) -> {
+            long[] c = rollup.counters;
+            args.add(new Object[]{key.userId(), key.deckId(), key.day(), c[REVIEWS],
+                    c[QUALITY], c[QUALITY + 1], c[QUALITY + 2], c[QUALITY + 3], c[QUALITY + 4], c[QUALITY + 5],
+                    c[RESPONSE_TIME_SUM], c[RESPONSE_TIME_COUNT], c[MASTERY], rollup.flashcards.toBytes()});
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+
+        List<Sample> samples = batch.samples;
+        Runnable sketch = () -> samples.forEach(sample -> reviewSketchService.record(
+                sample.userId(), sample.flashcardId(), sample.reviewDate(), sample.responseTimeMs()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sketch.run();
+                }
+            });
+        } else {
+            sketch.run();
+        }
+    }
+
+    /**
+     * Drop the rollups of a deleted deck along with its reviews
+     */
+    @EventListener
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        jdbcTemplate.update("DELETE FROM user_daily_stats WHERE deck_id = ?", event.getDeckId());
+    }
+
+    /**
+     * @return true if statistics may be read from the rollups: enabled, and no backfill running on this node
+     */
+    public boolean isReadable() {
+        return rollupEnabled && !backfilling.get();
+    }
+
+    /**
+     * Compute a user's review statistics from the rollups.
+     * Distinct flashcards are estimated from the merged sketches of the rows, within a few percent; they
+     * are counted from the reviews index only if a row of the range has no sketch, before its backfill.
+     * @param userId the user ID
+     * @param startDate the start date
+     * @param endDate the end date, inclusive
+     * @param deckId the deck ID, or null for all decks
+     * @return the statistics
+     */
+    public ReviewStatisticsDTO getStatistics(UUID userId, LocalDate startDate, LocalDate endDate, UUID deckId) {
+        List<Object[]> rows = deckId == null
+                ? userDailyStatsRepository.sumByDay(userId, startDate, endDate)
+                : userDailyStatsRepository.sumByDayInDeck(userId, deckId, startDate, endDate);
+
+        long reviews = 0;
+        long qualitySum = 0;
+        long responseTimeSum = 0;
+        long responseTimeCount = 0;
+        long mastery = 0;
+        Map<LocalDate, Integer> dailyCounts = new HashMap<>();
+        Map<Integer, Integer> qualityDist = new HashMap<>();
+        for (int quality = 0; quality <= 5; quality++) {
+            qualityDist.put(quality, 0);
+        }
+        for (Object[] row : rows) {
+            int dayReviews = ((Number) row[1]).intValue();
+            dailyCounts.put(toLocalDate(row[0]), dayReviews);
+            reviews += dayReviews;
+            for (int quality = 0; quality <= 5; quality++) {
+                int count = ((Number) row[2 + quality]).intValue();
+                qualityDist.merge(quality, count, Integer::sum);
+                qualitySum += (long) quality * count;
+            }
+            responseTimeSum += ((Number) row[8]).longValue();
+            responseTimeCount += ((Number) row[9]).longValue();
+            mastery += ((Number) row[10]).longValue();
+        }
+
+        long uniqueFlashcards = reviews == 0 ? 0 : countDistinctFlashcards(userId, startDate, endDate, deckId);
+
+        ReviewStatisticsDTO statistics = new ReviewStatisticsDTO();
+        statistics.setTotalReviews((int) reviews);
+        statistics.setUniqueFlashcardsReviewed((int) uniqueFlashcards);
+        statistics.setAverageQuality(reviews == 0 ? 0.0 : (double) qualitySum / reviews);
+        statistics.setDailyReviewCounts(dailyCounts);
+        statistics.setQualityDistribution(qualityDist);
+        statistics.setAverageResponseTimeMs(responseTimeCount == 0 ? 0L : responseTimeSum / responseTimeCount);
+        statistics.setMasteryPercentage(reviews == 0 ? 0.0 : (double) mastery / reviews * 100);
+        return statistics;
+    }
+
+    /**
+     * Distinct cards are not additive across days, but their sketches merge
+     */
+    private long countDistinctFlashcards(UUID userId, LocalDate startDate, LocalDate endDate, UUID deckId) {
+        List<byte[]> sketches = deckId == null
+                ? userDailyStatsRepository.findFlashcardSketches(userId, startDate, endDate)
+                : userDailyStatsRepository.findFlashcardSketchesInDeck(userId, deckId, startDate, endDate);
+        HyperLogLog merged = new HyperLogLog(SKETCH_PRECISION);
+        for (byte[] sketch : sketches) {
+            if (sketch == null) {
+                LocalDateTime start = startDate.atStartOfDay();
+                LocalDateTime end = endDate.atTime(LocalTime.MAX);
+                return deckId == null
+                        ? reviewRepository.countDistinctFlashcards(userId, start, end)
+                        : reviewRepository.countDistinctFlashcardsInDeck(userId, deckId, start, end);
+            }
+            merged.merge(HyperLogLog.fromBytes(sketch));
+        }
+        return merged.estimate();
+    }
+
+    /**
+     * Get a user's reviews per day over all decks, from the rollups once they are readable
+     * and from the reviews table until then
+     * @param userId the user ID
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return one count per day of the range
+     */
+    public ReviewHeatmapDTO getHeatmap(UUID userId, LocalDate startDate, LocalDate endDate) {
+        int[] counts = new int[(int) ChronoUnit.DAYS.between(startDate, endDate) + 1];
+        List<Object[]> rows = isReadable()
+                ? userDailyStatsRepository.countByDay(userId, startDate, endDate)
+                : reviewRepository.countByDay(userId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        for (Object[] row : rows) {
+            counts[(int) ChronoUnit.DAYS.between(startDate, toLocalDate(row[0]))] = ((Number) row[1]).intValue();
+        }
+        return new ReviewHeatmapDTO(startDate, counts);
+    }
+
+    /**
+     * Encode a heatmap as unsigned LEB128 varints: the epoch day of the start date, the number of
+     * days, then one count per day. A year of typical activity fits in a few hundred bytes.
+     * @param heatmap the heatmap
+     * @return the encoded heatmap
+     */
+    public static byte[] encodeHeatmap(ReviewHeatmapDTO heatmap) {
+        int[] counts = heatmap.getCounts();
+        byte[] buffer = new byte[5 * (counts.length + 2)];
+        int position = putVarint(buffer, 0, (int) heatmap.getStartDate().toEpochDay());
+        position = putVarint(buffer, position, counts.length);
+        for (int count : counts) {
+            position = putVarint(buffer, position, count);
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static int putVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Rebuild the rollups of every user from the reviews table, in the background.
+     * Does nothing if a backfill is already running.
+     */
+    @Async
+    public void backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            logger.info("Daily statistics backfill already running");
+            return;
+        }
+        try {
+            List<UUID> userIds = userDailyStatsRepository.findUserIdsWithReviews();
+            long start = System.currentTimeMillis();
+            int done = 0;
+            for (UUID userId : userIds) {
+                try {
+                    backfillTransaction.executeWithoutResult(status -> {
+                        // Waits for the user's in-flight writers and holds off new ones until commit
+                        jdbcTemplate.query(LOCK_USER_SQL, ps -> ps.setObject(1, userId), rs -> { });
+                        jdbcTemplate.update("DELETE FROM user_daily_stats WHERE user_id = ?", userId);
+                        jdbcTemplate.update(BACKFILL_SQL, userId);
+                        backfillSketches(userId);
+                    });
+                    done++;
+                } catch (RuntimeException e) {
+                    logger.warn("Daily statistics backfill failed for user {}", userId, e);
+                }
+            }
+            logger.info("Daily statistics backfill: {} of {} users in {} ms",
+                    done, userIds.size(), System.currentTimeMillis() - start);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    private void backfillSketches(UUID userId) {
+        Map<RollupKey, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(BACKFILL_CARDS_SQL, ps -> ps.setObject(1, userId), rs -> {
+            RollupKey key = new RollupKey(userId, rs.getObject(1, UUID.class), rs.getDate(2).toLocalDate());
+            sketches.computeIfAbsent(key, k -> new HyperLogLog(SKETCH_PRECISION)).add(rs.getObject(3, UUID.class));
+        });
+        List<Object[]> args = new ArrayList<>(sketches.size());
+        sketches.forEach((key, sketch) -> args.add(new Object[]{sketch.toBytes(), userId, key.deckId(), key.day()}));
+        jdbcTemplate.batchUpdate(BACKFILL_SKETCH_SQL, args);
+    }
+
+    /**
+     * @return true while a backfill is running
+     */
+    public boolean isBackfilling() {
+        return backfilling.get();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * Rollup deltas of reviews inserted together, pre-aggregated per (user, flashcard, day)
+     */
+    public static final class Batch {
+
+        private final Map<Key, long[]> counters = new HashMap<>();
+        private final List<Sample> samples = new ArrayList<>();
+
+        /**
+         * Count one inserted review
+         * @param userId the user ID
+         * @param flashcardId the flashcard ID
+         * @param reviewDate the review date
+         * @param quality the quality, 0-5
+         * @param responseTimeMs the response time, or null if not reported
+         */
+        public void add(UUID userId, UUID flashcardId, LocalDateTime reviewDate, int quality, Long responseTimeMs) {
+            long[] c = counters.computeIfAbsent(
+                    new Key(userId, flashcardId, reviewDate.toLocalDate()), key -> new long[COUNTERS]);
+            c[REVIEWS]++;
+            c[QUALITY + quality]++;
+            if (responseTimeMs != null) {
+                c[RESPONSE_TIME_SUM] += responseTimeMs;
+                c[RESPONSE_TIME_COUNT]++;
+            }
+            if (quality >= 4) {
+                c[MASTERY]++;
+            }
+            samples.add(new Sample(userId, flashcardId, reviewDate, responseTimeMs));
+        }
+    }
+
+    private record Key(UUID userId, UUID flashcardId, LocalDate day) {
+    }
+
+    private record RollupKey(UUID userId, UUID deckId, LocalDate day) {
+    }
+
+    /**
+     * Counters and flashcard sketch of one rollup row, summed over a batch
+     */
+    private static final class Rollup {
+
+        private final long[] counters = new long[COUNTERS];
+        private final HyperLogLog flashcards = new HyperLogLog(SKETCH_PRECISION);
+    }
+
+    private record Sample(UUID userId, UUID flashcardId, LocalDateTime reviewDate, Long responseTimeMs) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.DeckAnalyticsDTO;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.repository.CardProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learning analytics of a deck across all its learners.
+ * <p>
+ * Computed with one GROUPING SETS query over card_progress, which holds each learner's latest state
+ * per card, so the cost grows with the cards started in the deck and not with its review history.
+ * Results are cached per deck. Committed reviews mark their decks stale, using the deck IDs carried by
+ * the event, and stale decks are evicted every {@code srvls.analytics.eviction-interval-ms}: a deck
+ * reviewed continuously is recomputed at most once per interval instead of after every review.
+ */
+@Service
+public class DeckAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckAnalyticsService.class);
+
+    private static final String CACHE = "deckAnalytics";
+
+    private static final String[] INTERVAL_BUCKETS = {"1", "2-7", "8-30", "31-90", "91-365", "366+"};
+
+    private final CardProgressRepository cardProgressRepository;
+    private final CacheManager cacheManager;
+    private final Set<UUID> staleDeckIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public DeckAnalyticsService(CardProgressRepository cardProgressRepository, CacheManager cacheManager) {
+        this.cardProgressRepository = cardProgressRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the analytics of a deck. Does not check access.
+     * @param deckId the deck ID
+     * @return the analytics
+     */
+    @Cacheable(value = CACHE, key = "#deckId", sync = true)
+    public DeckAnalyticsDTO getAnalytics(UUID deckId) {
+        Map<Integer, Long> levelCounts = new LinkedHashMap<>();
+        for (int level = CardProgress.MIN_LEVEL; level <= CardProgress.MAX_LEVEL; level++) {
+            levelCounts.put(level, 0L);
+        }
+        long[] bucketCounts = new long[INTERVAL_BUCKETS.length];
+        DeckAnalyticsDTO analytics = new DeckAnalyticsDTO();
+
+        List<Object[]> rows = cardProgressRepository.aggregateDeckAnalytics(deckId, LocalDateTime.now());
+        for (Object[] row : rows) {
+            boolean levelGrouped = ((Number) row[2]).intValue() == 0;
+            boolean bucketGrouped = ((Number) row[3]).intValue() == 0;
+            long cards = ((Number) row[4]).longValue();
+            if (levelGrouped) {
+                levelCounts.put(((Number) row[0]).intValue(), cards);
+            } else if (bucketGrouped) {
+                bucketCounts[((Number) row[1]).intValue()] = cards;
+            } else {
+                analytics.setCardCount(cards);
+                analytics.setLearnerCount(((Number) row[5]).longValue());
+                analytics.setAverageEasinessFactor(row[6] == null ? 0.0 : ((Number) row[6]).doubleValue());
+                analytics.setPredictedRetention(row[7] == null ? 0.0 : ((Number) row[7]).doubleValue());
+            }
+        }
+
+        Map<String, Long> intervalCounts = new LinkedHashMap<>();
+        for (int i = 0; i < INTERVAL_BUCKETS.length; i++) {
+            intervalCounts.put(INTERVAL_BUCKETS[i], bucketCounts[i]);
+        }
+        analytics.setLevelCounts(levelCounts);
+        analytics.setIntervalCounts(intervalCounts);
+        return analytics;
+    }
+
+    /**
+     * Mark the decks of the reviewed cards stale, for the next {@link #evictStale}
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewRecorded(ReviewRecordedEvent event) {
+        for (UUID deckId : event.getDeckIds()) {
+            if (deckId != null) {
+                staleDeckIds.add(deckId);
+            }
+        }
+    }
+
+    /**
+     * Evict the analytics of the decks reviewed since the last run
+     */
+    @Scheduled(fixedDelayString = "${srvls.analytics.eviction-interval-ms:30000}")
+    public void evictStale() {
+        if (staleDeckIds.isEmpty()) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+        Iterator<UUID> iterator = staleDeckIds.iterator();
+        while (iterator.hasNext()) {
+            UUID deckId = iterator.next();
+            // Removed first: a review committed meanwhile marks the deck again for the next run
+            iterator.remove();
+            try {
+                cache.evict(deckId);
+            } catch (RuntimeException e) {
+                staleDeckIds.add(deckId);
+                logger.warn("Could not evict deck analytics, retrying on the next run", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evict the analytics of a deleted deck
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        try {
+            Cache cache = cacheManager.getCache(CACHE);
+            if (cache != null) {
+                cache.evict(event.getDeckId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not evict deck analytics", e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.DeckDashboardDTO;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.FlashcardCreatedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.repository.DeckCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-(user, deck) card counters behind the home dashboard.
+ * <p>
+ * Counters are updated by synchronous event listeners inside the transaction that changes the cards,
+ * so they commit or roll back with it. Each change is a constant number of single-row upserts; the
+ * dashboard never counts cards. Counters of a deck are built once from card_progress the first time
+ * its owner opens the dashboard; until then changes to it are skipped.
+ * <p>
+ * A build and the review listener serialize on a per-user advisory lock, held until their transactions
+ * end: a build waits for reviews in flight to commit and then counts them from card_progress, and a
+ * review that starts during a build waits for its counters to exist and then updates them.
+ */
+@Service
+public class DeckCounterService {
+
+    private static final String ADD_DUE_SQL =
+            "INSERT INTO deck_due_counts (user_id, deck_id, due_date, card_count) " +
+            "SELECT c.user_id, c.deck_id, ?, ? FROM flashcards f " +
+            "JOIN deck_counters c ON c.deck_id = f.deck_id AND c.user_id = ? " +
+            "WHERE f.id = ? " +
+            "ON CONFLICT (user_id, deck_id, due_date) DO UPDATE " +
+            "SET card_count = deck_due_counts.card_count + EXCLUDED.card_count";
+
+    private static final String ADD_STARTED_SQL =
+            "UPDATE deck_counters c SET started_count = c.started_count + 1 FROM flashcards f " +
+            "WHERE f.id = ? AND c.deck_id = f.deck_id AND c.user_id = ?";
+
+    private static final String ADD_CARD_SQL =
+            "UPDATE deck_counters SET card_count = card_count + ? WHERE deck_id = ?";
+
+    private static final String REMOVE_STARTED_SQL =
+            "UPDATE deck_counters c SET started_count = c.started_count - 1 FROM card_progress p " +
+            "WHERE p.flashcard_id = ? AND c.user_id = p.user_id AND c.deck_id = ?";
+
+    private static final String REMOVE_DUE_SQL =
+            "UPDATE deck_due_counts b SET card_count = b.card_count - 1 FROM card_progress p " +
+            "WHERE p.flashcard_id = ? AND b.user_id = p.user_id AND b.deck_id = ? " +
+            "AND b.due_date = CAST(p.next_review_date AS date)";
+
+    private static final String BUILD_DUE_SQL =
+            "INSERT INTO deck_due_counts (user_id, deck_id, due_date, card_count) " +
+            "SELECT p.user_id, f.deck_id, CAST(p.next_review_date AS date), count(*) " +
+            "FROM card_progress p JOIN flashcards f ON f.id = p.flashcard_id " +
+            "WHERE p.user_id = ? AND f.deck_id = ? " +
+            "GROUP BY p.user_id, f.deck_id, CAST(p.next_review_date AS date) " +
+            "ON CONFLICT (user_id, deck_id, due_date) DO UPDATE SET card_count = EXCLUDED.card_count";
+
+    private static final String BUILD_COUNTER_SQL =
+            "INSERT INTO deck_counters (user_id, deck_id, card_count, started_count) " +
+            "VALUES (?, ?, (SELECT count(*) FROM flashcards f WHERE f.deck_id = ?), " +
+            "(SELECT count(*) FROM card_progress p JOIN flashcards f ON f.id = p.flashcard_id " +
+            "WHERE p.user_id = ? AND f.deck_id = ?)) " +
+            "ON CONFLICT (user_id, deck_id) DO NOTHING";
+
+    // Review listeners share a user's lock; a build takes it alone, so it never misses a review in flight
+    private static final String SHARE_USER_SQL =
+            "SELECT pg_advisory_xact_lock_shared(hashtextextended('deck_counters:' || CAST(? AS uuid), 0))";
+
+    private static final String LOCK_USER_SQL =
+            "SELECT pg_advisory_xact_lock(hashtextextended('deck_counters:' || CAST(? AS uuid), 0))";
+
+    private final DeckCounterRepository deckCounterRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeckCounterService(DeckCounterRepository deckCounterRepository, JdbcTemplate jdbcTemplate) {
+        this.deckCounterRepository = deckCounterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Get the due, new and learned counts of every deck a user owns
+     * @param userId the user ID
+     * @return one entry per deck, ordered by name
+     */
+    @Transactional
+    public List<DeckDashboardDTO> getDashboard(UUID userId) {
+        List<UUID> unbuilt = deckCounterRepository.findOwnedDeckIdsWithoutCounters(userId);
+        if (!unbuilt.isEmpty()) {
+            jdbcTemplate.query(LOCK_USER_SQL, ps -> ps.setObject(1, userId), rs -> { });
+            // Read again under the lock: a concurrent first view may have built them meanwhile
+            unbuilt = deckCounterRepository.findOwnedDeckIdsWithoutCounters(userId);
+            if (!unbuilt.isEmpty()) {
+                build(userId, unbuilt);
+            }
+        }
+
+        List<Object[]> rows = deckCounterRepository.findDashboardRows(userId, LocalDate.now());
+        List<DeckDashboardDTO> dashboard = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int cards = ((Number) row[2]).intValue();
+            int started = ((Number) row[3]).intValue();
+            int due = Math.min(started, Math.max(0, ((Number) row[4]).intValue()));
+            dashboard.add(new DeckDashboardDTO((UUID) row[0], (String) row[1],
+                    due, Math.max(0, cards - started), started - due));
+        }
+        return dashboard;
+    }
+
+    /**
+     * Move reviewed cards between due days, and count cards reviewed for the first time as started
+     */
+    @EventListener
+    public void onReviewRecorded(ReviewRecordedEvent event) {
+        UUID userId = event.getUserId();
+        Map<UUID, LocalDateTime> previousReviewDates = event.getPreviousReviewDates();
+        List<Object[]> dueArgs = new ArrayList<>();
+        List<Object[]> startedArgs = new ArrayList<>();
+        event.getNextReviewDates().forEach((flashcardId, nextReviewDate) -> {
+            LocalDate due = nextReviewDate.toLocalDate();
+            LocalDateTime previous = previousReviewDates.get(flashcardId);
+            if (previous == null) {
+                startedArgs.add(new Object[]{flashcardId, userId});
+            } else if (previous.toLocalDate().equals(due)) {
+                return;
+            } else {
+                dueArgs.add(new Object[]{previous.toLocalDate(), -1, userId, flashcardId});
+            }
+            dueArgs.add(new Object[]{due, 1, userId, flashcardId});
+        });
+        if (startedArgs.isEmpty() && dueArgs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(SHARE_USER_SQL, ps -> ps.setObject(1, userId), rs -> { });
+        if (!startedArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_STARTED_SQL, startedArgs);
+        }
+        if (!dueArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_DUE_SQL, dueArgs);
+        }
+    }
+
+    /**
+     * Count a new card in its deck
+     */
+    @EventListener
+    public void onFlashcardCreated(FlashcardCreatedEvent event) {
+        jdbcTemplate.update(ADD_CARD_SQL, 1, event.getDeckId());
+    }
+
+    /**
+     * Uncount a deleted card, including from the started and due counts of every user who reviewed it
+     */
+    @EventListener
+    public void onFlashcardDeleted(FlashcardDeletedEvent event) {
+        jdbcTemplate.update(ADD_CARD_SQL, -1, event.getDeckId());
+        if (!event.getUserIds().isEmpty()) {
+            jdbcTemplate.update(REMOVE_STARTED_SQL, event.getFlashcardId(), event.getDeckId());
+            jdbcTemplate.update(REMOVE_DUE_SQL, event.getFlashcardId(), event.getDeckId());
+        }
+    }
+
+    /**
+     * Drop the counters of a deleted deck
+     */
+    @EventListener
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        jdbcTemplate.update("DELETE FROM deck_due_counts WHERE deck_id = ?", event.getDeckId());
+        jdbcTemplate.update("DELETE FROM deck_counters WHERE deck_id = ?", event.getDeckId());
+    }
+
+    private void build(UUID userId, List<UUID> deckIds) {
+        List<Object[]> deckArgs = new ArrayList<>(deckIds.size());
+        List<Object[]> counterArgs = new ArrayList<>(deckIds.size());
+        for (UUID deckId : deckIds) {
+            deckArgs.add(new Object[]{userId, deckId});
+            counterArgs.add(new Object[]{userId, deckId, deckId, userId, deckId});
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM deck_due_counts WHERE user_id = ? AND deck_id = ?", deckArgs);
+        jdbcTemplate.batchUpdate(BUILD_DUE_SQL, deckArgs);
+        jdbcTemplate.batchUpdate(BUILD_COUNTER_SQL, counterArgs);
+    }
+}
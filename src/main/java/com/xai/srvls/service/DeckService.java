@@ -1,16 +1,26 @@
 package com.xai.srvls.service;
 
+import com.xai.srvls.cache.DeckAccess;
+import com.xai.srvls.cache.DeckAccessCache;
+import com.xai.srvls.cache.DeckSnapshot;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.DeckUpdatedEvent;
+import com.xai.srvls.event.FlashcardCreatedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
 import com.xai.srvls.model.Deck;
 import com.xai.srvls.model.User;
 import com.xai.srvls.repository.DeckRepository;
+import com.xai.srvls.repository.FlashcardRepository;
 import com.xai.srvls.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,11 +34,19 @@ public class DeckService {
     
     private final DeckRepository deckRepository;
     private final UserRepository userRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final DeckAccessCache deckAccessCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public DeckService(DeckRepository deckRepository, UserRepository userRepository) {
+    public DeckService(DeckRepository deckRepository, UserRepository userRepository,
+                       FlashcardRepository flashcardRepository, DeckAccessCache deckAccessCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.deckRepository = deckRepository;
         this.userRepository = userRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.deckAccessCache = deckAccessCache;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -36,11 +54,59 @@ public class DeckService {
      * @param id the deck ID
      * @return an Optional containing the deck if found
      */
-    @Cacheable(value = "decks", key = "#id", unless = "#result == null")
     public Optional<Deck> findById(UUID id) {
         return deckRepository.findById(id);
     }
     
+    /**
+     * Find a deck by ID as a cached snapshot
+     * @param id the deck ID
+     * @return an Optional containing the deck's snapshot if found
+     */
+    @Cacheable(value = "decks", key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public Optional<DeckSnapshot> findSnapshotById(UUID id) {
+        return deckRepository.findById(id)
+                .map(deck -> DeckSnapshot.of(deck, flashcardRepository.countByDeckId(id)));
+    }
+    
+    /**
+     * Drop the cached snapshot of a deck whose card count changed
+     * @param event the flashcard creation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(value = "decks", key = "#event.deckId")
+    public void onFlashcardCreated(FlashcardCreatedEvent event) {
+    }
+    
+    /**
+     * Drop the cached snapshot of a deck whose card count changed
+     * @param event the flashcard deletion
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(value = "decks", key = "#event.deckId")
+    public void onFlashcardDeleted(FlashcardDeletedEvent event) {
+    }
+    
+    /**
+     * Drop the cached snapshot and access fields of an updated deck once the update commits,
+     * so a read racing the transaction cannot cache the old state again
+     * @param event the deck update
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(value = {"decks", "deckAccess"}, key = "#event.deckId")
+    public void onDeckUpdated(DeckUpdatedEvent event) {
+    }
+    
+    /**
+     * Drop the cached snapshot and access fields of a deleted deck once the delete commits
+     * @param event the deck deletion
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(value = {"decks", "deckAccess"}, key = "#event.deckId")
+    public void onDeckDeleted(DeckDeletedEvent event) {
+    }
+    
     /**
      * Find all decks owned by a user
      * @param userId the user ID
@@ -130,7 +196,6 @@ public class DeckService {
      * @return the updated deck
      */
     @Transactional
-    @CacheEvict(value = "decks", key = "#id")
     public Deck update(UUID id, Deck updatedDeck, UUID userId) {
         return deckRepository.findById(id)
                 .map(deck -> {
@@ -139,13 +204,17 @@ public class DeckService {
                         throw new com.xai.srvls.exception.UnauthorizedAccessException("this deck");
                     }
                     
+                    boolean visibilityChanged = deck.isPublic() != updatedDeck.isPublic();
                     deck.setName(updatedDeck.getName());
                     deck.setDescription(updatedDeck.getDescription());
                     deck.setPublic(updatedDeck.isPublic());
                     deck.setLanguageFrom(updatedDeck.getLanguageFrom());
                     deck.setLanguageTo(updatedDeck.getLanguageTo());
                     deck.setTags(updatedDeck.getTags());
+                    deck.setSchedulerType(updatedDeck.getSchedulerType());
+                    deck.setNewCardsPerDay(updatedDeck.getNewCardsPerDay());
                     
+                    eventPublisher.publishEvent(new DeckUpdatedEvent(id, visibilityChanged));
                     return deckRepository.save(deck);
                 })
                 .orElseThrow(() -> new com.xai.srvls.exception.DeckNotFoundException(id.toString()));
@@ -157,7 +226,6 @@ public class DeckService {
      * @param userId the user ID (for authorization)
      */
     @Transactional
-    @CacheEvict(value = "decks", key = "#id")
     public void delete(UUID id, UUID userId) {
         deckRepository.findById(id)
                 .ifPresent(deck -> {
@@ -166,6 +234,7 @@ public class DeckService {
                         throw new com.xai.srvls.exception.UnauthorizedAccessException("this deck");
                     }
                     
+                    eventPublisher.publishEvent(new DeckDeletedEvent(id));
                     deckRepository.delete(deck);
                 });
     }
@@ -177,8 +246,18 @@ public class DeckService {
      * @return true if the user can access the deck
      */
     public boolean canUserAccessDeck(UUID deckId, UUID userId) {
-        return deckRepository.findById(deckId)
-                .map(deck -> deck.isPublic() || deck.getOwner().getId().equals(userId))
-                .orElse(false);
+        DeckAccess access = deckAccessCache.findDeckAccess(deckId);
+        return access != null && access.allows(userId);
+    }
+    
+    /**
+     * Check if a user can access a flashcard, through the cached deck of the flashcard
+     * @param flashcardId the flashcard ID
+     * @param userId the user ID
+     * @return true if the flashcard exists and the user can access its deck
+     */
+    public boolean canUserAccessFlashcard(UUID flashcardId, UUID userId) {
+        UUID deckId = deckAccessCache.findDeckId(flashcardId);
+        return deckId != null && canUserAccessDeck(deckId, userId);
     }
 }
@@ -0,0 +1,208 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.DueForecastDTO;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.repository.CardProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster-wide histogram of cards due per day, for capacity planning.
+ * <p>
+ * The histogram is a Redis hash {@code due-forecast} of due date to card count. It is built with one
+ * GROUP BY over card_progress when missing, then moved incrementally after each committed review and
+ * flashcard or deck deletion. The increments run as one Lua script that only touches an existing hash,
+ * so they can neither resurrect an expired histogram as a partial one nor clear its TTL.
+ */
+@Service
+public class DueForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueForecastService.class);
+
+    private static final String KEY = "due-forecast";
+
+    /**
+     * ARGV holds pairs of due date and increment; nothing happens when the histogram is missing
+     */
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CardProgressRepository cardProgressRepository;
+
+    @Value("${srvls.forecast.ttl:PT24H}")
+    private Duration ttl;
+
+    @Autowired
+    public DueForecastService(StringRedisTemplate redisTemplate, CardProgressRepository cardProgressRepository) {
+        this.redisTemplate = redisTemplate;
+        this.cardProgressRepository = cardProgressRepository;
+    }
+
+    /**
+     * Forecast the cards due on each of the next days across all users
+     * @param days the number of days, starting today
+     * @return the forecast
+     */
+    public DueForecastDTO forecast(int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(days);
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        for (LocalDate day = today; day.isBefore(end); day = day.plusDays(1)) {
+            counts.put(day, 0L);
+        }
+
+        for (Map.Entry<String, Long> entry : readHistogram().entrySet()) {
+            LocalDate day = LocalDate.parse(entry.getKey());
+            if (day.isBefore(end)) {
+                // Overdue cards are reviewed today at the earliest
+                counts.merge(day.isBefore(today) ? today : day, entry.getValue(), Long::sum);
+            }
+        }
+
+        DueForecastDTO forecast = new DueForecastDTO();
+        forecast.setDailyDueCounts(counts);
+        long total = 0;
+        for (Map.Entry<LocalDate, Long> entry : counts.entrySet()) {
+            total += entry.getValue();
+            if (forecast.getPeakDate() == null || entry.getValue() > forecast.getPeakDueCount()) {
+                forecast.setPeakDate(entry.getKey());
+                forecast.setPeakDueCount(entry.getValue());
+            }
+        }
+        forecast.setAverageDueCount(days > 0 ? (double) total / days : 0);
+        return forecast;
+    }
+
+    /**
+     * Move reviewed cards from their previous due date to the new one
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewRecorded(ReviewRecordedEvent event) {
+        Map<String, Long> deltas = new HashMap<>();
+        event.getNextReviewDates().forEach((flashcardId, nextReviewDate) -> {
+            LocalDateTime previous = event.getPreviousReviewDates().get(flashcardId);
+            if (previous != null) {
+                deltas.merge(previous.toLocalDate().toString(), -1L, Long::sum);
+            }
+            deltas.merge(nextReviewDate.toLocalDate().toString(), 1L, Long::sum);
+        });
+        adjust(deltas);
+    }
+
+    /**
+     * Subtract the progress rows of a deleted flashcard once the delete commits.
+     * Runs in the deleting transaction, which still sees the rows.
+     */
+    @EventListener
+    public void onFlashcardDeleted(FlashcardDeletedEvent event) {
+        if (!event.getUserIds().isEmpty()) {
+            subtractAfterCommit(cardProgressRepository.countByDueDateForFlashcard(event.getFlashcardId()));
+        }
+    }
+
+    /**
+     * Subtract the progress rows on a deleted deck's flashcards once the delete commits.
+     * Runs in the deleting transaction, which still sees the rows.
+     */
+    @EventListener
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        subtractAfterCommit(cardProgressRepository.countByDueDateForDeck(event.getDeckId()));
+    }
+
+    private void subtractAfterCommit(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<String, Long> deltas = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            deltas.put(row[0].toString(), -((Number) row[1]).longValue());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(deltas);
+                }
+            });
+        } else {
+            adjust(deltas);
+        }
+    }
+
+    private void adjust(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((day, delta) -> {
+            args.add(day);
+            args.add(Long.toString(delta));
+        });
+        try {
+            redisTemplate.execute(ADJUST_SCRIPT, List.of(KEY), args.toArray());
+        } catch (RuntimeException e) {
+            logger.warn("Could not update the due forecast", e);
+        }
+    }
+
+    private Map<String, Long> readHistogram() {
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            Map<String, String> entries = hash.entries(KEY);
+            if (!entries.isEmpty()) {
+                Map<String, Long> histogram = new HashMap<>(entries.size());
+                entries.forEach((day, count) -> histogram.put(day, Long.parseLong(count)));
+                return histogram;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Due forecast unavailable, counting from the database", e);
+            return countFromDatabase();
+        }
+
+        Map<String, Long> histogram = countFromDatabase();
+        try {
+            Map<String, String> entries = new HashMap<>(histogram.size());
+            histogram.forEach((day, count) -> entries.put(day, Long.toString(count)));
+            if (!entries.isEmpty()) {
+                redisTemplate.opsForHash().putAll(KEY, entries);
+                redisTemplate.expire(KEY, ttl);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not store the due forecast", e);
+        }
+        return histogram;
+    }
+
+    private Map<String, Long> countFromDatabase() {
+        Map<String, Long> histogram = new HashMap<>();
+        for (Object[] row : cardProgressRepository.countAllByDueDate()) {
+            histogram.put(row[0].toString(), ((Number) row[1]).longValue());
+        }
+        return histogram;
+    }
+}
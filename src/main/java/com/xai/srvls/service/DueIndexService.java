@@ -0,0 +1,272 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.DeckUpdatedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.repository.CardProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Per-user due index in Redis: a sorted set {@code due:{userId}} of flashcard IDs scored by next due
+ * time in epoch seconds. Due pages are served with ZRANGEBYSCORE instead of a Postgres query.
+ * <p>
+ * The set is kept current from review and deletion events after commit, and rebuilt lazily from
+ * card_progress when it is missing. It holds only cards of decks the user can access: the flashcards
+ * of a deleted deck are removed from every learner's set, and the sets of a deck's learners are
+ * rebuilt when the deck is made public or private. A sentinel member with score +inf marks a complete set, so an
+ * empty index is distinguishable from a missing one. When Redis is unavailable, callers fall back
+ * to Postgres.
+ */
+@Service
+public class DueIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueIndexService.class);
+
+    private static final String KEY_PREFIX = "due:";
+    private static final String SENTINEL = "built";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CardProgressRepository cardProgressRepository;
+
+    @Value("${srvls.due-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srvls.due-index.ttl:PT24H}")
+    private Duration ttl;
+
+    @Autowired
+    public DueIndexService(StringRedisTemplate redisTemplate, CardProgressRepository cardProgressRepository) {
+        this.redisTemplate = redisTemplate;
+        this.cardProgressRepository = cardProgressRepository;
+    }
+
+    /**
+     * Find the IDs of a user's due flashcards, most overdue first
+     * @param userId the user ID
+     * @param now the current date and time
+     * @param offset the number of due flashcards to skip
+     * @param count the maximum number of IDs to return
+     * @return the flashcard IDs, or empty if the index is disabled or Redis is unavailable
+     */
+    public Optional<List<UUID>> findDueFlashcardIds(UUID userId, LocalDateTime now, long offset, long count) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(userId);
+        try {
+            ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+            if (zSet.score(key, SENTINEL) == null) {
+                rebuild(userId, key);
+            }
+            Set<String> members = zSet.rangeByScore(key, Double.NEGATIVE_INFINITY, score(now), offset, count);
+            List<UUID> ids = new ArrayList<>(members != null ? members.size() : 0);
+            if (members != null) {
+                for (String member : members) {
+                    ids.add(UUID.fromString(member));
+                }
+            }
+            return Optional.of(ids);
+        } catch (RuntimeException e) {
+            logger.warn("Due index unavailable for user {}, falling back to the database", userId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Count a user's due flashcards on each day of a window, with one ZCOUNT per day in a single pipeline.
+     * Only the counts cross the network, never the members, however large the index is.
+     * @param userId the user ID
+     * @param fromDay the first epoch day
+     * @param toDay the last epoch day, inclusive
+     * @return the counts by epoch day, one entry per day of the window, or empty if the index is disabled
+     *         or Redis is unavailable
+     */
+    public Optional<Map<Integer, Integer>> countDueByDay(UUID userId, int fromDay, int toDay) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(userId);
+        try {
+            if (redisTemplate.opsForZSet().score(key, SENTINEL) == null) {
+                rebuild(userId, key);
+            }
+            byte[] rawKey = redisTemplate.getStringSerializer().serialize(key);
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long day = fromDay; day <= toDay; day++) {
+                    // Scores are whole seconds, so the last second of the day closes the range
+                    connection.zSetCommands().zCount(rawKey, day * SECONDS_PER_DAY, (day + 1) * SECONDS_PER_DAY - 1);
+                }
+                return null;
+            });
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int i = 0; i < results.size(); i++) {
+                counts.put(fromDay + i, ((Number) results.get(i)).intValue());
+            }
+            return Optional.of(counts);
+        } catch (RuntimeException e) {
+            logger.warn("Due index unavailable for user {}", userId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop members for flashcards that no longer exist, found while serving a page
+     * @param userId the user ID
+     * @param flashcardIds the stale flashcard IDs
+     */
+    public void removeStale(UUID userId, Collection<UUID> flashcardIds) {
+        if (!enabled || flashcardIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(key(userId), flashcardIds.stream().map(UUID::toString).toArray());
+        } catch (RuntimeException e) {
+            logger.warn("Could not remove stale due index entries for user {}", userId, e);
+        }
+    }
+
+    /**
+     * Move reviewed flashcards to their new due time
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewRecorded(ReviewRecordedEvent event) {
+        if (!enabled || event.getNextReviewDates().isEmpty()) {
+            return;
+        }
+        String key = key(event.getUserId());
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        event.getNextReviewDates().forEach((flashcardId, nextReviewDate) ->
+                tuples.add(new DefaultTypedTuple<>(flashcardId.toString(), score(nextReviewDate))));
+        try {
+            redisTemplate.opsForZSet().add(key, tuples);
+        } catch (RuntimeException e) {
+            logger.warn("Could not update due index of user {}", event.getUserId(), e);
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Remove a deleted flashcard from the index of every user who had progress on it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlashcardDeleted(FlashcardDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        List<String> members = List.of(event.getFlashcardId().toString());
+        for (UUID userId : event.getUserIds()) {
+            remove(userId, members);
+        }
+    }
+
+    /**
+     * Remove the flashcards of a deleted deck from the index of every user who had progress on them
+     * once the delete commits. Runs in the deleting transaction, which still sees the progress rows.
+     */
+    @EventListener
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Map<UUID, List<String>> members = new HashMap<>();
+        for (Object[] row : cardProgressRepository.findUserFlashcardIdsByDeckId(event.getDeckId())) {
+            members.computeIfAbsent((UUID) row[0], userId -> new ArrayList<>()).add(row[1].toString());
+        }
+        afterCommit(() -> members.forEach(this::remove));
+    }
+
+    /**
+     * Drop the indexes of a deck's learners other than its owner once the deck is made public or private,
+     * so they are rebuilt with the cards each learner can now access
+     */
+    @EventListener
+    public void onDeckUpdated(DeckUpdatedEvent event) {
+        if (!enabled || !event.isVisibilityChanged()) {
+            return;
+        }
+        List<UUID> userIds = cardProgressRepository.findLearnerIdsByDeckId(event.getDeckId());
+        afterCommit(() -> userIds.forEach(userId -> invalidate(key(userId))));
+    }
+
+    private void remove(UUID userId, List<String> members) {
+        String key = key(userId);
+        try {
+            redisTemplate.opsForZSet().remove(key, members.toArray());
+        } catch (RuntimeException e) {
+            logger.warn("Could not update due index of user {}", userId, e);
+            invalidate(key);
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Load the index from card_progress.
+     * Entries are added with NX: members already present were written by listeners after a commit,
+     * so they are at least as recent as this snapshot.
+     */
+    private void rebuild(UUID userId, String key) {
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        for (Object[] row : cardProgressRepository.findDueIndexEntries(userId)) {
+            tuples.add(new DefaultTypedTuple<>(row[0].toString(), score((LocalDateTime) row[1])));
+            if (tuples.size() == REBUILD_CHUNK_SIZE) {
+                zSet.addIfAbsent(key, tuples);
+                tuples.clear();
+            }
+        }
+        if (!tuples.isEmpty()) {
+            zSet.addIfAbsent(key, tuples);
+        }
+        zSet.add(key, SENTINEL, Double.POSITIVE_INFINITY);
+        redisTemplate.expire(key, ttl);
+    }
+
+    private void invalidate(String key) {
+        try {
+            // Missing index is rebuilt on the next read; a stale one would be served as is
+            redisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            logger.error("Could not invalidate due index {}", key, e);
+        }
+    }
+
+    private static String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static double score(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
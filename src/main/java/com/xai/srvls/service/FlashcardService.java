@@ -1,20 +1,38 @@
 package com.xai.srvls.service;
 
+import com.xai.srvls.cache.DeckSnapshot;
+import com.xai.srvls.cache.FlashcardSnapshot;
+import com.xai.srvls.cache.UserCache;
+import com.xai.srvls.cache.UserSnapshot;
+import com.xai.srvls.dto.CardClassificationDTO;
+import com.xai.srvls.event.FlashcardCreatedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
 import com.xai.srvls.model.Deck;
 import com.xai.srvls.model.Flashcard;
-import com.xai.srvls.model.User;
+import com.xai.srvls.model.SchedulerType;
+import com.xai.srvls.repository.CardProgressRepository;
 import com.xai.srvls.repository.DeckRepository;
 import com.xai.srvls.repository.FlashcardRepository;
-import com.xai.srvls.repository.UserRepository;
+import com.xai.srvls.scheduling.SchedulerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.UUID;
 
 /**
@@ -25,13 +43,26 @@ public class FlashcardService {
 
     private final FlashcardRepository flashcardRepository;
     private final DeckRepository deckRepository;
-    private final UserRepository userRepository;
+    private final CardProgressRepository cardProgressRepository;
+    private final SchedulerRegistry schedulerRegistry;
+    private final DueIndexService dueIndexService;
+    private final DeckService deckService;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public FlashcardService(FlashcardRepository flashcardRepository, DeckRepository deckRepository, UserRepository userRepository) {
+    public FlashcardService(FlashcardRepository flashcardRepository, DeckRepository deckRepository,
+                            CardProgressRepository cardProgressRepository, SchedulerRegistry schedulerRegistry,
+                            DueIndexService dueIndexService, DeckService deckService, UserCache userCache,
+                            ApplicationEventPublisher eventPublisher) {
         this.flashcardRepository = flashcardRepository;
         this.deckRepository = deckRepository;
-        this.userRepository = userRepository;
+        this.cardProgressRepository = cardProgressRepository;
+        this.schedulerRegistry = schedulerRegistry;
+        this.dueIndexService = dueIndexService;
+        this.deckService = deckService;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -39,11 +70,21 @@ public class FlashcardService {
      * @param id The flashcard ID
      * @return An Optional containing the flashcard if found
      */
-    @Cacheable(value = "flashcards", key = "#id", unless = "#result == null")
     public Optional<Flashcard> findById(UUID id) {
         return flashcardRepository.findById(id);
     }
 
+    /**
+     * Find a flashcard by ID as a cached snapshot
+     * @param id The flashcard ID
+     * @return An Optional containing the flashcard's snapshot if found
+     */
+    @Cacheable(value = "flashcards", key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public Optional<FlashcardSnapshot> findSnapshotById(UUID id) {
+        return flashcardRepository.findById(id).map(FlashcardSnapshot::of);
+    }
+
     /**
      * Find all flashcards in a deck
      * @param deckId The deck ID
@@ -85,7 +126,9 @@ public class FlashcardService {
         }
         
         flashcard.setDeck(deck);
-        return flashcardRepository.save(flashcard);
+        Flashcard created = flashcardRepository.save(flashcard);
+        eventPublisher.publishEvent(new FlashcardCreatedEvent(created.getId(), deckId));
+        return created;
     }
 
     /**
@@ -125,7 +168,7 @@ public class FlashcardService {
      * @param userId The user ID (for authorization)
      */
     @Transactional
-    @CacheEvict(value = "flashcards", key = "#id")
+    @CacheEvict(value = {"flashcards", "flashcardDecks"}, key = "#id")
     public void delete(UUID id, UUID userId) {
         flashcardRepository.findById(id)
                 .ifPresent(flashcard -> {
@@ -134,18 +177,99 @@ public class FlashcardService {
                         throw new com.xai.srvls.exception.UnauthorizedAccessException("this flashcard");
                     }
                     
+                    List<UUID> reviewers = cardProgressRepository.findUserIdsByFlashcardId(id);
+                    // Published first so in-transaction listeners still see the card's progress rows
+                    eventPublisher.publishEvent(new FlashcardDeletedEvent(id, flashcard.getDeck().getId(), reviewers));
                     flashcardRepository.delete(flashcard);
                 });
     }
 
     /**
-     * Find flashcards that are due for review
+     * Find flashcards that are due for review, most overdue first
      * @param userId The user ID
      * @param deckId The deck ID (optional)
-     * @param pageable Pagination information
-     * @return A page of flashcards due for review
+     * @param pageable Pagination information; the order is fixed, so it must be unsorted
+     * @return A slice of flashcards due for review
+     * @throws IllegalArgumentException if a sort is requested
+     */
+    public Slice<Flashcard> findFlashcardsDueForReview(UUID userId, UUID deckId, Pageable pageable) {
+        // The queries select from card_progress, so a sort on a flashcard property would not resolve
+        if (pageable.getSort().isSorted()) {
+            throw new IllegalArgumentException("Flashcards due for review are ordered most overdue first and cannot be sorted");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (deckId == null) {
+            // Served from the Redis due index when available; the page is fetched by primary key
+            Optional<List<UUID>> dueIds = dueIndexService.findDueFlashcardIds(
+                    userId, now, pageable.getOffset(), pageable.getPageSize() + 1);
+            if (dueIds.isPresent()) {
+                return toSlice(userId, dueIds.get(), pageable);
+            }
+            return flashcardRepository.findFlashcardsDueForReview(userId, now, pageable);
+        }
+        // Level-scheduled decks are due by day, straight from (level, last review date)
+        if (isLevelScheduled(userId, deckId)) {
+            return flashcardRepository.findLevelDueForReviewInDeck(
+                    userId, deckId, LocalDate.now().plusDays(1).atStartOfDay(), pageable);
+        }
+        return flashcardRepository.findFlashcardsDueForReviewInDeck(userId, deckId, now, pageable);
+    }
+
+    /**
+     * Classify a user's reviewed cards into review, new and learned cards as defined by the Review Card URD.
+     * Leitner-scheduled cards are classified by level and last review date, all others by their next
+     * review date; only card_progress is read, never the review history.
+     * @param userId The user ID
+     * @param deckId The deck ID (optional)
+     * @return The card counts per classification
+     */
+    public CardClassificationDTO classifyCards(UUID userId, UUID deckId) {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime tomorrow = today.plusDays(1);
+        String defaultScheduler = schedulerRegistry.getDefaultType().name();
+        List<Object[]> rows = deckId == null
+                ? cardProgressRepository.classifyByLevel(userId, defaultScheduler, today, tomorrow)
+                : cardProgressRepository.classifyByLevelInDeck(userId, deckId, defaultScheduler, today, tomorrow);
+        
+        Object[] row = rows.get(0);
+        long reviewCards = ((Number) row[0]).longValue();
+        long newCards = ((Number) row[1]).longValue();
+        long total = ((Number) row[2]).longValue();
+        return new CardClassificationDTO(reviewCards, newCards, total - reviewCards - newCards);
+    }
+
+    /**
+     * Load a page of flashcards by ID in due index order.
+     * One extra ID is requested to tell whether there is a next page.
+     */
+    private Slice<Flashcard> toSlice(UUID userId, List<UUID> dueIds, Pageable pageable) {
+        boolean hasNext = dueIds.size() > pageable.getPageSize();
+        List<UUID> pageIds = hasNext ? dueIds.subList(0, pageable.getPageSize()) : dueIds;
+        
+        Map<UUID, Flashcard> byId = flashcardRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Flashcard::getId, Function.identity()));
+        List<Flashcard> content = new ArrayList<>(pageIds.size());
+        List<UUID> stale = new ArrayList<>();
+        for (UUID id : pageIds) {
+            Flashcard flashcard = byId.get(id);
+            if (flashcard != null) {
+                content.add(flashcard);
+            } else {
+                stale.add(id);
+            }
+        }
+        dueIndexService.removeStale(userId, stale);
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Check whether the reviews of a deck use the level-based scheduler, by deck setting or user preference.
+     * Reads the cached deck and user snapshots, so a due page costs no extra queries.
      */
-    public Page<Flashcard> findFlashcardsDueForReview(UUID userId, UUID deckId, Pageable pageable) {
-        return flashcardRepository.findFlashcardsDueForReview(userId, deckId, pageable);
+    private boolean isLevelScheduled(UUID userId, UUID deckId) {
+        SchedulerType deckType = deckService.findSnapshotById(deckId).map(DeckSnapshot::schedulerType).orElse(null);
+        SchedulerType userType = deckType != null ? null
+                : userCache.findById(userId).map(UserSnapshot::schedulerType).orElse(null);
+        return schedulerRegistry.resolve(deckType, userType).getType() == SchedulerType.LEITNER;
     }
 }
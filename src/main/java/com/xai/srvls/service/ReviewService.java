@@ -1,17 +1,34 @@
 package com.xai.srvls.service;
 
+import com.xai.srvls.cache.FlashcardSnapshot;
+import com.xai.srvls.dto.BatchReviewResultDTO;
+import com.xai.srvls.dto.ReviewDTO;
 import com.xai.srvls.dto.ReviewStatisticsDTO;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.ingestion.WriteBehindIngestion;
+import com.xai.srvls.mapper.ReviewMapper;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.CardProgressId;
 import com.xai.srvls.model.Flashcard;
 import com.xai.srvls.model.Review;
+import com.xai.srvls.model.SchedulerType;
 import com.xai.srvls.model.User;
+import com.xai.srvls.repository.CardProgressRepository;
 import com.xai.srvls.repository.FlashcardRepository;
 import com.xai.srvls.repository.ReviewRepository;
 import com.xai.srvls.repository.UserRepository;
+import com.xai.srvls.scheduling.DueLoadBalancer;
+import com.xai.srvls.scheduling.SchedulerRegistry;
+import com.xai.srvls.scheduling.SchedulingState;
+import com.xai.srvls.scheduling.SpacedRepetitionAlgorithm;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -26,17 +43,44 @@ import java.util.stream.Collectors;
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
+    private final CardProgressRepository cardProgressRepository;
     private final FlashcardRepository flashcardRepository;
     private final UserRepository userRepository;
     private final DeckService deckService;
+    private final ReviewMapper reviewMapper;
+    private final WriteBehindIngestion writeBehindIngestion;
+    private final SchedulerRegistry schedulerRegistry;
+    private final DueLoadBalancer dueLoadBalancer;
+    private final DailyStatsService dailyStatsService;
+    private final SchedulerParametersService schedulerParametersService;
+    private final CardProgressRetryTemplate cardProgressRetryTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     @Autowired
-    public ReviewService(ReviewRepository reviewRepository, FlashcardRepository flashcardRepository,
-                         UserRepository userRepository, DeckService deckService) {
+    public ReviewService(ReviewRepository reviewRepository, CardProgressRepository cardProgressRepository,
+                         FlashcardRepository flashcardRepository, UserRepository userRepository,
+                         DeckService deckService, ReviewMapper reviewMapper,
+                         WriteBehindIngestion writeBehindIngestion, SchedulerRegistry schedulerRegistry,
+                         DueLoadBalancer dueLoadBalancer, DailyStatsService dailyStatsService,
+                         SchedulerParametersService schedulerParametersService,
+                         CardProgressRetryTemplate cardProgressRetryTemplate,
+                         ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.reviewRepository = reviewRepository;
+        this.cardProgressRepository = cardProgressRepository;
         this.flashcardRepository = flashcardRepository;
         this.userRepository = userRepository;
         this.deckService = deckService;
+        this.reviewMapper = reviewMapper;
+        this.writeBehindIngestion = writeBehindIngestion;
+        this.schedulerRegistry = schedulerRegistry;
+        this.dueLoadBalancer = dueLoadBalancer;
+        this.dailyStatsService = dailyStatsService;
+        this.schedulerParametersService = schedulerParametersService;
+        this.cardProgressRetryTemplate = cardProgressRetryTemplate;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     /**
@@ -72,14 +116,51 @@ public class ReviewService {
     }
 
     /**
-     * Create a review for a flashcard
+     * Create a review for a flashcard.
+     * Only the quality and response time come from the client; the scheduling fields are always
+     * computed by the card's scheduler, so a client cannot set its own schedule.
+     * Runs in its own transaction and is retried if a concurrent review of the same card commits first,
+     * so the review is always scheduled from the latest committed state of the card.
+     * In write-behind mode the review is journaled instead, see {@link #submitReview}.
      * @param review The review to create
      * @param flashcardId The flashcard ID
      * @param userId The user ID
      * @return The created review
      */
-    @Transactional
     public Review createReview(Review review, UUID flashcardId, UUID userId) {
+        if (writeBehindIngestion.isEnabled()) {
+            return submitReview(review, flashcardId, userId);
+        }
+        
+        return cardProgressRetryTemplate.execute(status -> {
+            review.setId(null);
+            return createReviewAttempt(review, flashcardId, userId);
+        });
+    }
+
+    /**
+     * Score a review against cached progress and journal it; the flusher persists it and publishes its event.
+     * Not retried and not run in a transaction: once the review is journaled nothing can roll it back,
+     * and running it again would journal and schedule the review twice.
+     */
+    private Review submitReview(Review review, UUID flashcardId, UUID userId) {
+        SpacedRepetitionAlgorithm algorithm = readOnlyTransactionTemplate.execute(
+                status -> prepareReview(review, flashcardId, userId));
+        User user = review.getUser();
+        Flashcard flashcard = review.getFlashcard();
+        return writeBehindIngestion.submit(review,
+                r -> cardProgressRepository.findById(new CardProgressId(userId, flashcardId))
+                        .map(CardProgress::copy)
+                        .orElseGet(() -> initProgress(user, flashcard)),
+                (r, progress) -> scheduleReview(r, progress, algorithm, new SchedulingState(),
+                        dueLoadBalancer.newLoad(userId)));
+    }
+
+    /**
+     * Load the user and flashcard of a review, check access and resolve the card's scheduler
+     * @return The scheduler of the card
+     */
+    private SpacedRepetitionAlgorithm prepareReview(Review review, UUID flashcardId, UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new com.xai.srvls.exception.UserNotFoundException(userId.toString()));
         
@@ -94,61 +175,261 @@ public class ReviewService {
         review.setUser(user);
         review.setFlashcard(flashcard);
         review.setReviewDate(LocalDateTime.now());
+        return schedulerRegistry.resolve(flashcard.getDeck().getSchedulerType(), user.getSchedulerType());
+    }
+
+    private Review createReviewAttempt(Review review, UUID flashcardId, UUID userId) {
+        SpacedRepetitionAlgorithm algorithm = prepareReview(review, flashcardId, userId);
+        User user = review.getUser();
+        Flashcard flashcard = review.getFlashcard();
+        Map<UUID, LocalDateTime> previousReviewDates = new HashMap<>(2);
         
-        // If the review doesn't have pre-set values, calculate them based on the SM-2 algorithm
-        if (review.getEasinessFactor() == 0) {
-            Optional<Review> previousReview = reviewRepository
-                    .findTopByFlashcardIdAndUserIdOrderByReviewDateDesc(flashcardId, userId);
-            
-            if (previousReview.isPresent()) {
-                Review prev = previousReview.get();
-                review.setEasinessFactor(prev.getEasinessFactor());
-                review.setRepetitions(prev.getRepetitions());
-            } else {
-                // Default values for first review
-                review.setEasinessFactor(2.5);
-                review.setRepetitions(0);
+        // Current scheduling state is a single primary-key read instead of a scan of the review history
+        CardProgress progress = cardProgressRepository.findById(new CardProgressId(userId, flashcardId))
+                .orElseGet(() -> initProgress(user, flashcard));
+        
+        previousReviewDates.put(flashcardId, previousReviewDate(progress));
+        scheduleReview(review, progress, algorithm, new SchedulingState(), dueLoadBalancer.newLoad(userId));
+        
+        Review savedReview = reviewRepository.save(review);
+        DailyStatsService.Batch stats = new DailyStatsService.Batch();
+        stats.add(userId, flashcardId, review.getReviewDate(), review.getQuality(), review.getResponseTimeMs());
+        dailyStatsService.apply(stats);
+        // Flush here so a lost race surfaces as a version conflict inside the retried attempt
+        cardProgressRepository.saveAndFlush(progress);
+        eventPublisher.publishEvent(new ReviewRecordedEvent(userId,
+                Map.of(flashcardId, progress.getNextReviewDate()), previousReviewDates,
+                Set.of(flashcard.getDeck().getId())));
+        return savedReview;
+    }
+
+    /**
+     * Create reviews for several flashcards in one transaction.
+     * Access to all flashcards is checked with one query, their progress is loaded with one query,
+     * and the inserts are flushed as JDBC batches. The whole batch is retried if it conflicts with
+     * a concurrent review of one of its cards.
+     * @param items The reviews to record, each carrying its flashcard ID and quality
+     * @param userId The user ID
+     * @return One result per item, in request order
+     */
+    public List<BatchReviewResultDTO> createReviews(List<ReviewDTO> items, UUID userId) {
+        // Journaled reviews of these cards are flushed before the batch transaction opens
+        writeBehindIngestion.invalidate(userId, items.stream()
+                .map(ReviewDTO::getFlashcardId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return cardProgressRetryTemplate.execute(status -> createReviewsAttempt(items, userId));
+    }
+
+    private List<BatchReviewResultDTO> createReviewsAttempt(List<ReviewDTO> items, UUID userId) {
+        User user = userRepository.getReferenceById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        
+        Set<UUID> flashcardIds = items.stream()
+                .map(ReviewDTO::getFlashcardId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        
+        Map<UUID, Boolean> access = new HashMap<>();
+        Map<UUID, SchedulerType> deckSchedulers = new HashMap<>();
+        Map<UUID, UUID> flashcardDecks = new HashMap<>();
+        if (!flashcardIds.isEmpty()) {
+            for (Object[] row : flashcardRepository.findAccessByIds(flashcardIds, userId)) {
+                access.put((UUID) row[0], (Boolean) row[1]);
+                deckSchedulers.put((UUID) row[0], (SchedulerType) row[2]);
+                flashcardDecks.put((UUID) row[0], (UUID) row[3]);
             }
+        }
+        List<UUID> accessibleIds = access.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Map<UUID, CardProgress> progressByFlashcard = loadProgress(user, accessibleIds);
+        
+        List<BatchReviewResultDTO> results = new ArrayList<>(items.size());
+        List<BatchReviewResultDTO> created = new ArrayList<>(items.size());
+        List<Review> reviews = new ArrayList<>(items.size());
+        Set<CardProgress> touched = new LinkedHashSet<>();
+        Map<UUID, LocalDateTime> previousReviewDates = new HashMap<>();
+        SchedulerType userScheduler = accessibleIds.isEmpty() ? null : user.getSchedulerType();
+        SchedulingState state = new SchedulingState();
+        DueLoadBalancer.DayLoad dayLoad = dueLoadBalancer.newLoad(userId);
+        
+        for (ReviewDTO item : items) {
+            UUID flashcardId = item.getFlashcardId();
+            Boolean accessible = flashcardId != null ? access.get(flashcardId) : null;
+            if (accessible == null) {
+                results.add(new BatchReviewResultDTO(flashcardId, HttpStatus.NOT_FOUND.value(),
+                        "Flashcard not found", null));
+                continue;
+            }
+            if (!accessible) {
+                results.add(new BatchReviewResultDTO(flashcardId, HttpStatus.FORBIDDEN.value(),
+                        "User not authorized to access this flashcard", null));
+                continue;
+            }
+            
+            Flashcard flashcard = flashcardRepository.getReferenceById(flashcardId);
+            CardProgress progress = progressByFlashcard.computeIfAbsent(
+                    flashcardId, id -> new CardProgress(user, flashcard));
+            
+            Review review = new Review(user, flashcard, item.getQuality());
+            review.setReviewDate(now);
+            review.setResponseTimeMs(item.getResponseTimeMs());
+            recordPreviousReviewDate(previousReviewDates, progress);
+            scheduleReview(review, progress,
+                    schedulerRegistry.resolve(deckSchedulers.get(flashcardId), userScheduler), state, dayLoad);
             
-            // Update based on quality
-            updateSpacedRepetitionParams(review);
+            BatchReviewResultDTO result = new BatchReviewResultDTO(flashcardId, HttpStatus.CREATED.value(), null, null);
+            results.add(result);
+            created.add(result);
+            reviews.add(review);
+            touched.add(progress);
         }
         
-        return reviewRepository.save(review);
+        reviewRepository.saveAll(reviews);
+        DailyStatsService.Batch stats = new DailyStatsService.Batch();
+        for (Review review : reviews) {
+            stats.add(userId, review.getFlashcard().getId(), review.getReviewDate(), review.getQuality(),
+                    review.getResponseTimeMs());
+        }
+        dailyStatsService.apply(stats);
+        cardProgressRepository.saveAll(touched);
+        publishRecorded(userId, touched, previousReviewDates, flashcardDecks);
+        
+        for (int i = 0; i < reviews.size(); i++) {
+            created.get(i).setReview(reviewMapper.toDTO(reviews.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Publish the new due dates of the cards a transaction advanced
+     * @param userId The user ID
+     * @param touched The progress rows that were advanced
+     * @param previousReviewDates The due dates of the cards before the transaction, see {@link #recordPreviousReviewDate}
+     * @param flashcardDecks The deck ID of each card
+     */
+    void publishRecorded(UUID userId, Collection<CardProgress> touched, Map<UUID, LocalDateTime> previousReviewDates,
+                         Map<UUID, UUID> flashcardDecks) {
+        if (touched.isEmpty()) {
+            return;
+        }
+        Map<UUID, LocalDateTime> nextReviewDates = new HashMap<>();
+        Set<UUID> deckIds = new HashSet<>();
+        for (CardProgress progress : touched) {
+            UUID flashcardId = progress.getId().getFlashcardId();
+            nextReviewDates.put(flashcardId, progress.getNextReviewDate());
+            deckIds.add(flashcardDecks.get(flashcardId));
+        }
+        eventPublisher.publishEvent(new ReviewRecordedEvent(userId, nextReviewDates, previousReviewDates, deckIds));
+    }
+
+    /**
+     * Remember a card's due date before the first review of it in a transaction
+     * @param previousReviewDates The due dates recorded so far, by flashcard ID
+     * @param progress The card's progress, not yet advanced by this review
+     */
+    static void recordPreviousReviewDate(Map<UUID, LocalDateTime> previousReviewDates, CardProgress progress) {
+        UUID flashcardId = progress.getId().getFlashcardId();
+        if (!previousReviewDates.containsKey(flashcardId)) {
+            previousReviewDates.put(flashcardId, previousReviewDate(progress));
+        }
+    }
+
+    /**
+     * @return the card's due date, or null if it was never reviewed
+     */
+    private static LocalDateTime previousReviewDate(CardProgress progress) {
+        return progress.getLastReviewDate() != null ? progress.getNextReviewDate() : null;
     }
 
     /**
-     * Update spaced repetition parameters for a review
-     * @param review The review to update
+     * Load the progress rows of a user for several flashcards with one query.
+     * Cards reviewed before the card_progress table existed are seeded from their latest reviews,
+     * again with a single query for all of them.
+     * @param user The user
+     * @param flashcardIds The flashcard IDs
+     * @return Progress rows keyed by flashcard ID; flashcards never reviewed are absent
      */
-    private void updateSpacedRepetitionParams(Review review) {
-        int quality = review.getQuality();
+    Map<UUID, CardProgress> loadProgress(User user, Collection<UUID> flashcardIds) {
+        Map<UUID, CardProgress> progressByFlashcard = new HashMap<>();
+        if (flashcardIds.isEmpty()) {
+            return progressByFlashcard;
+        }
         
-        // Implementation of SM-2 algorithm
-        if (quality < 3) {
-            // If response quality is less than 3, reset repetitions
-            review.setRepetitions(0);
-            review.setInterval(1);
-        } else {
-            // If quality is 3 or higher, increase repetitions count
-            review.setRepetitions(review.getRepetitions() + 1);
-            
-            // Calculate new interval based on repetitions
-            if (review.getRepetitions() == 1) {
-                review.setInterval(1);
-            } else if (review.getRepetitions() == 2) {
-                review.setInterval(6);
-            } else {
-                review.setInterval((int) Math.round(review.getInterval() * review.getEasinessFactor()));
+        for (CardProgress progress : cardProgressRepository.findByUserIdAndFlashcardIds(user.getId(), flashcardIds)) {
+            progressByFlashcard.put(progress.getId().getFlashcardId(), progress);
+        }
+        
+        List<UUID> missing = flashcardIds.stream()
+                .filter(id -> !progressByFlashcard.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            for (Review latest : reviewRepository.findLatestByUserIdAndFlashcardIds(user.getId(), missing)) {
+                progressByFlashcard.computeIfAbsent(latest.getFlashcard().getId(), id -> {
+                    CardProgress progress = new CardProgress(user, latest.getFlashcard());
+                    progress.recordReview(latest);
+                    return progress;
+                });
             }
         }
+        return progressByFlashcard;
+    }
+
+    /**
+     * Create the progress row for a flashcard the user has no progress for yet.
+     * Cards reviewed before the card_progress table existed are seeded once from their latest review.
+     * @param user The user
+     * @param flashcard The flashcard
+     * @return A new, not yet persisted progress row
+     */
+    private CardProgress initProgress(User user, Flashcard flashcard) {
+        CardProgress progress = new CardProgress(user, flashcard);
+        reviewRepository.findTopByFlashcardIdAndUserIdOrderByReviewDateDesc(flashcard.getId(), user.getId())
+                .ifPresent(progress::recordReview);
+        return progress;
+    }
+
+    /**
+     * Score a review from the card's current progress and advance the progress row.
+     * The scheduler runs on epoch days; the next review keeps the time of day of the review.
+     * The due day is then moved to the user's least-loaded day nearby, see {@link DueLoadBalancer},
+     * unless no day load is given.
+     * @param review The review to score
+     * @param progress The card's progress for the reviewing user
+     * @param algorithm The scheduler of the card
+     * @param state Scratch state, reused across calls by batch callers
+     * @param dayLoad The user's due counts, shared by the reviews of a batch; null to keep the scheduled day
+     */
+    void scheduleReview(Review review, CardProgress progress, SpacedRepetitionAlgorithm algorithm,
+                        SchedulingState state, DueLoadBalancer.DayLoad dayLoad) {
+        LocalDateTime reviewDate = review.getReviewDate();
+        int reviewDay = (int) reviewDate.toLocalDate().toEpochDay();
+        state.set(progress.getEasinessFactor(), progress.getInterval(), progress.getRepetitions(), progress.getLevel(),
+                progress.getLastReviewDate() != null
+                        ? (int) progress.getLastReviewDate().toLocalDate().toEpochDay()
+                        : SchedulingState.NEVER,
+                (int) progress.getNextReviewDate().toLocalDate().toEpochDay());
+        state.setStability(progress.getStability());
+        state.setDifficulty(progress.getDifficulty());
+        state.setParameters(algorithm.getType() == SchedulerType.FSRS
+                ? schedulerParametersService.getWeights(progress.getId().getUserId())
+                : null);
         
-        // Update easiness factor
-        double newEF = review.getEasinessFactor() + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
-        review.setEasinessFactor(Math.max(1.3, newEF));
+        int previousDueDay = state.getLastReviewDay() != SchedulingState.NEVER ? state.getDueDay() : SchedulingState.NEVER;
+        algorithm.schedule(state, review.getQuality(), reviewDay);
+        if (dayLoad != null) {
+            dueLoadBalancer.balance(dayLoad, algorithm, state, reviewDay, previousDueDay);
+        }
         
-        // Set next review date
-        review.setNextReviewDate(review.getReviewDate().plusDays(review.getInterval()));
+        review.setEasinessFactor(state.getEasinessFactor());
+        review.setInterval(state.getInterval());
+        review.setRepetitions(state.getRepetitions());
+        review.setNextReviewDate(reviewDate.plusDays(state.getDueDay() - reviewDay));
+        progress.recordReview(review);
+        progress.setStability(state.getStability());
+        progress.setDifficulty(state.getDifficulty());
     }
 
     /**
@@ -161,6 +442,26 @@ public class ReviewService {
         return deckService.canUserAccessDeck(flashcard.getDeck().getId(), userId);
     }
 
+    /**
+     * Check if a user can access a cached flashcard
+     * @param flashcard The flashcard snapshot
+     * @param userId The user ID
+     * @return true if the user can access the flashcard
+     */
+    public boolean canUserAccessFlashcard(FlashcardSnapshot flashcard, UUID userId) {
+        return deckService.canUserAccessDeck(flashcard.deckId(), userId);
+    }
+
+    /**
+     * Check if a user can access a flashcard by ID, without loading the flashcard
+     * @param flashcardId The flashcard ID
+     * @param userId The user ID
+     * @return true if the flashcard exists and the user can access it
+     */
+    public boolean canUserAccessFlashcard(UUID flashcardId, UUID userId) {
+        return deckService.canUserAccessFlashcard(flashcardId, userId);
+    }
+
     /**
      * Get review statistics for a user
      * @param userId The user ID
@@ -170,74 +471,56 @@ public class ReviewService {
      * @return Review statistics
      */
     public ReviewStatisticsDTO getReviewStatistics(UUID userId, LocalDate startDate, LocalDate endDate, UUID deckId) {
+        // Rollups answer any range from at most one row per day and deck, once they are complete
+        if (dailyStatsService.isReadable()) {
+            return dailyStatsService.getStatistics(userId, startDate, endDate, deckId);
+        }
+        
         // Convert dates to datetime for repository query
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
         
-        // Get all reviews in the date range
-        List<Review> reviews = reviewRepository.findByUserIdAndReviewDateBetween(userId, startDateTime, endDateTime);
-        
-        // Filter by deck if specified
-        if (deckId != null) {
-            reviews = reviews.stream()
-                    .filter(r -> r.getFlashcard().getDeck().getId().equals(deckId))
-                    .collect(Collectors.toList());
-        }
+        // One aggregate query: a row per day plus a total row, no review entities loaded
+        List<Object[]> rows = deckId == null
+                ? reviewRepository.aggregateStatistics(userId, startDateTime, endDateTime)
+                : reviewRepository.aggregateStatisticsInDeck(userId, deckId, startDateTime, endDateTime);
         
-        // Create statistics DTO
         ReviewStatisticsDTO statistics = new ReviewStatisticsDTO();
-        
-        // Total reviews
-        statistics.setTotalReviews(reviews.size());
-        
-        // Unique flashcards reviewed
-        long uniqueFlashcards = reviews.stream()
-                .map(r -> r.getFlashcard().getId())
-                .distinct()
-                .count();
-        statistics.setUniqueFlashcardsReviewed((int) uniqueFlashcards);
-        
-        // Average quality
-        double avgQuality = reviews.stream()
-                .mapToInt(Review::getQuality)
-                .average()
-                .orElse(0.0);
-        statistics.setAverageQuality(avgQuality);
-        
-        // Daily review counts
         Map<LocalDate, Integer> dailyCounts = new HashMap<>();
-        for (Review review : reviews) {
-            LocalDate date = review.getReviewDate().toLocalDate();
-            dailyCounts.put(date, dailyCounts.getOrDefault(date, 0) + 1);
-        }
-        statistics.setDailyReviewCounts(dailyCounts);
-        
-        // Quality distribution
         Map<Integer, Integer> qualityDist = new HashMap<>();
         for (int i = 0; i <= 5; i++) {
             qualityDist.put(i, 0);
         }
-        for (Review review : reviews) {
-            int quality = review.getQuality();
-            qualityDist.put(quality, qualityDist.getOrDefault(quality, 0) + 1);
+        
+        for (Object[] row : rows) {
+            int reviewCount = ((Number) row[2]).intValue();
+            if (((Number) row[1]).intValue() == 0) {
+                dailyCounts.put(toLocalDate(row[0]), reviewCount);
+                continue;
+            }
+            statistics.setTotalReviews(reviewCount);
+            statistics.setUniqueFlashcardsReviewed(((Number) row[3]).intValue());
+            statistics.setAverageQuality(row[4] != null ? ((Number) row[4]).doubleValue() : 0.0);
+            statistics.setAverageResponseTimeMs(row[5] != null ? ((Number) row[5]).longValue() : 0L);
+            
+            long masterCount = 0;
+            for (int quality = 0; quality <= 5; quality++) {
+                int count = ((Number) row[6 + quality]).intValue();
+                qualityDist.put(quality, count);
+                if (quality >= 4) {
+                    masterCount += count;
+                }
+            }
+            // Mastery percentage (quality 4-5)
+            statistics.setMasteryPercentage(reviewCount == 0 ? 0.0 : (double) masterCount / reviewCount * 100);
         }
+        statistics.setDailyReviewCounts(dailyCounts);
         statistics.setQualityDistribution(qualityDist);
         
-        // Average response time
-        long avgResponseTime = (long) reviews.stream()
-                .filter(r -> r.getResponseTimeMs() != null)
-                .mapToLong(Review::getResponseTimeMs)
-                .average()
-                .orElse(0.0);
-        statistics.setAverageResponseTimeMs((long) avgResponseTime);
-        
-        // Mastery percentage (quality 4-5)
-        long masterCount = reviews.stream()
-                .filter(r -> r.getQuality() >= 4)
-                .count();
-        double masteryPercentage = reviews.isEmpty() ? 0.0 : (double) masterCount / reviews.size() * 100;
-        statistics.setMasteryPercentage(masteryPercentage);
-        
         return statistics;
     }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
 }
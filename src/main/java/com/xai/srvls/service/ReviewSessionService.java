@@ -0,0 +1,434 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.cache.DeckAccess;
+import com.xai.srvls.dto.FlashcardDTO;
+import com.xai.srvls.dto.ReviewSessionDTO;
+import com.xai.srvls.dto.ReviewSessionPageDTO;
+import com.xai.srvls.event.DeckDeletedEvent;
+import com.xai.srvls.event.FlashcardDeletedEvent;
+import com.xai.srvls.event.ReviewRecordedEvent;
+import com.xai.srvls.mapper.FlashcardMapper;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.repository.CardProgressRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import com.xai.srvls.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily review sessions precomputed into Redis.
+ * <p>
+ * A nightly job builds the session of every active user (logged in or reviewed within the last days):
+ * due cards, most overdue first, then new cards up to each deck's daily limit. A session is stored as
+ * one binary value {@code session:{userId}:{date}}: a 4-byte due count followed by 16-byte flashcard IDs,
+ * so opening a session is a single GET. Sessions missing from Redis are built on demand.
+ * <p>
+ * After each committed review, the reviewed cards that are no longer due today are removed from the
+ * stored session in place by a script, which keeps its expiry; the session is not rebuilt. A session is
+ * deleted after the deletion of a flashcard or deck it may hold, so the next GET rebuilds it without the
+ * deleted cards. New cards the user already introduced today count against each deck's daily limit on rebuild.
+ * <p>
+ * Users are split into shards by a hash of their ID. Each shard is claimed with a SET NX EX lock and
+ * marked done when finished, so several application nodes can share the run and a node that dies
+ * mid-shard only delays that shard until its lock expires.
+ * <p>
+ * While a session is studied, the client pages through the due cards with their content using an opaque
+ * cursor. The cursor pins the session's due time and holds the (due date, flashcard ID) position of the
+ * last card returned, so each page is a keyset seek and the client can prefetch the next page early.
+ */
+@Service
+public class ReviewSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSessionService.class);
+
+    private static final String KEY_PREFIX = "session:";
+    private static final String LOCK_PREFIX = "session-build-lock:";
+    private static final String DONE_PREFIX = "session-build-done:";
+    private static final int UUID_BYTES = 16;
+    private static final int CURSOR_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + UUID_BYTES;
+    private static final long MIN_EPOCH_SECOND = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC);
+    private static final long MAX_EPOCH_SECOND = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC);
+
+    /**
+     * ARGV holds 16-byte flashcard IDs; removes them from the session and fixes its due count.
+     * Nothing happens when the session is missing.
+     */
+    private static final byte[] REMOVE_SCRIPT = (
+            "local value = redis.call('GET', KEYS[1]) " +
+            "if not value then return 0 end " +
+            "local removed = {} " +
+            "for i = 1, #ARGV do removed[ARGV[i]] = true end " +
+            "local dueCount = struct.unpack('>i4', value) " +
+            "local kept, keptDue, total = {}, 0, (#value - 4) / 16 " +
+            "for i = 0, total - 1 do " +
+            "  local id = string.sub(value, 5 + i * 16, 4 + (i + 1) * 16) " +
+            "  if not removed[id] then " +
+            "    kept[#kept + 1] = id " +
+            "    if i < dueCount then keptDue = keptDue + 1 end " +
+            "  end " +
+            "end " +
+            "if #kept == total then return 0 end " +
+            "redis.call('SET', KEYS[1], struct.pack('>i4', keptDue) .. table.concat(kept), 'KEEPTTL') " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final UserRepository userRepository;
+    private final CardProgressRepository cardProgressRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final FlashcardMapper flashcardMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${srvls.sessions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${srvls.sessions.shard-count:16}")
+    private int shardCount;
+
+    @Value("${srvls.sessions.active-days:30}")
+    private int activeDays;
+
+    @Value("${srvls.sessions.max-due-cards:500}")
+    private int maxDueCards;
+
+    @Value("${srvls.sessions.new-cards-per-deck:20}")
+    private int newCardsPerDeck;
+
+    @Value("${srvls.sessions.ttl:PT36H}")
+    private Duration ttl;
+
+    @Value("${srvls.sessions.lock-ttl:PT30M}")
+    private Duration lockTtl;
+
+    @Autowired
+    public ReviewSessionService(UserRepository userRepository, CardProgressRepository cardProgressRepository,
+                                FlashcardRepository flashcardRepository, StringRedisTemplate redisTemplate,
+                                FlashcardMapper flashcardMapper) {
+        this.userRepository = userRepository;
+        this.cardProgressRepository = cardProgressRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.redisTemplate = redisTemplate;
+        this.flashcardMapper = flashcardMapper;
+    }
+
+    /**
+     * Get today's review session of a user, building it if the nightly job has not
+     * @param userId the user ID
+     * @return the session
+     */
+    public ReviewSessionDTO getSession(UUID userId) {
+        LocalDate today = LocalDate.now();
+        String key = key(userId, today);
+        if (enabled) {
+            try {
+                byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                        connection.stringCommands().get(bytes(key)));
+                if (value != null) {
+                    return decode(today, value);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Review session unavailable for user {}, building it from the database", userId, e);
+                return build(userId, today);
+            }
+        }
+        ReviewSessionDTO session = build(userId, today);
+        store(key, session);
+        return session;
+    }
+
+    /**
+     * Get the next due flashcards of a user with their content.
+     * Cards, flashcards and decks are loaded with one query; access is checked once per deck, and
+     * cards of decks the user can no longer access are skipped.
+     * @param userId the user ID
+     * @param cursor the cursor returned with the previous page, or null to start a session
+     * @param limit the maximum number of cards
+     * @return the cards and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public ReviewSessionPageDTO getSessionCards(UUID userId, String cursor, int limit) {
+        LocalDateTime asOf;
+        List<CardProgress> due;
+        PageRequest page = PageRequest.of(0, limit + 1);
+        if (cursor == null) {
+            asOf = LocalDateTime.now();
+            due = cardProgressRepository.findDueWithFlashcards(userId, asOf, page);
+        } else {
+            ByteBuffer buffer = decodeCursor(cursor);
+            asOf = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            LocalDateTime afterDate = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            UUID afterId = new UUID(buffer.getLong(), buffer.getLong());
+            due = cardProgressRepository.findDueWithFlashcardsAfter(userId, asOf, afterDate, afterId, page);
+        }
+        
+        boolean hasNext = due.size() > limit;
+        List<CardProgress> content = hasNext ? due.subList(0, limit) : due;
+        Map<UUID, Boolean> deckAccess = new HashMap<>();
+        List<FlashcardDTO> cards = new ArrayList<>(content.size());
+        for (CardProgress progress : content) {
+            Deck deck = progress.getFlashcard().getDeck();
+            // The deck was fetched with the page; its owner ID is read without loading the owner
+            if (deckAccess.computeIfAbsent(deck.getId(),
+                    id -> new DeckAccess(deck.getOwner().getId(), deck.isPublic()).allows(userId))) {
+                cards.add(flashcardMapper.toDTO(progress.getFlashcard()));
+            }
+        }
+        String nextCursor = hasNext ? encodeCursor(asOf, content.get(content.size() - 1)) : null;
+        return new ReviewSessionPageDTO(cards, nextCursor);
+    }
+
+    /**
+     * Build today's sessions of all active users, one shard at a time
+     */
+    @Scheduled(cron = "${srvls.sessions.cron:0 30 0 * * *}")
+    public void buildDailySessions() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDateTime since = today.minusDays(activeDays).atStartOfDay();
+            long start = System.currentTimeMillis();
+            int built = 0;
+            for (int shard = 0; shard < shardCount; shard++) {
+                String doneKey = DONE_PREFIX + today + ":" + shard;
+                String lockKey = LOCK_PREFIX + today + ":" + shard;
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(doneKey))
+                        || !Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, nodeId, lockTtl))) {
+                    continue;
+                }
+                try {
+                    built += buildShard(shard, today, since);
+                    redisTemplate.opsForValue().set(doneKey, nodeId, ttl);
+                } finally {
+                    if (nodeId.equals(redisTemplate.opsForValue().get(lockKey))) {
+                        redisTemplate.delete(lockKey);
+                    }
+                }
+            }
+            logger.info("Review sessions: {} built for {} in {} ms", built, today, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Review session build failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int buildShard(int shard, LocalDate day, LocalDateTime since) {
+        int built = 0;
+        for (UUID userId : userRepository.findActiveUserIdsInShard(since, shardCount, shard)) {
+            try {
+                store(key(userId, day), build(userId, day));
+                built++;
+            } catch (RuntimeException e) {
+                // The user's session is built on demand instead
+                logger.warn("Could not build review session of user {}", userId, e);
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Remove the reviewed cards from today's session of a user once the reviews commit.
+     * Cards due again today, after a lapse, stay where they are.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewRecorded(ReviewRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDateTime tomorrow = today.plusDays(1).atStartOfDay();
+        String key = key(event.getUserId(), today);
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        keysAndArgs.add(bytes(key));
+        event.getNextReviewDates().forEach((flashcardId, nextReviewDate) -> {
+            if (!nextReviewDate.isBefore(tomorrow)) {
+                keysAndArgs.add(ByteBuffer.allocate(UUID_BYTES)
+                        .putLong(flashcardId.getMostSignificantBits())
+                        .putLong(flashcardId.getLeastSignificantBits())
+                        .array());
+            }
+        });
+        if (keysAndArgs.size() == 1) {
+            return;
+        }
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+                    .eval(REMOVE_SCRIPT, ReturnType.INTEGER, 1, keysAndArgs.toArray(new byte[0][])));
+        } catch (RuntimeException e) {
+            // A stale session would offer the reviewed cards again, so drop it instead
+            logger.warn("Could not update review session {}, dropping it", key, e);
+            evict(List.of(event.getUserId()));
+        }
+    }
+
+    /**
+     * Drop today's sessions that may hold a deleted flashcard once the delete commits.
+     * Runs in the deleting transaction, which still sees the card's progress rows.
+     */
+    @EventListener
+    public void onFlashcardDeleted(FlashcardDeletedEvent event) {
+        if (enabled) {
+            evictAfterCommit(flashcardRepository.findSessionUserIdsByFlashcardId(event.getFlashcardId()));
+        }
+    }
+
+    /**
+     * Drop today's sessions that may hold flashcards of a deleted deck once the delete commits.
+     * Runs in the deleting transaction, which still sees the deck's progress rows.
+     */
+    @EventListener
+    public void onDeckDeleted(DeckDeletedEvent event) {
+        if (enabled) {
+            evictAfterCommit(flashcardRepository.findSessionUserIdsByDeckId(event.getDeckId()));
+        }
+    }
+
+    private void evictAfterCommit(Collection<UUID> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userIds);
+                }
+            });
+        } else {
+            evict(userIds);
+        }
+    }
+
+    private void evict(Collection<UUID> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<String> keys = new ArrayList<>(userIds.size());
+        for (UUID userId : userIds) {
+            keys.add(key(userId, today));
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            // The session stays stale until it expires
+            logger.warn("Could not drop the review sessions of {} users", keys.size(), e);
+        }
+    }
+
+    private ReviewSessionDTO build(UUID userId, LocalDate day) {
+        List<UUID> due = cardProgressRepository.findDueFlashcardIds(
+                userId, day.plusDays(1).atStartOfDay(), PageRequest.of(0, maxDueCards));
+        List<UUID> fresh = flashcardRepository.findNewFlashcardIdsForSession(userId, newCardsPerDeck, day.atStartOfDay());
+        return new ReviewSessionDTO(day, due, fresh);
+    }
+
+    private void store(String key, ReviewSessionDTO session) {
+        if (!enabled) {
+            return;
+        }
+        byte[] value = encode(session);
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(bytes(key), value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not store review session {}", key, e);
+        }
+    }
+
+    private static byte[] encode(ReviewSessionDTO session) {
+        List<UUID> due = session.getDueFlashcardIds();
+        List<UUID> fresh = session.getNewFlashcardIds();
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + (due.size() + fresh.size()) * UUID_BYTES);
+        buffer.putInt(due.size());
+        for (UUID id : due) {
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+        for (UUID id : fresh) {
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    private static ReviewSessionDTO decode(LocalDate day, byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        int dueCount = buffer.getInt();
+        int total = buffer.remaining() / UUID_BYTES;
+        List<UUID> due = new ArrayList<>(dueCount);
+        List<UUID> fresh = new ArrayList<>(total - dueCount);
+        for (int i = 0; i < total; i++) {
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            (i < dueCount ? due : fresh).add(id);
+        }
+        return new ReviewSessionDTO(day, due, fresh);
+    }
+
+    private static String encodeCursor(LocalDateTime asOf, CardProgress last) {
+        LocalDateTime afterDate = last.getNextReviewDate();
+        UUID afterId = last.getId().getFlashcardId();
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_BYTES)
+                .putLong(asOf.toEpochSecond(ZoneOffset.UTC))
+                .putLong(afterDate.toEpochSecond(ZoneOffset.UTC))
+                .putInt(afterDate.getNano())
+                .putLong(afterId.getMostSignificantBits())
+                .putLong(afterId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decode and validate a cursor, so a tampered one is a bad request rather than a DateTimeException
+     */
+    private static ByteBuffer decodeCursor(String cursor) {
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != CURSOR_BYTES) {
+            throw new IllegalArgumentException("Invalid review session cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long asOf = buffer.getLong(0);
+        long afterDate = buffer.getLong(8);
+        int afterNano = buffer.getInt(16);
+        if (asOf < MIN_EPOCH_SECOND || asOf > MAX_EPOCH_SECOND
+                || afterDate < MIN_EPOCH_SECOND || afterDate > MAX_EPOCH_SECOND
+                || afterNano < 0 || afterNano > 999_999_999) {
+            throw new IllegalArgumentException("Invalid review session cursor");
+        }
+        return buffer;
+    }
+
+    private static String key(UUID userId, LocalDate day) {
+        return KEY_PREFIX + userId + ":" + day;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
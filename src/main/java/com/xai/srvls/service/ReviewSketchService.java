@@ -0,0 +1,312 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewActivityDTO;
+import com.xai.srvls.sketch.HyperLogLog;
+import com.xai.srvls.sketch.LogHistogram;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate cluster-wide review activity from mergeable sketches.
+ * <p>
+ * Each node keeps, per hour of review time, HyperLogLog sketches of the learners and flashcards
+ * reviewed and a histogram of response times, fed after commit by {@link DailyStatsService#apply}.
+ * The hours are periodically merged into the node's row of review_sketches and dropped from memory,
+ * so rows stay correct when late offline reviews land in an old hour. A range is summarized by
+ * merging its rows; the reviews table is never read.
+ * <p>
+ * Once a day is over, a nightly compaction merges its hourly rows of every node into one row per day,
+ * so a summary reads one row per day however many nodes and hours fed it. Reviews that land in a
+ * compacted day later are flushed into hourly rows again and folded in by the next compaction.
+ * Nodes write under a stable ID ({@code srvls.sketches.node-id}, the host name by default), so a
+ * restart keeps adding to the same rows.
+ */
+@Service
+public class ReviewSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSketchService.class);
+
+    private static final int PRECISION = 12; // 4 KB per sketch, about 1.6% standard error
+
+    private static final String SELECT_SQL =
+            "SELECT review_count, learners, flashcards, response_times FROM review_sketches " +
+            "WHERE hour = ? AND node_id = ? FOR UPDATE";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO review_sketches (hour, node_id, review_count, learners, flashcards, response_times) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (hour, node_id) DO UPDATE SET review_count = EXCLUDED.review_count, " +
+            "learners = EXCLUDED.learners, flashcards = EXCLUDED.flashcards, response_times = EXCLUDED.response_times";
+
+    private static final String RANGE_SQL =
+            "SELECT hour, review_count, learners, flashcards, response_times FROM review_sketches " +
+            "WHERE hour >= ? AND hour < ?";
+
+    // Node ID of the rows that hold a whole compacted day, stored at the start of the day
+    private static final String COMPACTED_NODE = "*";
+
+    private static final String UNCOMPACTED_DAYS_SQL =
+            "SELECT DISTINCT CAST(hour AS date) FROM review_sketches WHERE hour < ? AND node_id <> '" + COMPACTED_NODE + "'";
+
+    private static final String LOCK_DAY_SQL =
+            "SELECT pg_advisory_xact_lock(hashtextextended('review_sketches:' || CAST(? AS text), 0))";
+
+    private static final String DAY_ROWS_SQL =
+            "SELECT review_count, learners, flashcards, response_times FROM review_sketches " +
+            "WHERE hour >= ? AND hour < ? FOR UPDATE";
+
+    private static final String DELETE_DAY_SQL =
+            "DELETE FROM review_sketches WHERE hour >= ? AND hour < ? AND node_id <> '" + COMPACTED_NODE + "'";
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<LocalDateTime, HourSketch> hours = new ConcurrentHashMap<>();
+    private final String nodeId;
+
+    @Value("${srvls.sketches.retention-days:400}")
+    private int retentionDays;
+
+    @Autowired
+    public ReviewSketchService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${srvls.sketches.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = stableNodeId(nodeId);
+    }
+
+    /**
+     * @return the configured node ID, else the host name, cut to the 36 characters of the column
+     */
+    private static String stableNodeId(String configured) {
+        String id = configured;
+        if (id == null || id.isBlank()) {
+            try {
+                id = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                id = UUID.randomUUID().toString();
+                logger.warn("Host name unavailable, writing review sketches as node {}", id, e);
+            }
+        }
+        return id.length() > 36 ? id.substring(0, 36) : id;
+    }
+
+    /**
+     * Count one committed review
+     * @param userId the user ID
+     * @param flashcardId the flashcard ID
+     * @param reviewDate the review date
+     * @param responseTimeMs the response time, or null if not reported
+     */
+    public void record(UUID userId, UUID flashcardId, LocalDateTime reviewDate, Long responseTimeMs) {
+        LocalDateTime hour = reviewDate.truncatedTo(ChronoUnit.HOURS);
+        while (true) {
+            HourSketch sketch = hours.computeIfAbsent(hour, key -> new HourSketch());
+            synchronized (sketch) {
+                if (!sketch.closed) {
+                    sketch.reviews++;
+                    sketch.learners.add(userId);
+                    sketch.flashcards.add(flashcardId);
+                    if (responseTimeMs != null) {
+                        sketch.responseTimes.record(responseTimeMs);
+                    }
+                    return;
+                }
+            }
+            // Taken by a flush; the next lookup creates a fresh sketch
+        }
+    }
+
+    /**
+     * Merge the hours recorded since the last flush into this node's rows
+     */
+    @Scheduled(fixedDelayString = "${srvls.sketches.flush-interval-ms:60000}")
+    @PreDestroy
+    public synchronized void flush() {
+        for (LocalDateTime hour : new ArrayList<>(hours.keySet())) {
+            HourSketch sketch = hours.remove(hour);
+            if (sketch == null) {
+                continue;
+            }
+            synchronized (sketch) {
+                sketch.closed = true;
+            }
+            try {
+                // The row is locked so a compaction cannot fold it into its day between the read and the write
+                transactionTemplate.executeWithoutResult(status -> {
+                    HourSketch merged = new HourSketch();
+                    merged.merge(sketch);
+                    jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> readSketch(rs), hour, nodeId)
+                            .forEach(merged::merge);
+                    write(hour, nodeId, merged);
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Could not flush review sketches of {}, keeping them for the next flush", hour, e);
+                restore(hour, sketch);
+            }
+        }
+    }
+
+    /**
+     * Merge the hourly rows of every node into one row per day, for the days before today.
+     * Days are compacted under an advisory lock, so nodes running this at the same time do not race.
+     */
+    @Scheduled(cron = "${srvls.sketches.compact-cron:0 45 0 * * *}")
+    public void compact() {
+        List<LocalDate> days = jdbcTemplate.queryForList(UNCOMPACTED_DAYS_SQL, LocalDate.class,
+                LocalDate.now().atStartOfDay());
+        int compacted = 0;
+        for (LocalDate day : days) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compactDay(day));
+                compacted++;
+            } catch (RuntimeException e) {
+                logger.warn("Could not compact review sketches of {}", day, e);
+            }
+        }
+        logger.info("Compacted review sketches of {} days", compacted);
+    }
+
+    private void compactDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        jdbcTemplate.query(LOCK_DAY_SQL, ps -> ps.setObject(1, day.toString()), rs -> { });
+        HourSketch merged = new HourSketch();
+        jdbcTemplate.query(DAY_ROWS_SQL, (rs, rowNum) -> readSketch(rs), start, end).forEach(merged::merge);
+        if (jdbcTemplate.update(DELETE_DAY_SQL, start, end) > 0) {
+            write(start, COMPACTED_NODE, merged);
+        }
+    }
+
+    /**
+     * Drop sketches older than the retention period
+     */
+    @Scheduled(cron = "${srvls.sketches.purge-cron:0 15 4 * * *}")
+    public void purge() {
+        int deleted = jdbcTemplate.update("DELETE FROM review_sketches WHERE hour < ?",
+                LocalDate.now().minusDays(retentionDays).atStartOfDay());
+        logger.info("Purged {} review sketches", deleted);
+    }
+
+    /**
+     * Summarize review activity over a date range by merging its hourly sketches.
+     * Reviews recorded since each node's last flush are not included.
+     * @param startDate the first day
+     * @param endDate the last day, inclusive
+     * @return the activity
+     */
+    public ReviewActivityDTO summarize(LocalDate startDate, LocalDate endDate) {
+        HyperLogLog flashcards = new HyperLogLog(PRECISION);
+        LogHistogram responseTimes = new LogHistogram();
+        Map<LocalDate, HyperLogLog> dailyLearners = new TreeMap<>();
+        long[] reviews = {0};
+        jdbcTemplate.query(RANGE_SQL, rs -> {
+            LocalDate day = rs.getObject(1, LocalDateTime.class).toLocalDate();
+            reviews[0] += rs.getLong(2);
+            dailyLearners.computeIfAbsent(day, key -> new HyperLogLog(PRECISION))
+                    .merge(HyperLogLog.fromBytes(rs.getBytes(3)));
+            flashcards.merge(HyperLogLog.fromBytes(rs.getBytes(4)));
+            responseTimes.merge(LogHistogram.fromBytes(rs.getBytes(5)));
+        }, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+
+        HyperLogLog learners = new HyperLogLog(PRECISION);
+        Map<LocalDate, Long> dailyActiveLearners = new LinkedHashMap<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            HyperLogLog sketch = dailyLearners.get(day);
+            dailyActiveLearners.put(day, sketch == null ? 0L : sketch.estimate());
+            if (sketch != null) {
+                learners.merge(sketch);
+            }
+        }
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + Math.round(percentile * 100), responseTimes.valueAtQuantile(percentile));
+        }
+
+        ReviewActivityDTO activity = new ReviewActivityDTO();
+        activity.setStartDate(startDate);
+        activity.setEndDate(endDate);
+        activity.setReviewCount(reviews[0]);
+        activity.setActiveLearners(learners.estimate());
+        activity.setDistinctFlashcards(flashcards.estimate());
+        activity.setDailyActiveLearners(dailyActiveLearners);
+        activity.setResponseTimePercentiles(percentiles);
+        return activity;
+    }
+
+    private static HourSketch readSketch(ResultSet rs) throws SQLException {
+        return new HourSketch(rs.getLong(1), HyperLogLog.fromBytes(rs.getBytes(2)),
+                HyperLogLog.fromBytes(rs.getBytes(3)), LogHistogram.fromBytes(rs.getBytes(4)));
+    }
+
+    private void write(LocalDateTime hour, String node, HourSketch sketch) {
+        jdbcTemplate.update(UPSERT_SQL, hour, node, sketch.reviews, sketch.learners.toBytes(),
+                sketch.flashcards.toBytes(), sketch.responseTimes.toBytes());
+    }
+
+    private void restore(LocalDateTime hour, HourSketch sketch) {
+        while (true) {
+            HourSketch current = hours.computeIfAbsent(hour, key -> new HourSketch());
+            synchronized (current) {
+                if (!current.closed) {
+                    current.merge(sketch);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sketches of one hour; guarded by its own monitor
+     */
+    private static final class HourSketch {
+
+        private long reviews;
+        private final HyperLogLog learners;
+        private final HyperLogLog flashcards;
+        private final LogHistogram responseTimes;
+        private boolean closed;
+
+        HourSketch() {
+            this(0, new HyperLogLog(PRECISION), new HyperLogLog(PRECISION), new LogHistogram());
+        }
+
+        HourSketch(long reviews, HyperLogLog learners, HyperLogLog flashcards, LogHistogram responseTimes) {
+            this.reviews = reviews;
+            this.learners = learners;
+            this.flashcards = flashcards;
+            this.responseTimes = responseTimes;
+        }
+
+        void merge(HourSketch other) {
+            reviews += other.reviews;
+            learners.merge(other.learners);
+            flashcards.merge(other.flashcards);
+            responseTimes.merge(other.responseTimes);
+        }
+    }
+}
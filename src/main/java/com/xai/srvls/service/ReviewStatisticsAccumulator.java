@@ -0,0 +1,129 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single-pass accumulator of review statistics over primitive arrays.
+ * <p>
+ * Memory depends on the number of days in the range and the number of distinct flashcards, never on the
+ * number of reviews: a day-indexed count array, a six-slot quality histogram, long sums, and an
+ * open-addressing set of flashcard IDs stored as two long arrays. Not thread-safe.
+ */
+final class ReviewStatisticsAccumulator {
+
+    private static final int INITIAL_SET_CAPACITY = 1024; // Power of two
+
+    private final long firstDay;
+    private final int[] dailyCounts;
+    private final long[] qualityCounts = new long[6];
+    private long reviews;
+    private long responseTimeSum;
+    private long responseTimeCount;
+
+    private long[] cardHigh = new long[INITIAL_SET_CAPACITY];
+    private long[] cardLow = new long[INITIAL_SET_CAPACITY];
+    private boolean[] cardUsed = new boolean[INITIAL_SET_CAPACITY];
+    private int cards;
+
+    ReviewStatisticsAccumulator(LocalDate startDate, LocalDate endDate) {
+        this.firstDay = startDate.toEpochDay();
+        this.dailyCounts = new int[(int) (endDate.toEpochDay() - firstDay + 1)];
+    }
+
+    /**
+     * Add one review
+     * @param epochDay the epoch day of the review, within the range
+     * @param quality the quality, 0-5
+     * @param responseTimeMs the response time, or a negative value if not reported
+     * @param flashcardHigh the most significant bits of the flashcard ID
+     * @param flashcardLow the least significant bits of the flashcard ID
+     */
+    void add(long epochDay, int quality, long responseTimeMs, long flashcardHigh, long flashcardLow) {
+        reviews++;
+        dailyCounts[(int) (epochDay - firstDay)]++;
+        qualityCounts[quality]++;
+        if (responseTimeMs >= 0) {
+            responseTimeSum += responseTimeMs;
+            responseTimeCount++;
+        }
+        addCard(flashcardHigh, flashcardLow);
+    }
+
+    /**
+     * @return the statistics accumulated so far
+     */
+    ReviewStatisticsDTO toStatistics() {
+        ReviewStatisticsDTO statistics = new ReviewStatisticsDTO();
+        statistics.setTotalReviews((int) reviews);
+        statistics.setUniqueFlashcardsReviewed(cards);
+
+        long qualitySum = 0;
+        Map<Integer, Integer> qualityDist = new HashMap<>();
+        for (int quality = 0; quality < qualityCounts.length; quality++) {
+            qualityDist.put(quality, (int) qualityCounts[quality]);
+            qualitySum += quality * qualityCounts[quality];
+        }
+        statistics.setQualityDistribution(qualityDist);
+        statistics.setAverageQuality(reviews == 0 ? 0.0 : (double) qualitySum / reviews);
+
+        Map<LocalDate, Integer> daily = new HashMap<>();
+        for (int i = 0; i < dailyCounts.length; i++) {
+            if (dailyCounts[i] > 0) {
+                daily.put(LocalDate.ofEpochDay(firstDay + i), dailyCounts[i]);
+            }
+        }
+        statistics.setDailyReviewCounts(daily);
+        statistics.setAverageResponseTimeMs(responseTimeCount == 0 ? 0L : responseTimeSum / responseTimeCount);
+        long mastery = qualityCounts[4] + qualityCounts[5];
+        statistics.setMasteryPercentage(reviews == 0 ? 0.0 : (double) mastery / reviews * 100);
+        return statistics;
+    }
+
+    private void addCard(long high, long low) {
+        int mask = cardUsed.length - 1;
+        int slot = hash(high, low) & mask;
+        while (cardUsed[slot]) {
+            if (cardHigh[slot] == high && cardLow[slot] == low) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        cardUsed[slot] = true;
+        cardHigh[slot] = high;
+        cardLow[slot] = low;
+        if (++cards > cardUsed.length / 2) {
+            growCards();
+        }
+    }
+
+    private void growCards() {
+        long[] oldHigh = cardHigh;
+        long[] oldLow = cardLow;
+        boolean[] oldUsed = cardUsed;
+        int capacity = oldUsed.length * 2;
+        cardHigh = new long[capacity];
+        cardLow = new long[capacity];
+        cardUsed = new boolean[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldHigh[i], oldLow[i]) & mask;
+                while (cardUsed[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                cardUsed[slot] = true;
+                cardHigh[slot] = oldHigh[i];
+                cardLow[slot] = oldLow[i];
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,79 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Review statistics over arbitrarily long ranges, for administration and export.
+ * <p>
+ * Reviews are streamed through a server-side cursor (the fetch size bounds the rows held by the driver)
+ * into a {@link ReviewStatisticsAccumulator}, so memory does not grow with the number of reviews.
+ * Only the four columns the statistics need are read, with the day computed by the database.
+ */
+@Service
+public class ReviewStatisticsStreamService {
+
+    private static final String SELECT_SQL =
+            "SELECT CAST(r.review_date AS date) - DATE '1970-01-01', r.quality, r.response_time_ms, r.flashcard_id " +
+            "FROM reviews r ";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ReviewStatisticsStreamService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                         @Value("${srvls.statistics.fetch-size:10000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        // The PostgreSQL driver only uses a cursor (and honours the fetch size) inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Compute review statistics by streaming the reviews of a date range
+     * @param startDate the start date
+     * @param endDate the end date, inclusive
+     * @param userId the user ID, or null for all users
+     * @param deckId the deck ID, or null for all decks
+     * @return the statistics
+     */
+    public ReviewStatisticsDTO compute(LocalDate startDate, LocalDate endDate, UUID userId, UUID deckId) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>(4);
+        if (deckId != null) {
+            sql.append("JOIN flashcards f ON f.id = r.flashcard_id AND f.deck_id = ? ");
+            args.add(deckId);
+        }
+        sql.append("WHERE r.review_date >= ? AND r.review_date < ?");
+        args.add(startDate.atStartOfDay());
+        args.add(endDate.plusDays(1).atStartOfDay());
+        if (userId != null) {
+            sql.append(" AND r.user_id = ?");
+            args.add(userId);
+        }
+
+        ReviewStatisticsAccumulator accumulator = new ReviewStatisticsAccumulator(startDate, endDate);
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(sql.toString(), rs -> {
+            long responseTimeMs = rs.getLong(3);
+            if (rs.wasNull()) {
+                responseTimeMs = -1;
+            }
+            UUID flashcardId = rs.getObject(4, UUID.class);
+            accumulator.add(rs.getInt(1), rs.getInt(2), responseTimeMs,
+                    flashcardId.getMostSignificantBits(), flashcardId.getLeastSignificantBits());
+        }, args.toArray()));
+        return accumulator.toStatistics();
+    }
+}
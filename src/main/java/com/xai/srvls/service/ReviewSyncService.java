@@ -0,0 +1,231 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.OfflineReviewDTO;
+import com.xai.srvls.dto.ReviewSyncResultDTO;
+import com.xai.srvls.ingestion.WriteBehindIngestion;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.Flashcard;
+import com.xai.srvls.model.Review;
+import com.xai.srvls.model.SchedulerType;
+import com.xai.srvls.model.User;
+import com.xai.srvls.repository.CardProgressRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import com.xai.srvls.repository.UserRepository;
+import com.xai.srvls.scheduling.SchedulerRegistry;
+import com.xai.srvls.scheduling.SchedulingState;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service for synchronizing reviews recorded offline (UC19)
+ */
+@Service
+public class ReviewSyncService {
+
+    private static final String INSERT_REVIEW_SQL =
+            "INSERT INTO reviews (id, user_id, flashcard_id, client_review_id, quality, easiness_factor, " +
+            "interval, repetitions, review_date, next_review_date, response_time_ms) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, client_review_id) DO NOTHING";
+
+    private static final String UPDATE_SCHEDULE_SQL =
+            "UPDATE reviews SET easiness_factor = ?, interval = ?, repetitions = ?, next_review_date = ? " +
+            "WHERE id = ?";
+
+    private static final Comparator<OfflineReviewDTO> REPLAY_ORDER = Comparator
+            .comparing(OfflineReviewDTO::getFlashcardId)
+            .thenComparing(OfflineReviewDTO::getReviewedAt)
+            .thenComparing(OfflineReviewDTO::getClientReviewId);
+
+    private final ReviewService reviewService;
+    private final CardProgressRepository cardProgressRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CardProgressRetryTemplate cardProgressRetryTemplate;
+    private final WriteBehindIngestion writeBehindIngestion;
+    private final SchedulerRegistry schedulerRegistry;
+    private final DailyStatsService dailyStatsService;
+    private final EntityManager entityManager;
+
+    @Value("${srvls.sync.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    public ReviewSyncService(ReviewService reviewService, CardProgressRepository cardProgressRepository,
+                             FlashcardRepository flashcardRepository, UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate, CardProgressRetryTemplate cardProgressRetryTemplate,
+                             WriteBehindIngestion writeBehindIngestion, SchedulerRegistry schedulerRegistry,
+                             DailyStatsService dailyStatsService, EntityManager entityManager) {
+        this.reviewService = reviewService;
+        this.cardProgressRepository = cardProgressRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cardProgressRetryTemplate = cardProgressRetryTemplate;
+        this.writeBehindIngestion = writeBehindIngestion;
+        this.schedulerRegistry = schedulerRegistry;
+        this.dailyStatsService = dailyStatsService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Record reviews uploaded by a client that was offline.
+     * Reviews are replayed per flashcard in client timestamp order and processed in chunks,
+     * each in its own transaction. The persistence context is cleared after each chunk, so only one
+     * chunk of entities is held in memory at a time even when the request keeps an EntityManager open.
+     * Client timestamps carry their offset and are converted to the server's time zone, in which
+     * all review dates are stored.
+     * Duplicates (same client review ID) are dropped by the unique index on insert.
+     * @param items The offline reviews
+     * @param userId The user ID
+     * @return Counts of applied, duplicate and rejected reviews
+     */
+    public ReviewSyncResultDTO sync(List<OfflineReviewDTO> items, UUID userId) {
+        ReviewSyncResultDTO result = new ReviewSyncResultDTO();
+        result.setReceived(items.size());
+
+        // Drop repeats within the upload itself, then order each card's reviews by client time
+        Set<UUID> seen = new HashSet<>();
+        List<OfflineReviewDTO> ordered = new ArrayList<>(items.size());
+        for (OfflineReviewDTO item : items) {
+            if (seen.add(item.getClientReviewId())) {
+                ordered.add(item);
+            } else {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+        }
+        ordered.sort(REPLAY_ORDER);
+
+        for (int from = 0; from < ordered.size(); from += chunkSize) {
+            List<OfflineReviewDTO> chunk = ordered.subList(from, Math.min(from + chunkSize, ordered.size()));
+            // Journaled reviews of the chunk's cards are flushed before its transaction opens
+            writeBehindIngestion.invalidate(userId, chunk.stream()
+                    .map(OfflineReviewDTO::getFlashcardId)
+                    .collect(Collectors.toSet()));
+            // A chunk that loses a race on a card is rolled back and replayed; its inserts are idempotent
+            ReviewSyncResultDTO chunkResult = cardProgressRetryTemplate.execute(status -> {
+                ReviewSyncResultDTO attempt = new ReviewSyncResultDTO();
+                syncChunk(chunk, userId, attempt);
+                entityManager.flush();
+                entityManager.clear();
+                return attempt;
+            });
+            result.setApplied(result.getApplied() + chunkResult.getApplied());
+            result.setDuplicates(result.getDuplicates() + chunkResult.getDuplicates());
+            result.getRejectedClientReviewIds().addAll(chunkResult.getRejectedClientReviewIds());
+        }
+        return result;
+    }
+
+    /**
+     * Record one chunk of offline reviews.
+     * Rows are inserted first with ON CONFLICT DO NOTHING; only the rows that were actually
+     * inserted are then scheduled, so a re-uploaded review never advances a card twice.
+     */
+    private void syncChunk(List<OfflineReviewDTO> chunk, UUID userId, ReviewSyncResultDTO result) {
+        Set<UUID> flashcardIds = new HashSet<>();
+        for (OfflineReviewDTO item : chunk) {
+            flashcardIds.add(item.getFlashcardId());
+        }
+        // Accessible flashcards mapped to their deck's scheduler (null values allowed)
+        Map<UUID, SchedulerType> accessible = new HashMap<>();
+        Map<UUID, UUID> flashcardDecks = new HashMap<>();
+        for (Object[] row : flashcardRepository.findAccessByIds(flashcardIds, userId)) {
+            if ((Boolean) row[1]) {
+                accessible.put((UUID) row[0], (SchedulerType) row[2]);
+                flashcardDecks.put((UUID) row[0], (UUID) row[3]);
+            }
+        }
+
+        Instant now = Instant.now();
+        ZoneId zone = ZoneId.systemDefault();
+        List<OfflineReviewDTO> accepted = new ArrayList<>(chunk.size());
+        List<LocalDateTime> reviewDates = new ArrayList<>(chunk.size());
+        List<Object[]> insertArgs = new ArrayList<>(chunk.size());
+        List<UUID> reviewIds = new ArrayList<>(chunk.size());
+        for (OfflineReviewDTO item : chunk) {
+            if (!accessible.containsKey(item.getFlashcardId())) {
+                result.getRejectedClientReviewIds().add(item.getClientReviewId());
+                continue;
+            }
+            // Clamp client clock skew so a review can never be scheduled from the future
+            Instant reviewedInstant = item.getReviewedAt().toInstant();
+            LocalDateTime reviewedAt = LocalDateTime.ofInstant(reviewedInstant.isAfter(now) ? now : reviewedInstant, zone);
+
+            UUID reviewId = UUID.randomUUID();
+            accepted.add(item);
+            reviewDates.add(reviewedAt);
+            reviewIds.add(reviewId);
+            insertArgs.add(new Object[]{reviewId, userId, item.getFlashcardId(), item.getClientReviewId(),
+                    item.getQuality(), 2.5, 1, 0, reviewedAt, reviewedAt, item.getResponseTimeMs()});
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_REVIEW_SQL, insertArgs);
+
+        Set<UUID> touchedFlashcards = new HashSet<>();
+        DailyStatsService.Batch stats = new DailyStatsService.Batch();
+        for (int i = 0; i < accepted.size(); i++) {
+            if (inserted[i] > 0) {
+                OfflineReviewDTO item = accepted.get(i);
+                touchedFlashcards.add(item.getFlashcardId());
+                stats.add(userId, item.getFlashcardId(), reviewDates.get(i), item.getQuality(),
+                        item.getResponseTimeMs());
+            }
+        }
+        dailyStatsService.apply(stats);
+        User user = userRepository.getReferenceById(userId);
+        Map<UUID, CardProgress> progressByFlashcard = reviewService.loadProgress(user, touchedFlashcards);
+
+        List<Object[]> scheduleArgs = new ArrayList<>(accepted.size());
+        Set<CardProgress> touched = new LinkedHashSet<>();
+        Map<UUID, LocalDateTime> previousReviewDates = new HashMap<>();
+        SchedulerType userScheduler = user.getSchedulerType();
+        SchedulingState state = new SchedulingState();
+        for (int i = 0; i < accepted.size(); i++) {
+            if (inserted[i] == 0) {
+                result.setDuplicates(result.getDuplicates() + 1);
+                continue;
+            }
+            OfflineReviewDTO item = accepted.get(i);
+            Flashcard flashcard = flashcardRepository.getReferenceById(item.getFlashcardId());
+            CardProgress progress = progressByFlashcard.computeIfAbsent(
+                    item.getFlashcardId(), id -> new CardProgress(user, flashcard));
+
+            Review review = new Review(user, flashcard, item.getQuality());
+            review.setReviewDate(reviewDates.get(i));
+            if (progress.getLastReviewDate() == null || !review.getReviewDate().isBefore(progress.getLastReviewDate())) {
+                ReviewService.recordPreviousReviewDate(previousReviewDates, progress);
+                // Replayed reviews keep their scheduled day: balancing them against today's load is meaningless
+                reviewService.scheduleReview(review, progress,
+                        schedulerRegistry.resolve(accessible.get(item.getFlashcardId()), userScheduler), state, null);
+                touched.add(progress);
+            } else {
+                // Older than a review the server already applied: keep it as history only
+                review.setEasinessFactor(progress.getEasinessFactor());
+                review.setInterval(progress.getInterval());
+                review.setRepetitions(progress.getRepetitions());
+                review.setNextReviewDate(progress.getNextReviewDate());
+            }
+            scheduleArgs.add(new Object[]{review.getEasinessFactor(), review.getInterval(),
+                    review.getRepetitions(), review.getNextReviewDate(), reviewIds.get(i)});
+            result.setApplied(result.getApplied() + 1);
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SCHEDULE_SQL, scheduleArgs);
+        cardProgressRepository.saveAll(touched);
+        reviewService.publishRecorded(userId, touched, previousReviewDates, flashcardDecks);
+    }
+}
@@ -0,0 +1,50 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.model.SchedulerParameters;
+import com.xai.srvls.repository.SchedulerParametersRepository;
+import com.xai.srvls.scheduling.FsrsAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Service for per-user scheduler parameters
+ */
+@Service
+public class SchedulerParametersService {
+
+    private final SchedulerParametersRepository schedulerParametersRepository;
+
+    @Autowired
+    public SchedulerParametersService(SchedulerParametersRepository schedulerParametersRepository) {
+        this.schedulerParametersRepository = schedulerParametersRepository;
+    }
+
+    /**
+     * Get the FSRS weights of a user
+     * @param userId the user ID
+     * @return the fitted weights, or the defaults if the user has not been fitted yet
+     */
+    @Cacheable(value = "schedulerParameters", key = "#userId")
+    public double[] getWeights(UUID userId) {
+        return schedulerParametersRepository.findById(userId)
+                .map(SchedulerParameters::getWeights)
+                .filter(weights -> weights.length == FsrsAlgorithm.WEIGHT_COUNT)
+                .orElse(FsrsAlgorithm.DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Save the result of a fit
+     * @param parameters the fitted parameters
+     * @return the saved parameters
+     */
+    @Transactional
+    @CacheEvict(value = "schedulerParameters", key = "#parameters.userId")
+    public SchedulerParameters save(SchedulerParameters parameters) {
+        return schedulerParametersRepository.save(parameters);
+    }
+}
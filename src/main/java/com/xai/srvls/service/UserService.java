@@ -1,10 +1,10 @@
 package com.xai.srvls.service;
 
+import com.xai.srvls.cache.UserCache;
+import com.xai.srvls.cache.UserSnapshot;
 import com.xai.srvls.model.User;
 import com.xai.srvls.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,11 +23,13 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
     
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserCache userCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
     
     /**
@@ -35,17 +37,42 @@ public class UserService {
      * @param id the user ID
      * @return an Optional containing the user if found
      */
-    @Cacheable(value = "users", key = "#id", unless = "#result == null")
     public Optional<User> findById(UUID id) {
         return userRepository.findById(id);
     }
     
+    /**
+     * Find a user by ID as a cached snapshot
+     * @param id the user ID
+     * @return an Optional containing the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findSnapshotById(UUID id) {
+        return userCache.findById(id);
+    }
+    
+    /**
+     * Find a user by username as a cached snapshot
+     * @param username the username
+     * @return an Optional containing the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findSnapshotByUsername(String username) {
+        return userCache.findByUsername(username);
+    }
+    
+    /**
+     * Find a user by email as a cached snapshot
+     * @param email the email address
+     * @return an Optional containing the user's snapshot if found
+     */
+    public Optional<UserSnapshot> findSnapshotByEmail(String email) {
+        return userCache.findByEmail(email);
+    }
+    
     /**
      * Find a user by username
      * @param username the username
      * @return an Optional containing the user if found
      */
-    @Cacheable(value = "users", key = "#username", unless = "#result == null")
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -55,7 +82,6 @@ public class UserService {
      * @param email the email address
      * @return an Optional containing the user if found
      */
-    @Cacheable(value = "users", key = "#email", unless = "#result == null")
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -74,9 +100,10 @@ public class UserService {
      * @return the saved user
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#user.id")
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getId());
+        return saved;
     }
     
     /**
@@ -87,12 +114,13 @@ public class UserService {
      * @throws UsernameNotFoundException if the user is not found
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public User update(UUID id, User updatedUser) {
+        userCache.evict(id);
         return userRepository.findById(id)
                 .map(user -> {
                     user.setFirstName(updatedUser.getFirstName());
                     user.setLastName(updatedUser.getLastName());
+                    user.setSchedulerType(updatedUser.getSchedulerType());
                     if (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty()) {
                         user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
                     }
@@ -106,8 +134,8 @@ public class UserService {
      * @param id the user ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void delete(UUID id) {
+        userCache.evict(id);
         userRepository.deleteById(id);
     }
     
@@ -116,8 +144,8 @@ public class UserService {
      * @param id the user ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void updateLastLogin(UUID id) {
+        userCache.evict(id);
         userRepository.findById(id).ifPresent(user -> {
             user.setLastLoginAt(LocalDateTime.now());
             userRepository.save(user);
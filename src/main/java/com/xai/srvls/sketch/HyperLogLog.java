@@ -0,0 +1,115 @@
+package com.xai.srvls.sketch;
+
+import java.util.UUID;
+
+/**
+ * HyperLogLog distinct counter over UUIDs.
+ * <p>
+ * Uses 2^precision one-byte registers and a 64-bit hash, so no large-range correction is needed;
+ * small cardinalities fall back to linear counting. The standard error is about 1.04 / sqrt(2^precision).
+ * Sketches of the same precision merge by taking the register-wise maximum, so counts over any union
+ * of hours are exact merges of the hourly sketches. Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Create an empty sketch
+     * @param precision the number of index bits, 4-16
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * Restore a sketch from {@link #toBytes}
+     * @param bytes the registers
+     * @return the sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        int precision = Integer.numberOfTrailingZeros(bytes.length);
+        if (bytes.length != 1 << precision || precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch: " + bytes.length + " registers");
+        }
+        return new HyperLogLog(precision, bytes.clone());
+    }
+
+    /**
+     * Count a UUID
+     * @param id the UUID
+     */
+    public void add(UUID id) {
+        long hash = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Add another sketch's counts to this one
+     * @param other a sketch of the same precision
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct UUIDs added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return a copy of the registers
+     */
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /**
+     * Murmur3 64-bit finalizer
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb3fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
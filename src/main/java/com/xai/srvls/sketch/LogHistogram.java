@@ -0,0 +1,146 @@
+package com.xai.srvls.sketch;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Histogram of non-negative values with log-linear buckets, in the manner of HDR histograms.
+ * <p>
+ * Values below 32 get a bucket each; above that, each power of two is split into 32 buckets, so a
+ * reported quantile is within about 3% of the true value. Values are clamped to {@link Integer#MAX_VALUE}.
+ * Histograms merge by adding bucket counts. Not thread-safe.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (31 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    /**
+     * Restore a histogram from {@link #toBytes}
+     * @param bytes the encoded histogram
+     * @return the histogram
+     */
+    public static LogHistogram fromBytes(byte[] bytes) {
+        LogHistogram histogram = new LogHistogram();
+        int[] position = {0};
+        int index = -1;
+        while (position[0] < bytes.length) {
+            index += (int) readVarlong(bytes, position);
+            long count = readVarlong(bytes, position);
+            if (index >= BUCKETS) {
+                throw new IllegalArgumentException("Not a histogram: bucket " + index);
+            }
+            histogram.counts[index] += count;
+            histogram.total += count;
+        }
+        return histogram;
+    }
+
+    /**
+     * Count a value
+     * @param value the value; negative values count as 0
+     */
+    public void record(long value) {
+        counts[bucket(value)]++;
+        total++;
+    }
+
+    /**
+     * Add another histogram's counts to this one
+     * @param other the histogram
+     */
+    public void merge(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long count() {
+        return total;
+    }
+
+    /**
+     * Get the value at a quantile
+     * @param quantile the quantile, 0-1
+     * @return the midpoint of the bucket holding the quantile, or 0 if empty
+     */
+    public long valueAtQuantile(double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpoint(i);
+            }
+        }
+        return midpoint(BUCKETS - 1);
+    }
+
+    /**
+     * Encode the non-empty buckets as varint pairs of (index delta, count)
+     * @return the encoded histogram
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int previous = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                writeVarlong(out, i - previous);
+                writeVarlong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static int bucket(long value) {
+        int v = (int) Math.min(Math.max(value, 0), Integer.MAX_VALUE);
+        if (v < SUB_BUCKETS) {
+            return v;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(v);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + ((v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    static long midpoint(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    private static void writeVarlong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarlong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated histogram");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed histogram");
+    }
+}
@@ -0,0 +1,96 @@
+package com.xai.srvls.cache;
+
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.model.ERole;
+import com.xai.srvls.model.Role;
+import com.xai.srvls.model.SchedulerType;
+import com.xai.srvls.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a cached deck: the {@link DeckSnapshot} codec against Java serialization of the Deck
+ * entity, as the decks cache stored it before snapshots. Payload sizes of the same fixture are checked
+ * by {@link SnapshotCodecTest}.
+ * <p>
+ * Run from the test classpath with {@link #main}, or through the JMH runner with {@code -prof gc}
+ * to see the allocation per round trip as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotCodecBenchmark {
+
+    private final RedisSerializer<Object> java = RedisSerializer.java();
+    private final DeckSnapshot snapshot = snapshot();
+    private final Deck entity = entity();
+
+    @Benchmark
+    public DeckSnapshot codec() {
+        return DeckSnapshot.CODEC.deserialize(DeckSnapshot.CODEC.serialize(snapshot));
+    }
+
+    @Benchmark
+    public Object javaSerialization() {
+        return java.deserialize(java.serialize(entity));
+    }
+
+    /**
+     * A typical deck as cached: short names and tags, a description, both timestamps set
+     */
+    static DeckSnapshot snapshot() {
+        return new DeckSnapshot(UUID.fromString("6f1c2a3e-8d4b-4c1a-9e2f-0a1b2c3d4e5f"), "Spanish Verbs",
+                "Irregular present tense verbs", UUID.fromString("0e9d8c7b-6a5f-4e3d-8c2b-1a0f9e8d7c6b"), "maria",
+                true, "en", "es", "spanish", SchedulerType.SM2, 20, 250,
+                LocalDateTime.of(2024, 3, 1, 9, 30), LocalDateTime.of(2024, 5, 2, 18, 5, 12, 345_000_000));
+    }
+
+    /**
+     * The entity the snapshot was taken from, with its owner loaded
+     */
+    static Deck entity() {
+        DeckSnapshot snapshot = snapshot();
+        User owner = new User(snapshot.ownerUsername(), "maria@example.com", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3Z");
+        owner.setId(snapshot.ownerId());
+        owner.setRoles(new HashSet<>(Set.of(new Role(ERole.ROLE_USER))));
+        ReflectionTestUtils.setField(owner, "createdAt", LocalDateTime.of(2024, 1, 15, 12, 0));
+
+        Deck deck = new Deck(snapshot.name(), owner);
+        deck.setId(snapshot.id());
+        deck.setDescription(snapshot.description());
+        deck.setPublic(snapshot.isPublic());
+        deck.setLanguageFrom(snapshot.languageFrom());
+        deck.setLanguageTo(snapshot.languageTo());
+        deck.setTags(snapshot.tags());
+        deck.setSchedulerType(snapshot.schedulerType());
+        deck.setNewCardsPerDay(snapshot.newCardsPerDay());
+        ReflectionTestUtils.setField(deck, "createdAt", snapshot.createdAt());
+        ReflectionTestUtils.setField(deck, "updatedAt", snapshot.updatedAt());
+        return deck;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SnapshotCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,35 @@
+package com.xai.srvls.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotCodecTest {
+
+    @Test
+    void roundTripsADeck() {
+        DeckSnapshot snapshot = SnapshotCodecBenchmark.snapshot();
+
+        assertEquals(snapshot, DeckSnapshot.CODEC.deserialize(DeckSnapshot.CODEC.serialize(snapshot)));
+    }
+
+    @Test
+    void encodesADeckInAFractionOfItsJavaSerializedEntity() {
+        byte[] codec = DeckSnapshot.CODEC.serialize(SnapshotCodecBenchmark.snapshot());
+        byte[] java = RedisSerializer.java().serialize(SnapshotCodecBenchmark.entity());
+
+        // Two header bytes, 101 bytes of fixed-width fields and length prefixes, 61 bytes of text
+        assertEquals(164, codec.length);
+        assertTrue(java.length > 5 * codec.length, "Java serialization took " + java.length + " bytes");
+    }
+
+    @Test
+    void treatsJavaSerializedValuesAsMisses() {
+        byte[] java = RedisSerializer.java().serialize(SnapshotCodecBenchmark.entity());
+
+        assertNull(DeckSnapshot.CODEC.deserialize(java));
+    }
+}
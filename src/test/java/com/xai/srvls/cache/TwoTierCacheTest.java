@@ -0,0 +1,212 @@
+package com.xai.srvls.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTest {
+
+    private static final int WAITERS = 4;
+
+    private Cache remote;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCache cache;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        remote = mock(Cache.class);
+        when(remote.getName()).thenReturn("decks");
+        meterRegistry = new SimpleMeterRegistry();
+        cache = cache(0, Duration.ofSeconds(10), key -> -1L);
+        executor = Executors.newFixedThreadPool(WAITERS + 1);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void putWaitsForTheCommit() {
+        cache.put("deck", "snapshot");
+        verify(remote, never()).put("deck", "snapshot");
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(remote).put("deck", "snapshot");
+    }
+
+    @Test
+    void putIsDroppedOnRollback() {
+        cache.put("deck", "snapshot");
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(remote, never()).put("deck", "snapshot");
+    }
+
+    @Test
+    void evictRunsAtOnceAndAgainAfterTheCommit() {
+        cache.evict("deck");
+        verify(remote).evict("deck");
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(remote, times(2)).evict("deck");
+    }
+
+    @Test
+    void putOutsideATransactionRunsAtOnce() {
+        TransactionSynchronizationManager.clear();
+
+        cache.put("deck", "snapshot");
+        verify(remote).put("deck", "snapshot");
+    }
+
+    @Test
+    void concurrentMissesRunOneLoader() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<Object>> callers = getConcurrently(WAITERS + 1, () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "snapshot";
+        });
+        awaitCoalesced(WAITERS);
+        release.countDown();
+
+        for (Future<Object> caller : callers) {
+            assertEquals("snapshot", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void loaderFailureReachesEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        List<Future<Object>> callers = getConcurrently(WAITERS + 1, () -> {
+            release.await();
+            throw failure;
+        });
+        awaitCoalesced(WAITERS);
+        release.countDown();
+
+        for (Future<Object> caller : callers) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(Cache.ValueRetrievalException.class, thrown.getCause());
+            assertSame(failure, thrown.getCause().getCause());
+        }
+    }
+
+    @Test
+    void earlyRefreshKeepsServingTheCurrentValue() throws Exception {
+        // The Redis entry is about to expire, so every read refreshes early
+        cache = cache(1.0, Duration.ofSeconds(10), key -> 0L);
+        when(remote.get("deck")).thenReturn(new SimpleValueWrapper("current"));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> refresher = executor.submit(() -> cache.get("deck", () -> {
+            loading.countDown();
+            release.await();
+            return "refreshed";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        assertEquals("current", cache.get("deck", () -> {
+            throw new AssertionError("A second refresh must not start");
+        }));
+        release.countDown();
+        assertEquals("refreshed", refresher.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waitersGiveUpAfterTheLoadTimeout() throws Exception {
+        cache = cache(0, Duration.ofMillis(100), key -> -1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> loader = executor.submit(() -> cache.get("deck", () -> {
+            loading.countDown();
+            release.await();
+            return "snapshot";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Cache.ValueRetrievalException thrown = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("deck", () -> "never called"));
+        assertInstanceOf(TimeoutException.class, thrown.getCause());
+        release.countDown();
+        assertEquals("snapshot", loader.get(5, TimeUnit.SECONDS));
+    }
+
+    private TwoTierCache cache(double earlyRefreshBeta, Duration loadTimeout, Function<String, Long> remoteTtlMillis) {
+        return new TwoTierCache(remote, Caffeine.newBuilder().build(), mock(CacheInvalidationPublisher.class),
+                meterRegistry, Duration.ofHours(1), earlyRefreshBeta, loadTimeout, remoteTtlMillis);
+    }
+
+    /**
+     * Get the same missing key from several threads at once
+     */
+    private List<Future<Object>> getConcurrently(int threads, Callable<Object> loader) {
+        List<Future<Object>> callers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            callers.add(executor.submit(() -> cache.get("deck", loader)));
+        }
+        return callers;
+    }
+
+    /**
+     * Wait until the given number of callers are waiting for another caller's load
+     */
+    private void awaitCoalesced(int waiters) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("srvls.cache.loads").tag("type", "coalesced").counter().count() < waiters) {
+            assertTrue(System.currentTimeMillis() < deadline, "Callers did not coalesce");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.xai.srvls.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the query plans of the due queue queries against PostgreSQL, so a change to the queries
+ * or to the card_progress indexes cannot silently turn them back into scans of the review history.
+ * The plans are those of the SQL Hibernate actually generates for the repository methods, captured
+ * with a statement inspector and explained as prepared statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.xai.srvls.repository.FlashcardRepositoryQueryPlanTest$SqlCapture")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlashcardRepositoryQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private CardProgressRepository cardProgressRepository;
+
+    private UUID userId;
+    private UUID deckId;
+
+    /**
+     * 50 users with one deck of 400 reviewed cards each, due from a month ago to a month ahead,
+     * and five reviews of every card in the review history
+     */
+    @BeforeEach
+    void createProgress() {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, email, created_at, active) " +
+                "SELECT gen_random_uuid(), 'user' || i, 'secret', 'user' || i || '@example.com', now(), true " +
+                "FROM generate_series(1, 50) i");
+        jdbcTemplate.update("INSERT INTO decks (id, name, owner_id, created_at, is_public) " +
+                "SELECT gen_random_uuid(), 'deck of ' || u.username, u.id, now(), false FROM users u");
+        jdbcTemplate.update("INSERT INTO flashcards (id, front_content, back_content, deck_id, created_at) " +
+                "SELECT gen_random_uuid(), 'front ' || i, 'back ' || i, d.id, now() " +
+                "FROM decks d CROSS JOIN generate_series(1, 400) i");
+        jdbcTemplate.update("INSERT INTO card_progress (user_id, flashcard_id, easiness_factor, \"interval\", " +
+                "repetitions, level, stability, difficulty, next_review_date, last_review_date, version) " +
+                "SELECT d.owner_id, f.id, 2.5, 1, 1, 1, 0, 0, " +
+                "now() + (random() * 60 - 30) * interval '1 day', now() - interval '1 day', 0 " +
+                "FROM flashcards f JOIN decks d ON d.id = f.deck_id");
+        jdbcTemplate.update("INSERT INTO reviews (id, user_id, flashcard_id, quality, easiness_factor, \"interval\", " +
+                "repetitions, review_date, next_review_date) " +
+                "SELECT gen_random_uuid(), p.user_id, p.flashcard_id, 4, 2.5, 1, 1, " +
+                "now() - r * interval '1 day', now() - (r - 1) * interval '1 day' " +
+                "FROM card_progress p CROSS JOIN generate_series(1, 5) r");
+        jdbcTemplate.execute("ANALYZE users, decks, flashcards, card_progress, reviews");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'user1'", UUID.class);
+        deckId = jdbcTemplate.queryForObject("SELECT id FROM decks WHERE owner_id = ?", UUID.class, userId);
+        SqlCapture.statements.clear();
+    }
+
+    @Test
+    void dueQueueReadsTheUserDueIndex() {
+        flashcardRepository.findFlashcardsDueForReview(userId, LocalDateTime.now(), PageRequest.of(0, 20));
+        String plan = explain(capturedDueQuery(), "'" + userId + "'", "localtimestamp", "21");
+
+        assertTrue(plan.contains("idx_card_progress_user_due_flashcard"), plan);
+        assertFalse(plan.contains("Seq Scan on card_progress"), plan);
+        assertFalse(plan.contains("reviews"), plan);
+    }
+
+    @Test
+    void deckDueQueueReadsTheUserDueIndex() {
+        flashcardRepository.findFlashcardsDueForReviewInDeck(userId, deckId, LocalDateTime.now(), PageRequest.of(0, 20));
+        String plan = explain(capturedDueQuery(), "'" + userId + "'", "'" + deckId + "'", "localtimestamp", "21");
+
+        assertTrue(plan.contains("idx_card_progress_user_due_flashcard"), plan);
+        assertFalse(plan.contains("Seq Scan on card_progress"), plan);
+        assertFalse(plan.contains("reviews"), plan);
+    }
+
+    @Test
+    void sessionKeysetStartsTheIndexScanAtThePosition() {
+        cardProgressRepository.findDueWithFlashcardsAfter(userId, LocalDateTime.now(), LocalDateTime.now().minusDays(7),
+                UUID.randomUUID(), PageRequest.of(0, 21));
+        String plan = explain(capturedDueQuery(), "'" + userId + "'", "localtimestamp",
+                "localtimestamp - interval '7 days'", "'" + UUID.randomUUID() + "'", "21");
+
+        String indexCondition = plan.lines()
+                .filter(line -> line.contains("Index Cond"))
+                .findFirst()
+                .orElse("");
+        assertTrue(plan.contains("idx_card_progress_user_due_flashcard"), plan);
+        assertTrue(indexCondition.contains("ROW("), plan);
+        assertFalse(plan.contains("Seq Scan on card_progress"), plan);
+    }
+
+    /**
+     * @return the one statement on card_progress run by the repository call
+     */
+    private static String capturedDueQuery() {
+        List<String> due = SqlCapture.statements.stream()
+                .filter(sql -> sql.contains("card_progress"))
+                .toList();
+        assertEquals(1, due.size(), due.toString());
+        return due.get(0);
+    }
+
+    /**
+     * Explain generated SQL with its parameters bound, as the JDBC driver would run it
+     * @param sql the SQL with ? placeholders
+     * @param args one SQL expression per placeholder, in order
+     */
+    private String explain(String sql, String... args) {
+        String[] parts = sql.split("\\?", -1);
+        assertEquals(args.length + 1, parts.length, sql);
+        StringBuilder prepared = new StringBuilder(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            prepared.append('$').append(i).append(parts[i]);
+        }
+        jdbcTemplate.execute("PREPARE due_query AS " + prepared);
+        try {
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE due_query(" + String.join(", ", args) + ")", String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE due_query");
+        }
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
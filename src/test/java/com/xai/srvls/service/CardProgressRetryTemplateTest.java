@@ -0,0 +1,83 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.exception.ConcurrentReviewException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CardProgressRetryTemplateTest {
+
+    private CardProgressRetryTemplate retryTemplate;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        retryTemplate = new CardProgressRetryTemplate(transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(retryTemplate, "maxAttempts", 3);
+    }
+
+    @Test
+    void retriesDuplicateProgressKeys() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryTemplate.execute(status -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw violation("23505", "card_progress_pkey");
+            }
+            return "committed";
+        });
+
+        assertEquals("committed", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void rethrowsOtherIntegrityViolationsUnchanged() {
+        AtomicInteger attempts = new AtomicInteger();
+        DataIntegrityViolationException foreignKey = violation("23503", "fk_card_progress_flashcard");
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> retryTemplate.execute(status -> {
+                    attempts.incrementAndGet();
+                    throw foreignKey;
+                }));
+
+        assertSame(foreignKey, thrown);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void givesUpOnPersistentVersionConflicts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentReviewException.class, () -> retryTemplate.execute(status -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale card_progress");
+        }));
+
+        assertEquals(3, attempts.get());
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState, String constraint) {
+        SQLException sql = new SQLException("violates constraint " + constraint, sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, constraint));
+    }
+}
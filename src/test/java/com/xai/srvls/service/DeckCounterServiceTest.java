@@ -0,0 +1,174 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.DeckDashboardDTO;
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.model.Flashcard;
+import com.xai.srvls.model.Review;
+import com.xai.srvls.model.User;
+import com.xai.srvls.repository.DeckRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import com.xai.srvls.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the dashboard counters always equal a recount from card_progress: after concurrent
+ * first views of the dashboard, and after first views that race with reviews of the deck.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers
+class DeckCounterServiceTest {
+
+    private static final int CARDS = 40;
+    private static final int THREADS = 8;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Autowired
+    private DeckCounterService deckCounterService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentFirstViewsBuildTheCountersOnce() throws Exception {
+        User user = newUser();
+        Deck deck = deckRepository.save(new Deck("Counters", user));
+        List<Flashcard> cards = newCards(deck);
+        for (int i = 0; i < CARDS / 2; i++) {
+            review(cards.get(i), user, i % 6);
+        }
+
+        runConcurrently(THREADS, t -> deckCounterService.getDashboard(user.getId()));
+
+        assertCountersMatchProgress(user, deck);
+        DeckDashboardDTO row = deckCounterService.getDashboard(user.getId()).get(0);
+        assertEquals(CARDS / 2, row.getDueCount() + row.getLearnedCount());
+        assertEquals(CARDS / 2, row.getNewCount());
+    }
+
+    @Test
+    void reviewsDuringTheFirstBuildAreCounted() throws Exception {
+        User user = newUser();
+        Deck deck = deckRepository.save(new Deck("Counters", user));
+        List<Flashcard> cards = newCards(deck);
+
+        // Half the threads review their own cards, twice each, while the others open the dashboard
+        runConcurrently(THREADS, t -> {
+            if (t % 2 == 0) {
+                deckCounterService.getDashboard(user.getId());
+                return;
+            }
+            for (int i = t; i < CARDS; i += THREADS) {
+                review(cards.get(i), user, 4);
+                review(cards.get(i), user, 5);
+            }
+        });
+
+        assertCountersMatchProgress(user, deck);
+    }
+
+    private void assertCountersMatchProgress(User user, Deck deck) {
+        Map<LocalDate, Integer> expected = new HashMap<>();
+        jdbcTemplate.query("SELECT CAST(p.next_review_date AS date), count(*) FROM card_progress p " +
+                        "JOIN flashcards f ON f.id = p.flashcard_id WHERE p.user_id = ? AND f.deck_id = ? " +
+                        "GROUP BY 1",
+                rs -> { expected.put(rs.getDate(1).toLocalDate(), rs.getInt(2)); }, user.getId(), deck.getId());
+        Map<LocalDate, Integer> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT due_date, card_count FROM deck_due_counts " +
+                        "WHERE user_id = ? AND deck_id = ? AND card_count <> 0",
+                rs -> { actual.put(rs.getDate(1).toLocalDate(), rs.getInt(2)); }, user.getId(), deck.getId());
+        assertEquals(expected, actual);
+
+        int started = expected.values().stream().mapToInt(Integer::intValue).sum();
+        Map<String, Object> counter = jdbcTemplate.queryForMap(
+                "SELECT card_count, started_count FROM deck_counters WHERE user_id = ? AND deck_id = ?",
+                user.getId(), deck.getId());
+        assertEquals(CARDS, ((Number) counter.get("card_count")).intValue());
+        assertEquals(started, ((Number) counter.get("started_count")).intValue());
+    }
+
+    private User newUser() {
+        String name = "counters-" + UUID.randomUUID();
+        return userRepository.save(new User(name, name + "@example.com", "secret"));
+    }
+
+    private List<Flashcard> newCards(Deck deck) {
+        List<Flashcard> cards = new ArrayList<>(CARDS);
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(flashcardRepository.save(new Flashcard("front " + i, "back " + i, deck)));
+        }
+        return cards;
+    }
+
+    private void review(Flashcard flashcard, User user, int quality) {
+        Review review = new Review();
+        review.setQuality(quality);
+        reviewService.createReview(review, flashcard.getId(), user.getId());
+    }
+
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(); // Rethrows a duplicate key or any other failure
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,37 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.repository.FlashcardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class FlashcardServiceTest {
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private DueIndexService dueIndexService;
+
+    @InjectMocks
+    private FlashcardService flashcardService;
+
+    @Test
+    void dueQueueRejectsClientSort() {
+        PageRequest sorted = PageRequest.of(0, 20, Sort.by("frontContent"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> flashcardService.findFlashcardsDueForReview(UUID.randomUUID(), null, sorted));
+        verifyNoInteractions(flashcardRepository, dueIndexService);
+    }
+}
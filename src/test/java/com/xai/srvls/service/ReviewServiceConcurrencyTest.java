@@ -0,0 +1,171 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.exception.ConcurrentReviewException;
+import com.xai.srvls.model.CardProgress;
+import com.xai.srvls.model.CardProgressId;
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.model.Flashcard;
+import com.xai.srvls.model.Review;
+import com.xai.srvls.model.User;
+import com.xai.srvls.repository.CardProgressRepository;
+import com.xai.srvls.repository.DeckRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import com.xai.srvls.repository.ReviewRepository;
+import com.xai.srvls.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reviews cards from many threads at once with the default retry budget. Reviews of one card race:
+ * each either commits or is rejected with a ConcurrentReviewException, and none that committed is
+ * lost. Reviews of different cards never conflict, so they never retry.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers
+class ReviewServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int REVIEWS_PER_THREAD = 25;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private CardProgressRepository cardProgressRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentReviewsOfOneCardAreNotLost() throws Exception {
+        User user = newUser();
+        Deck deck = deckRepository.save(new Deck("Stress deck", user));
+        Flashcard flashcard = flashcardRepository.save(new Flashcard("front", "back", deck));
+        AtomicInteger committed = new AtomicInteger();
+
+        runConcurrently(t -> {
+            for (int i = 0; i < REVIEWS_PER_THREAD; i++) {
+                try {
+                    review(flashcard, user, t % 6);
+                    committed.incrementAndGet();
+                } catch (ConcurrentReviewException e) {
+                    // Rejected to the client after the default attempts; nothing of it was stored
+                }
+            }
+        });
+
+        int total = committed.get();
+        assertTrue(total > 0);
+        assertEquals(total, reviewRepository.countByFlashcardIdAndUserId(flashcard.getId(), user.getId()));
+        CardProgress progress = cardProgressRepository
+                .findById(new CardProgressId(user.getId(), flashcard.getId()))
+                .orElseThrow();
+        // Inserted by the first review at version 0, then updated once by each later review
+        assertEquals(total - 1, progress.getVersion());
+    }
+
+    @Test
+    void concurrentReviewsOfDifferentCardsNeverRetry() throws Exception {
+        User user = newUser();
+        Deck deck = deckRepository.save(new Deck("Stress deck", user));
+        List<Flashcard> flashcards = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            flashcards.add(flashcardRepository.save(new Flashcard("front " + t, "back " + t, deck)));
+        }
+        double conflictsBefore = conflicts();
+
+        // One card per thread, all of the same user and deck
+        runConcurrently(t -> {
+            for (int i = 0; i < REVIEWS_PER_THREAD; i++) {
+                review(flashcards.get(t), user, t % 6);
+            }
+        });
+
+        assertEquals(conflictsBefore, conflicts());
+        for (Flashcard flashcard : flashcards) {
+            assertEquals(REVIEWS_PER_THREAD,
+                    reviewRepository.countByFlashcardIdAndUserId(flashcard.getId(), user.getId()));
+            CardProgress progress = cardProgressRepository
+                    .findById(new CardProgressId(user.getId(), flashcard.getId()))
+                    .orElseThrow();
+            assertEquals(REVIEWS_PER_THREAD - 1, progress.getVersion());
+        }
+    }
+
+    private double conflicts() {
+        return meterRegistry.get("srvls.reviews.conflicts").counter().count();
+    }
+
+    private User newUser() {
+        String name = "stress-" + UUID.randomUUID();
+        return userRepository.save(new User(name, name + "@example.com", "secret"));
+    }
+
+    private void review(Flashcard flashcard, User user, int quality) {
+        Review review = new Review();
+        review.setQuality(quality);
+        reviewService.createReview(review, flashcard.getId(), user.getId());
+    }
+
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(); // Rethrows any unexpected failure
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewSessionDTO;
+import com.xai.srvls.model.Deck;
+import com.xai.srvls.model.Flashcard;
+import com.xai.srvls.model.Review;
+import com.xai.srvls.model.User;
+import com.xai.srvls.repository.DeckRepository;
+import com.xai.srvls.repository.FlashcardRepository;
+import com.xai.srvls.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers
+class ReviewSessionServiceTest {
+
+    private static final int SHARDS = 7;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Autowired
+    private ReviewSessionService reviewSessionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void reviewsRemoveTheirCardsFromTheStoredSession() {
+        User user = newUser();
+        Deck deck = deckRepository.save(new Deck("Session", user));
+        List<Flashcard> cards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            cards.add(flashcardRepository.save(new Flashcard("front " + i, "back " + i, deck)));
+        }
+        assertEquals(ids(cards), new HashSet<>(reviewSessionService.getSession(user.getId()).getNewFlashcardIds()));
+
+        // Not in the stored session; a rebuild would add it
+        flashcardRepository.save(new Flashcard("front 3", "back 3", deck));
+        Review review = new Review();
+        review.setQuality(5);
+        reviewService.createReview(review, cards.get(0).getId(), user.getId());
+
+        ReviewSessionDTO session = reviewSessionService.getSession(user.getId());
+        assertEquals(ids(cards.subList(1, 3)), new HashSet<>(session.getNewFlashcardIds()));
+        assertTrue(session.getDueFlashcardIds().isEmpty());
+        Long ttl = redisTemplate.getExpire("session:" + user.getId() + ":" + LocalDate.now());
+        assertTrue(ttl != null && ttl > 0, "The session lost its expiry: " + ttl);
+    }
+
+    @Test
+    void shardsSplitTheActiveUsers() {
+        Set<UUID> active = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            User user = newUser();
+            user.setLastLoginAt(LocalDateTime.now());
+            active.add(userRepository.save(user).getId());
+        }
+
+        // Each user falls in exactly one shard
+        List<UUID> sharded = new ArrayList<>();
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (UUID userId : userRepository.findActiveUserIdsInShard(since, SHARDS, shard)) {
+                if (active.contains(userId)) {
+                    sharded.add(userId);
+                }
+            }
+        }
+        assertEquals(active.size(), sharded.size());
+        assertEquals(active, new HashSet<>(sharded));
+    }
+
+    private User newUser() {
+        String name = "session-" + UUID.randomUUID();
+        return userRepository.save(new User(name, name + "@example.com", "secret"));
+    }
+
+    private static Set<UUID> ids(List<Flashcard> cards) {
+        return cards.stream().map(Flashcard::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,123 @@
+package com.xai.srvls.service;
+
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.profile.GCProfiler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics over a range of reviews: the streaming {@link ReviewStatisticsAccumulator} against the
+ * boxed path it replaced, which materialized the reviews and counted days in a HashMap.
+ * <p>
+ * The range is fixed at three years of 2,000 cards, and only the number of reviews grows. With the GC
+ * profiler, {@code gc.alloc.rate.norm} of the accumulator stays flat across the review counts (its
+ * arrays depend on days and cards only), while the boxed path grows with every review.
+ * {@link ReviewStatisticsAccumulatorTest} checks the same property on each build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewStatisticsAccumulatorBenchmark {
+
+    static final LocalDate START = LocalDate.of(2022, 1, 1);
+    static final LocalDate END = START.plusYears(3).minusDays(1);
+    static final int CARDS = 2_000;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int reviews;
+
+    private final long[] cardHigh = new long[CARDS];
+    private final long[] cardLow = new long[CARDS];
+
+    @Setup
+    public void createCards() {
+        for (int i = 0; i < CARDS; i++) {
+            UUID id = UUID.nameUUIDFromBytes(Integer.toString(i).getBytes());
+            cardHigh[i] = id.getMostSignificantBits();
+            cardLow[i] = id.getLeastSignificantBits();
+        }
+    }
+
+    @Benchmark
+    public ReviewStatisticsDTO accumulator() {
+        return accumulate(reviews, cardHigh, cardLow).toStatistics();
+    }
+
+    @Benchmark
+    public ReviewStatisticsDTO boxed() {
+        long firstDay = START.toEpochDay();
+        int days = (int) (END.toEpochDay() - firstDay + 1);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < reviews; i++) {
+            rows.add(new Object[]{LocalDate.ofEpochDay(firstDay + i % days), i % 6, (long) (i % 9000),
+                    new UUID(cardHigh[i % CARDS], cardLow[i % CARDS])});
+        }
+
+        Map<LocalDate, Integer> dailyCounts = new HashMap<>();
+        Map<Integer, Integer> qualityDist = new HashMap<>();
+        Set<UUID> cards = new HashSet<>();
+        long qualitySum = 0;
+        long responseTimeSum = 0;
+        for (Object[] row : rows) {
+            dailyCounts.merge((LocalDate) row[0], 1, Integer::sum);
+            qualityDist.merge((Integer) row[1], 1, Integer::sum);
+            qualitySum += (Integer) row[1];
+            responseTimeSum += (Long) row[2];
+            cards.add((UUID) row[3]);
+        }
+        ReviewStatisticsDTO statistics = new ReviewStatisticsDTO();
+        statistics.setTotalReviews(rows.size());
+        statistics.setUniqueFlashcardsReviewed(cards.size());
+        statistics.setDailyReviewCounts(dailyCounts);
+        statistics.setQualityDistribution(qualityDist);
+        statistics.setAverageQuality(rows.isEmpty() ? 0.0 : (double) qualitySum / rows.size());
+        statistics.setAverageResponseTimeMs(rows.isEmpty() ? 0L : responseTimeSum / rows.size());
+        return statistics;
+    }
+
+    /**
+     * Feed synthetic reviews spread evenly over the range and the cards
+     */
+    static ReviewStatisticsAccumulator accumulate(int reviews, long[] cardHigh, long[] cardLow) {
+        long firstDay = START.toEpochDay();
+        int days = (int) (END.toEpochDay() - firstDay + 1);
+        ReviewStatisticsAccumulator accumulator = new ReviewStatisticsAccumulator(START, END);
+        for (int i = 0; i < reviews; i++) {
+            accumulator.add(firstDay + i % days, i % 6, i % 9000, cardHigh[i % cardHigh.length],
+                    cardLow[i % cardLow.length]);
+        }
+        return accumulator;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReviewStatisticsAccumulatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
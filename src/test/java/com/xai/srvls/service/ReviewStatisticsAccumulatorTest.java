@@ -0,0 +1,55 @@
+package com.xai.srvls.service;
+
+import com.sun.management.ThreadMXBean;
+import com.xai.srvls.dto.ReviewStatisticsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReviewStatisticsAccumulatorTest {
+
+    private static final int CARDS = ReviewStatisticsAccumulatorBenchmark.CARDS;
+
+    private final long[] cardHigh = new long[CARDS];
+    private final long[] cardLow = new long[CARDS];
+
+    ReviewStatisticsAccumulatorTest() {
+        for (int i = 0; i < CARDS; i++) {
+            UUID id = UUID.nameUUIDFromBytes(Integer.toString(i).getBytes());
+            cardHigh[i] = id.getMostSignificantBits();
+            cardLow[i] = id.getLeastSignificantBits();
+        }
+    }
+
+    @Test
+    void countsEveryReviewOnce() {
+        ReviewStatisticsDTO statistics = ReviewStatisticsAccumulatorBenchmark
+                .accumulate(12_000, cardHigh, cardLow).toStatistics();
+
+        assertEquals(12_000, statistics.getTotalReviews());
+        assertEquals(CARDS, statistics.getUniqueFlashcardsReviewed());
+        assertEquals(2_000, statistics.getQualityDistribution().get(5).intValue());
+        assertEquals(2.5, statistics.getAverageQuality(), 1e-9);
+    }
+
+    @Test
+    void memoryDoesNotGrowWithTheNumberOfReviews() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ReviewStatisticsAccumulatorBenchmark.accumulate(10_000, cardHigh, cardLow); // Loads and warms the classes
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        ReviewStatisticsAccumulatorBenchmark.accumulate(10_000, cardHigh, cardLow);
+        long small = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        ReviewStatisticsAccumulatorBenchmark.accumulate(1_000_000, cardHigh, cardLow);
+        long large = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // A hundred times the reviews over the same days and cards allocate the same arrays
+        assertTrue(large < small + 64 * 1024, "10,000 reviews: " + small + " bytes, 1,000,000: " + large + " bytes");
+    }
+}
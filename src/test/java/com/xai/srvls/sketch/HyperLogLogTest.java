@@ -0,0 +1,75 @@
+package com.xai.srvls.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 12;
+    // Three standard errors of 1.04 / sqrt(2^12)
+    private static final double ERROR_BOUND = 3 * 1.04 / Math.sqrt(1 << PRECISION);
+
+    @Test
+    void estimatesWithinThreeStandardErrors() {
+        for (int n : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            long estimate = sketchOf(n, 0, n).estimate();
+
+            double error = Math.abs(estimate - n) / (double) n;
+            assertTrue(error < ERROR_BOUND, n + " distinct IDs estimated as " + estimate);
+        }
+    }
+
+    @Test
+    void countsSmallSetsAlmostExactly() {
+        HyperLogLog sketch = sketchOf(1, 0, 100);
+        // Repeats do not count
+        sketch.merge(sketchOf(1, 0, 100));
+
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void mergeEqualsTheSketchOfTheUnion() {
+        HyperLogLog first = sketchOf(7, 0, 60_000);
+        HyperLogLog second = sketchOf(7, 40_000, 100_000);
+
+        first.merge(second);
+
+        assertArrayEquals(sketchOf(7, 0, 100_000).toBytes(), first.toBytes());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        HyperLogLog sketch = sketchOf(3, 0, 50_000);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    void rejectsForeignBytesAndPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[100]));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(PRECISION).merge(new HyperLogLog(10)));
+    }
+
+    /**
+     * A sketch of the IDs numbered from {@code from} to {@code to}, exclusive; the same number is the same ID
+     */
+    private static HyperLogLog sketchOf(long seed, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            Random random = new Random(seed * 31 + i);
+            sketch.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return sketch;
+    }
+}
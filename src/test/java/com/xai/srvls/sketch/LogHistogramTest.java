@@ -0,0 +1,82 @@
+package com.xai.srvls.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHistogramTest {
+
+    @Test
+    void quantilesAreWithinThreePercent() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        for (double quantile : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            double expected = quantile * 100_000;
+            long actual = histogram.valueAtQuantile(quantile);
+            assertTrue(Math.abs(actual - expected) / expected < 0.03, "p" + quantile + " was " + actual);
+        }
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 0; value < 32; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(15, histogram.valueAtQuantile(0.5));
+        assertEquals(31, histogram.valueAtQuantile(1.0));
+        assertEquals(0, new LogHistogram().valueAtQuantile(0.5));
+    }
+
+    @Test
+    void mergeEqualsRecordingEverything() {
+        LogHistogram first = new LogHistogram();
+        LogHistogram second = new LogHistogram();
+        LogHistogram all = new LogHistogram();
+        for (int value = 0; value < 50_000; value += 7) {
+            (value % 2 == 0 ? first : second).record(value);
+            all.record(value);
+        }
+
+        first.merge(second);
+
+        assertEquals(all.count(), first.count());
+        assertArrayEquals(all.toBytes(), first.toBytes());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(-5);
+        histogram.record(250);
+        histogram.record(Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(1200);
+        }
+
+        LogHistogram restored = LogHistogram.fromBytes(histogram.toBytes());
+
+        assertEquals(histogram.count(), restored.count());
+        assertArrayEquals(histogram.toBytes(), restored.toBytes());
+        assertEquals(histogram.valueAtQuantile(0.99), restored.valueAtQuantile(0.99));
+    }
+
+    @Test
+    void rejectsTruncatedBytes() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(1_000_000);
+        byte[] bytes = histogram.toBytes();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LogHistogram.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+}